@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.internal.communicator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Field;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.common.HomematicConfig;
+import org.openhab.binding.homematic.internal.model.HmChannel;
+import org.openhab.binding.homematic.internal.model.HmDatapoint;
+import org.openhab.binding.homematic.internal.model.HmDatapointConfig;
+import org.openhab.binding.homematic.internal.model.HmDatapointInfo;
+import org.openhab.binding.homematic.internal.model.HmDevice;
+import org.openhab.binding.homematic.internal.model.HmInterface;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+import org.openhab.binding.homematic.internal.model.HmValueType;
+
+/**
+ * Tests the handling of the event batches of a multicall in the {@link AbstractHomematicGateway}.
+ *
+ * @author agent - Initial contribution
+ */
+public class AbstractHomematicGatewayTest {
+    private static final String ADDRESS = "LEQ0000001";
+
+    private AbstractHomematicGateway gateway;
+    private HmDatapoint level;
+    private HmDatapointInfo levelInfo;
+    private List<Object> publishedValues = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        HomematicGatewayAdapter gatewayAdapter = mock(HomematicGatewayAdapter.class);
+        when(gatewayAdapter.getDatapointConfig(any(HmDatapoint.class))).thenReturn(new HmDatapointConfig());
+        doAnswer(invocation -> publishedValues.add(((HmDatapoint) invocation.getArguments()[0]).getValue()))
+                .when(gatewayAdapter).onStateUpdated(any(HmDatapoint.class));
+        gateway = new DefaultGateway("test", new HomematicConfig(), gatewayAdapter, null);
+
+        HmDevice device = new HmDevice(ADDRESS, HmInterface.RF, "HM-LC-Dim1T-Pl", "test", null, "1.0");
+        HmChannel channel = new HmChannel("DIMMER", 1);
+        device.addChannel(channel);
+        level = new HmDatapoint("LEVEL", "", HmValueType.FLOAT, 0.0, false, HmParamsetType.VALUES);
+        channel.addDatapoint(level);
+        levelInfo = new HmDatapointInfo(level);
+
+        getField("devices", Map.class).put(ADDRESS, device);
+        setField("initialized", true);
+    }
+
+    @Test
+    public void onlyTheNewestValueOfABatchIsPublished() {
+        gateway.eventsReceived(events(0.2, 0.4, 0.6));
+
+        assertThat(publishedValues, is(Arrays.<Object> asList(0.6)));
+        assertThat(level.getValue(), is((Object) 0.6));
+    }
+
+    @Test
+    public void echoEventIsDroppedBeforeANewerChange() throws Exception {
+        // the echo of our own command arrives in the same batch as a real change of the device
+        getField("echoEvents", Set.class).add(levelInfo);
+
+        gateway.eventsReceived(events(1.0, 0.5));
+
+        assertThat(publishedValues, is(Arrays.<Object> asList(0.5)));
+        assertThat(level.getValue(), is((Object) 0.5));
+        assertThat(getField("echoEvents", Set.class).isEmpty(), is(true));
+    }
+
+    private List<Entry<HmDatapointInfo, Object>> events(Object... values) {
+        List<Entry<HmDatapointInfo, Object>> events = new ArrayList<>();
+        for (Object value : values) {
+            events.add(new SimpleImmutableEntry<HmDatapointInfo, Object>(
+                    new HmDatapointInfo(ADDRESS, HmParamsetType.VALUES, 1, "LEVEL"), value));
+        }
+        return events;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getField(String name, Class<T> type) throws Exception {
+        Field field = AbstractHomematicGateway.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return (T) field.get(gateway);
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = AbstractHomematicGateway.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(gateway, value);
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.internal.communicator.message;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage.TYPE;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the throughput of encoding and decoding a large BIN-RPC message, like the response of listDevices, with a
+ * pooled {@link BinRpcCodec} and with a new codec per message.
+ *
+ * The benchmark only runs with {@code -Dhomematic.benchmark=true}, the duration of every measurement in seconds can
+ * be set with {@code -Dhomematic.benchmark.seconds=5}.
+ *
+ * @author agent - Initial contribution
+ */
+public class BinRpcCodecBenchmarkTest {
+    private static final String ENCODING = "ISO-8859-1";
+    private static final int DEVICES = 500;
+
+    private final Logger logger = LoggerFactory.getLogger(BinRpcCodecBenchmarkTest.class);
+
+    private BinRpcMessage response;
+    private byte[] encoded;
+    private long duration;
+
+    @Before
+    public void setup() {
+        Assume.assumeTrue("BIN-RPC benchmark is disabled, enable it with -Dhomematic.benchmark=true",
+                Boolean.getBoolean("homematic.benchmark"));
+        duration = TimeUnit.SECONDS.toNanos(Long.getLong("homematic.benchmark.seconds", 5));
+
+        Object[] devices = new Object[DEVICES];
+        for (int i = 0; i < DEVICES; i++) {
+            Map<String, Object> device = new HashMap<String, Object>();
+            device.put("ADDRESS", String.format("LEQ%07d:%d", i / 4, i % 4));
+            device.put("PARENT", String.format("LEQ%07d", i / 4));
+            device.put("TYPE", "HM-LC-Dim1T-Pl");
+            device.put("VERSION", 12);
+            device.put("FLAGS", 1);
+            device.put("DIRECTION", i % 3);
+            device.put("AES_ACTIVE", Boolean.FALSE);
+            device.put("LEVEL", i / 1000.0);
+            device.put("PARAMSETS", new Object[] { "MASTER", "VALUES", "LINK" });
+            devices[i] = device;
+        }
+        response = new BinRpcMessage(null, TYPE.RESPONSE, ENCODING);
+        response.addArg(devices);
+        encoded = response.createMessage();
+    }
+
+    @Test
+    public void decode() throws Exception {
+        BinRpcCodecPool pool = new BinRpcCodecPool(ENCODING);
+        Object[] expected = new BinRpcMessage(encoded, false, ENCODING).getResponseData();
+        BinRpcCodec pooled = pool.borrow();
+        assertThat(pooled.decode(new ByteArrayInputStream(encoded), false).getResponseData(), is(expected));
+        pool.release(pooled);
+
+        measure("decode, pooled codec", () -> {
+            BinRpcCodec codec = pool.borrow();
+            try {
+                codec.decode(new ByteArrayInputStream(encoded), false);
+            } finally {
+                pool.release(codec);
+            }
+        });
+        measure("decode, new codec", () -> new BinRpcCodec(ENCODING).decode(new ByteArrayInputStream(encoded), false));
+    }
+
+    @Test
+    public void encode() throws Exception {
+        BinRpcCodecPool pool = new BinRpcCodecPool(ENCODING);
+
+        measure("encode, pooled codec", () -> {
+            BinRpcCodec codec = pool.borrow();
+            try {
+                codec.encode(response);
+            } finally {
+                pool.release(codec);
+            }
+        });
+        measure("encode, new codec", () -> new BinRpcCodec(ENCODING).encodeToArray(response));
+    }
+
+    private void measure(String name, Operation operation) throws Exception {
+        // warm up for a fifth of the measurement
+        run(operation, duration / 5);
+        long start = System.nanoTime();
+        long count = run(operation, duration);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        logger.info("{}: {} messages/s, {} MB/s", name, String.format("%.0f", count / seconds),
+                String.format("%.1f", count * encoded.length / seconds / 1e6));
+    }
+
+    private long run(Operation operation, long nanos) throws Exception {
+        long end = System.nanoTime() + nanos;
+        long count = 0;
+        while (System.nanoTime() < end) {
+            operation.run();
+            count++;
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.internal.communicator.message;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage.TYPE;
+
+/**
+ * Tests the round trip of BIN-RPC messages through the {@link BinRpcCodec}.
+ *
+ * @author agent - Initial contribution
+ */
+public class BinRpcCodecTest {
+    private static final String ENCODING = "ISO-8859-1";
+
+    @Test
+    public void requestRoundTrip() throws Exception {
+        Map<String, Object> struct = new HashMap<String, Object>();
+        struct.put("LEVEL", 0.5);
+        struct.put("ADDRESS", "LEQ0000001:1");
+        struct.put("AES_ACTIVE", Boolean.TRUE);
+
+        BinRpcMessage request = new BinRpcMessage("event", ENCODING);
+        request.addArg("interfaceId");
+        request.addArg(42);
+        request.addArg(Boolean.FALSE);
+        request.addArg(-1.25);
+        request.addArg(new Date(1500000000000L));
+        request.addArg(new Object[] { "a", 1 });
+        request.addArg(struct);
+
+        BinRpcMessage decoded = new BinRpcMessage(request.createMessage(), true, ENCODING);
+
+        assertThat(decoded.getMethodName(), is("event"));
+        Object[] data = decoded.getResponseData();
+        assertThat(data.length, is(7));
+        assertThat(data[0], is((Object) "interfaceId"));
+        assertThat(data[1], is((Object) 42));
+        assertThat(data[2], is((Object) Boolean.FALSE));
+        assertThat(data[3], is((Object) (-1.25)));
+        assertThat(data[4], is((Object) new Date(1500000000000L)));
+        assertThat(Arrays.asList((Object[]) data[5]), is(Arrays.<Object> asList("a", 1)));
+        assertThat(data[6], is((Object) struct));
+    }
+
+    @Test
+    public void structsAreDecodedSortedByKey() throws Exception {
+        Map<String, Object> struct = new HashMap<String, Object>();
+        struct.put("VERSION", 1);
+        struct.put("ADDRESS", "LEQ0000001");
+        struct.put("TYPE", "HM-LC-Dim1T-Pl");
+
+        Object decoded = roundTripResponse(struct);
+
+        assertThat(decoded, instanceOf(TreeMap.class));
+        assertThat(((Map<?, ?>) decoded).keySet().toString(), is("[ADDRESS, TYPE, VERSION]"));
+    }
+
+    @Test
+    public void doublesAreRoundedToSixDecimals() throws Exception {
+        assertThat(roundTripResponse(0.1), is((Object) 0.1));
+        assertThat(roundTripResponse(21.7), is((Object) 21.7));
+        assertThat(roundTripResponse(-0.000001), is((Object) (-0.000001)));
+        assertThat(roundTripResponse(new BigDecimal("3.1415926")), is((Object) 3.141593));
+        assertThat(roundTripResponse(0.0), is((Object) 0.0));
+    }
+
+    @Test
+    public void stringsUseTheEncoding() throws Exception {
+        BinRpcMessage response = new BinRpcMessage(null, TYPE.RESPONSE, "UTF-8");
+        response.addArg("Küche €");
+
+        BinRpcMessage decoded = new BinRpcMessage(response.createMessage(), false, "UTF-8");
+
+        assertThat(decoded.getResponseData()[0], is((Object) "Küche €"));
+    }
+
+    @Test
+    public void largeMessageIsDecodedFromStream() throws Exception {
+        // larger than the buffer the codec keeps between messages
+        char[] chars = new char[100000];
+        Arrays.fill(chars, 'x');
+        String large = new String(chars);
+        BinRpcMessage response = new BinRpcMessage(null, TYPE.RESPONSE, ENCODING);
+        response.addArg(new Object[] { large, "small" });
+        byte[] encoded = response.createMessage();
+
+        BinRpcCodec codec = new BinRpcCodec(ENCODING);
+        BinRpcMessage decoded = codec.decode(new ByteArrayInputStream(encoded), false);
+        assertThat(Arrays.asList((Object[]) decoded.getResponseData()[0]), is(Arrays.<Object> asList(large, "small")));
+
+        // the codec still works with its released buffer
+        response = new BinRpcMessage(null, TYPE.RESPONSE, ENCODING);
+        response.addArg("next");
+        decoded = codec.decode(new ByteArrayInputStream(response.createMessage()), false);
+        assertThat(decoded.getResponseData()[0], is((Object) "next"));
+    }
+
+    private Object roundTripResponse(Object value) throws Exception {
+        BinRpcMessage response = new BinRpcMessage(null, TYPE.RESPONSE, ENCODING);
+        response.addArg(value);
+        BinRpcMessage decoded = new BinRpcMessage(response.createMessage(), false, ENCODING);
+        return decoded.getResponseData()[0];
+    }
+}
@@ -48,7 +48,10 @@ public class HomematicConfig {
     private int binCallbackPort;
 
     private int socketMaxAlive = 900;
+    private int socketPoolSize = 3;
     private int timeout = 15;
+    private int metadataLoadThreads = 4;
+    private boolean nioCallbackServer = false;
     private int installModeDuration = DEFAULT_INSTALL_MODE_DURATION;
     private long discoveryTimeToLive = -1;
     private boolean unpairOnDeletion = false;
@@ -149,6 +152,34 @@ public class HomematicConfig {
         this.socketMaxAlive = socketMaxAlive;
     }
 
+    /**
+     * Returns the maximum number of concurrent socket connections per port to a Homematic gateway.
+     */
+    public int getSocketPoolSize() {
+        return socketPoolSize;
+    }
+
+    /**
+     * Sets the maximum number of concurrent socket connections per port to a Homematic gateway.
+     */
+    public void setSocketPoolSize(int socketPoolSize) {
+        this.socketPoolSize = socketPoolSize;
+    }
+
+    /**
+     * Returns true, if the BIN-RPC callback server should use non-blocking IO.
+     */
+    public boolean isNioCallbackServer() {
+        return nioCallbackServer;
+    }
+
+    /**
+     * Sets if the BIN-RPC callback server should use non-blocking IO.
+     */
+    public void setNioCallbackServer(boolean nioCallbackServer) {
+        this.nioCallbackServer = nioCallbackServer;
+    }
+
     /**
      * Returns the timeout for the communication to a Homematic gateway in seconds.
      */
@@ -163,6 +194,20 @@ public class HomematicConfig {
         this.timeout = timeout;
     }
 
+    /**
+     * Returns the number of parallel connections used to load the device metadata from a Homematic gateway.
+     */
+    public int getMetadataLoadThreads() {
+        return metadataLoadThreads;
+    }
+
+    /**
+     * Sets the number of parallel connections used to load the device metadata from a Homematic gateway.
+     */
+    public void setMetadataLoadThreads(int metadataLoadThreads) {
+        this.metadataLoadThreads = metadataLoadThreads;
+    }
+
     /**
      * Returns the time to live for discovery results of a Homematic gateway in seconds.
      */
@@ -357,7 +402,9 @@ public class HomematicConfig {
                 .append("gatewayType", gatewayType).append("rfPort", getRfPort()).append("wiredPort", getWiredPort())
                 .append("hmIpPort", getHmIpPort()).append("cuxdPort", getCuxdPort()).append("groupPort", getGroupPort())
                 .append("timeout", timeout).append("discoveryTimeToLive", discoveryTimeToLive)
-                .append("installModeDuration", installModeDuration).append("socketMaxAlive", socketMaxAlive);
+                .append("installModeDuration", installModeDuration).append("socketMaxAlive", socketMaxAlive)
+                .append("socketPoolSize", socketPoolSize).append("metadataLoadThreads", metadataLoadThreads)
+                .append("nioCallbackServer", nioCallbackServer);
         return tsb.toString();
     }
 }
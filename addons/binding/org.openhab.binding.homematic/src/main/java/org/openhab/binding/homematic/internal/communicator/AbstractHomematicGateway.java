@@ -16,14 +16,22 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.jetty.client.HttpClient;
@@ -34,6 +42,7 @@ import org.openhab.binding.homematic.internal.communicator.client.RpcClient;
 import org.openhab.binding.homematic.internal.communicator.client.TransferMode;
 import org.openhab.binding.homematic.internal.communicator.client.UnknownParameterSetException;
 import org.openhab.binding.homematic.internal.communicator.client.XmlRpcClient;
+import org.openhab.binding.homematic.internal.communicator.server.BinRpcNioServer;
 import org.openhab.binding.homematic.internal.communicator.server.BinRpcServer;
 import org.openhab.binding.homematic.internal.communicator.server.RpcEventListener;
 import org.openhab.binding.homematic.internal.communicator.server.RpcServer;
@@ -95,17 +104,18 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     private HomematicGatewayAdapter gatewayAdapter;
     private DelayedExecuter sendDelayedExecutor = new DelayedExecuter();
     private DelayedExecuter receiveDelayedExecutor = new DelayedExecuter();
-    private Set<HmDatapointInfo> echoEvents = Collections.synchronizedSet(new HashSet<HmDatapointInfo>());
+    private Set<HmDatapointInfo> echoEvents = ConcurrentHashMap.newKeySet();
     private ScheduledFuture<?> connectionTrackerFuture;
     private ConnectionTrackerThread connectionTrackerThread;
-    private Map<String, HmDevice> devices = Collections.synchronizedMap(new HashMap<String, HmDevice>());
+    private Map<String, HmDevice> devices = new ConcurrentHashMap<String, HmDevice>();
     private Map<HmInterface, TransferMode> availableInterfaces = new TreeMap<HmInterface, TransferMode>();
     private static List<VirtualDatapointHandler> virtualDatapointHandlers = new ArrayList<VirtualDatapointHandler>();
-    private boolean cancelLoadAllMetadata;
+    private volatile boolean cancelLoadAllMetadata;
     private boolean initialized;
     private boolean newDeviceEventsEnabled;
     private ScheduledFuture<?> enableNewDeviceFuture;
     private ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(GATEWAY_POOL_NAME);
+    private ParamsetDescriptionStore paramsetDescriptionStore;
 
     static {
         // loads all virtual datapoints
@@ -134,6 +144,7 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         this.config = config;
         this.gatewayAdapter = gatewayAdapter;
         this.httpClient = httpClient;
+        this.paramsetDescriptionStore = new ParamsetDescriptionStore(id);
     }
 
     @Override
@@ -239,8 +250,14 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     private void startServers() throws IOException {
         for (TransferMode mode : availableInterfaces.values()) {
             if (!rpcServers.containsKey(mode)) {
-                RpcServer rpcServer = mode == TransferMode.XML_RPC ? new XmlRpcServer(this, config)
-                        : new BinRpcServer(this, config);
+                RpcServer rpcServer;
+                if (mode == TransferMode.XML_RPC) {
+                    rpcServer = new XmlRpcServer(this, config);
+                } else if (config.isNioCallbackServer()) {
+                    rpcServer = new BinRpcNioServer(this, config);
+                } else {
+                    rpcServer = new BinRpcServer(this, config);
+                }
                 rpcServers.put(mode, rpcServer);
                 rpcServer.start();
             }
@@ -362,59 +379,135 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         // load all device descriptions
         List<HmDevice> deviceDescriptions = getDeviceDescriptions();
 
+        // the first device of each type and firmware fills the cache, all other devices are cloned from it later
+        List<HmDevice> firstDevices = new ArrayList<HmDevice>();
+        List<HmDevice> otherDevices = new ArrayList<HmDevice>();
+        Set<String> deviceTypes = new HashSet<String>();
+        for (HmDevice device : deviceDescriptions) {
+            if (deviceTypes.add(device.getType() + ":" + device.getFirmware())) {
+                firstDevices.add(device);
+            } else {
+                otherDevices.add(device);
+            }
+        }
+
         // loading datapoints for all channels
         Set<String> loadedDevices = new HashSet<String>();
-        Map<String, Collection<HmDatapoint>> datapointsByChannelIdCache = new HashMap<String, Collection<HmDatapoint>>();
-        for (HmDevice device : deviceDescriptions) {
-            if (!cancelLoadAllMetadata) {
+        Map<String, Collection<HmDatapoint>> datapointsByChannelIdCache = new ConcurrentHashMap<>();
+        paramsetDescriptionStore.load();
+        // own threads instead of a shared pool, the loader threads share the RPC clients and their socket pool
+        AtomicInteger loaderThreadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, config.getMetadataLoadThreads()),
+                runnable -> {
+                    Thread thread = new Thread(runnable,
+                            "homematicMetadataLoader-" + id + "-" + loaderThreadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            loadDeviceMetadata(executor, firstDevices, datapointsByChannelIdCache, loadedDevices);
+            loadDeviceMetadata(executor, otherDevices, datapointsByChannelIdCache, loadedDevices);
+        } finally {
+            executor.shutdownNow();
+        }
+        paramsetDescriptionStore.save();
+        if (!cancelLoadAllMetadata) {
+            devices.keySet().retainAll(loadedDevices);
+        }
+        initialized = true;
+    }
+
+    /**
+     * Loads the metadata of the given devices in parallel and notifies the gateway adapter as soon as a device has
+     * been loaded.
+     */
+    private void loadDeviceMetadata(ExecutorService executor, List<HmDevice> deviceDescriptions,
+            final Map<String, Collection<HmDatapoint>> datapointsByChannelIdCache, Set<String> loadedDevices)
+            throws IOException {
+        CompletionService<HmDevice> completionService = new ExecutorCompletionService<HmDevice>(executor);
+        for (final HmDevice device : deviceDescriptions) {
+            completionService.submit(() -> {
+                if (cancelLoadAllMetadata) {
+                    return null;
+                }
                 try {
-                    logger.trace("Loading metadata for device '{}' of type '{}'", device.getAddress(),
-                            device.getType());
-                    if (device.isGatewayExtras()) {
-                        loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_VARIABLE));
-                        loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_SCRIPT));
-                    } else {
-                        for (HmChannel channel : device.getChannels()) {
-                            logger.trace("  Loading channel {}", channel);
-                            // speed up metadata generation a little bit for equal channels in the gateway devices
-                            if ((DEVICE_TYPE_VIRTUAL.equals(device.getType())
-                                    || DEVICE_TYPE_VIRTUAL_WIRED.equals(device.getType())) && channel.getNumber() > 1) {
-                                HmChannel previousChannel = device.getChannel(channel.getNumber() - 1);
-                                cloneAllDatapointsIntoChannel(channel, previousChannel.getDatapoints());
-                            } else {
-                                String channelId = String.format("%s:%s:%s", channel.getDevice().getType(),
-                                        channel.getDevice().getFirmware(), channel.getNumber());
-                                Collection<HmDatapoint> cachedDatapoints = datapointsByChannelIdCache.get(channelId);
-                                if (cachedDatapoints != null) {
-                                    // clone all datapoints
-                                    cloneAllDatapointsIntoChannel(channel, cachedDatapoints);
-                                } else {
-                                    logger.trace("    Loading datapoints into channel {}", channel);
-                                    addChannelDatapoints(channel, HmParamsetType.MASTER);
-                                    addChannelDatapoints(channel, HmParamsetType.VALUES);
-
-                                    // Make sure to only cache non-reconfigurable channels. For reconfigurable channels,
-                                    // the data point set might change depending on the selected mode.
-                                    if (!channel.isReconfigurable()) {
-                                        datapointsByChannelIdCache.put(channelId, channel.getDatapoints());
-                                    }
-                                }
-                            }
-                        }
-                    }
-                    prepareDevice(device);
-                    loadedDevices.add(device.getAddress());
-                    gatewayAdapter.onDeviceLoaded(device);
+                    loadDeviceMetadata(device, datapointsByChannelIdCache);
+                    return device;
                 } catch (IOException ex) {
                     logger.warn("Can't load device with address '{}' from gateway '{}': {}", device.getAddress(), id,
                             ex.getMessage());
+                    return null;
                 }
+            });
+        }
+
+        for (int i = 0; i < deviceDescriptions.size(); i++) {
+            try {
+                HmDevice device = completionService.take().get();
+                if (device != null && !cancelLoadAllMetadata) {
+                    prepareDevice(device);
+                    loadedDevices.add(device.getAddress());
+                    gatewayAdapter.onDeviceLoaded(device);
+                }
+            } catch (ExecutionException ex) {
+                logger.warn("Can't load device metadata from gateway '{}': {}", id, ex.getCause().getMessage(),
+                        ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Loading device metadata from gateway '" + id + "' interrupted");
             }
         }
-        if (!cancelLoadAllMetadata) {
-            devices.keySet().retainAll(loadedDevices);
+    }
+
+    /**
+     * Loads the datapoint metadata of all channels of the given device.
+     */
+    private void loadDeviceMetadata(HmDevice device, Map<String, Collection<HmDatapoint>> datapointsByChannelIdCache)
+            throws IOException {
+        logger.trace("Loading metadata for device '{}' of type '{}'", device.getAddress(), device.getType());
+        if (device.isGatewayExtras()) {
+            loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_VARIABLE));
+            loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_SCRIPT));
+        } else {
+            for (HmChannel channel : device.getChannels()) {
+                logger.trace("  Loading channel {}", channel);
+                // speed up metadata generation a little bit for equal channels in the gateway devices
+                if ((DEVICE_TYPE_VIRTUAL.equals(device.getType()) || DEVICE_TYPE_VIRTUAL_WIRED.equals(device.getType()))
+                        && channel.getNumber() > 1) {
+                    HmChannel previousChannel = device.getChannel(channel.getNumber() - 1);
+                    cloneAllDatapointsIntoChannel(channel, previousChannel.getDatapoints());
+                } else {
+                    String channelId = String.format("%s:%s:%s", channel.getDevice().getType(),
+                            channel.getDevice().getFirmware(), channel.getNumber());
+                    boolean storable = StringUtils.isNotBlank(channel.getDevice().getFirmware());
+                    Collection<HmDatapoint> cachedDatapoints = datapointsByChannelIdCache.get(channelId);
+                    if (cachedDatapoints == null && storable) {
+                        // paramset descriptions only change with the firmware, try the persistent store first
+                        cachedDatapoints = paramsetDescriptionStore.get(channelId);
+                        if (cachedDatapoints != null) {
+                            datapointsByChannelIdCache.put(channelId, cachedDatapoints);
+                        }
+                    }
+                    if (cachedDatapoints != null) {
+                        // clone all datapoints
+                        cloneAllDatapointsIntoChannel(channel, cachedDatapoints);
+                    } else {
+                        logger.trace("    Loading datapoints into channel {}", channel);
+                        addChannelDatapoints(channel, HmParamsetType.MASTER);
+                        addChannelDatapoints(channel, HmParamsetType.VALUES);
+
+                        // Make sure to only cache non-reconfigurable channels. For reconfigurable channels,
+                        // the data point set might change depending on the selected mode.
+                        if (!channel.isReconfigurable()) {
+                            datapointsByChannelIdCache.put(channelId, channel.getDatapoints());
+                            if (storable) {
+                                paramsetDescriptionStore.put(channelId, channel.getDatapoints());
+                            }
+                        }
+                    }
+                }
+            }
         }
-        initialized = true;
     }
 
     /**
@@ -707,33 +800,87 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
 
     @Override
     public void eventReceived(HmDatapointInfo dpInfo, Object newValue) {
-        String className = newValue == null ? "Unknown" : newValue.getClass().getSimpleName();
-        logger.debug("Received new ({}) value '{}' for '{}' from gateway with id '{}'", className, newValue, dpInfo,
-                id);
+        HmDatapoint dp = resolveEventDatapoint(dpInfo, newValue);
+        if (dp != null) {
+            handleEvent(dp, dpInfo, newValue);
+        }
+    }
+
+    @Override
+    public void eventsReceived(List<Entry<HmDatapointInfo, Object>> events) {
+        // resolve in arrival order, an echo event always precedes the real changes of the same datapoint
+        HmDatapoint[] datapoints = new HmDatapoint[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            Entry<HmDatapointInfo, Object> event = events.get(i);
+            datapoints[i] = resolveEventDatapoint(event.getKey(), event.getValue());
+        }
+
+        // only the newest value of a datapoint is relevant
+        Set<HmDatapoint> updatedDatapoints = Collections.newSetFromMap(new IdentityHashMap<HmDatapoint, Boolean>());
+        int supersededEvents = 0;
+        for (int i = datapoints.length - 1; i >= 0; i--) {
+            HmDatapoint dp = datapoints[i];
+            // every trigger event is relevant, e.g. multiple button presses
+            if (dp != null && !dp.isTrigger() && !dp.isPressDatapoint() && !updatedDatapoints.add(dp)) {
+                datapoints[i] = null;
+                supersededEvents++;
+            }
+        }
+        if (supersededEvents > 0) {
+            logger.debug("Ignoring {} of {} events superseded in the same batch from gateway with id '{}'",
+                    supersededEvents, events.size(), id);
+        }
+
+        for (int i = 0; i < datapoints.length; i++) {
+            if (datapoints[i] != null) {
+                Entry<HmDatapointInfo, Object> event = events.get(i);
+                handleEvent(datapoints[i], event.getKey(), event.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns the datapoint of the event or null, if the event should not be published.
+     */
+    private HmDatapoint resolveEventDatapoint(HmDatapointInfo dpInfo, Object newValue) {
+        if (logger.isDebugEnabled()) {
+            String className = newValue == null ? "Unknown" : newValue.getClass().getSimpleName();
+            logger.debug("Received new ({}) value '{}' for '{}' from gateway with id '{}'", className, newValue,
+                    dpInfo, id);
+        }
 
         if (echoEvents.remove(dpInfo)) {
             logger.debug("Echo event detected, ignoring '{}'", dpInfo);
-        } else {
-            try {
-                if (connectionTrackerThread != null && dpInfo.isPong() && id.equals(newValue)) {
-                    connectionTrackerThread.pongReceived();
-                }
-                if (initialized) {
-                    final HmDatapoint dp = getDatapoint(dpInfo);
-                    HmDatapointConfig config = gatewayAdapter.getDatapointConfig(dp);
-                    receiveDelayedExecutor.start(dpInfo, config.getReceiveDelay(), () -> {
-                        dp.setValue(newValue);
+            return null;
+        }
+        if (connectionTrackerThread != null && dpInfo.isPong() && id.equals(newValue)) {
+            connectionTrackerThread.pongReceived();
+        }
+        if (!initialized) {
+            return null;
+        }
+        HmDevice device = devices.get(dpInfo.getAddress());
+        HmChannel channel = device == null ? null : device.getChannel(dpInfo.getChannel());
+        return channel == null ? null : channel.getDatapoint(dpInfo);
+    }
 
-                        gatewayAdapter.onStateUpdated(dp);
-                        handleVirtualDatapointEvent(dp, true);
-                        if (dp.isPressDatapoint() && MiscUtils.isTrueValue(dp.getValue())) {
-                            disableDatapoint(dp, DEFAULT_DISABLE_DELAY);
-                        }
-                    });
+    /**
+     * Sets the new value of the datapoint and publishes it.
+     */
+    private void handleEvent(final HmDatapoint dp, HmDatapointInfo dpInfo, final Object newValue) {
+        try {
+            HmDatapointConfig config = gatewayAdapter.getDatapointConfig(dp);
+            receiveDelayedExecutor.start(dpInfo, config.getReceiveDelay(), () -> {
+                dp.setValue(newValue);
+
+                gatewayAdapter.onStateUpdated(dp);
+                handleVirtualDatapointEvent(dp, true);
+                if (dp.isPressDatapoint() && MiscUtils.isTrueValue(dp.getValue())) {
+                    disableDatapoint(dp, DEFAULT_DISABLE_DELAY);
                 }
-            } catch (HomematicClientException | IOException ex) {
-                // ignore
-            }
+            });
+        } catch (HomematicClientException | IOException ex) {
+            // ignore
         }
     }
 
@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.internal.communicator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.openhab.binding.homematic.internal.model.HmDatapoint;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+import org.openhab.binding.homematic.internal.model.HmValueType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent store for the datapoint metadata (paramset descriptions) of Homematic channels. The metadata only
+ * changes with the firmware of a device, therefore it is stored by device type, firmware and channel number in the
+ * userdata folder.
+ *
+ * @author agent - Initial contribution
+ */
+public class ParamsetDescriptionStore {
+    private final Logger logger = LoggerFactory.getLogger(ParamsetDescriptionStore.class);
+
+    private static final int FILE_MAGIC = 0x484D5044;
+    private static final int FILE_VERSION = 1;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_BOOLEAN = 1;
+    private static final byte VALUE_INTEGER = 2;
+    private static final byte VALUE_DOUBLE = 3;
+    private static final byte VALUE_STRING = 4;
+
+    private final File file;
+    private final Map<String, Collection<HmDatapoint>> datapointsByChannelId = new ConcurrentHashMap<>();
+    private volatile boolean modified;
+
+    public ParamsetDescriptionStore(String gatewayId) {
+        this(new File(ConfigConstants.getUserDataFolder() + File.separator + "homematic",
+                gatewayId + ".paramsets"));
+    }
+
+    public ParamsetDescriptionStore(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the stored datapoints of the channel with the given id or null, if the channel is unknown.
+     */
+    public Collection<HmDatapoint> get(String channelId) {
+        return datapointsByChannelId.get(channelId);
+    }
+
+    /**
+     * Stores a copy of the non virtual datapoints of the channel with the given id.
+     */
+    public void put(String channelId, Collection<HmDatapoint> datapoints) {
+        List<HmDatapoint> storedDatapoints = new ArrayList<HmDatapoint>(datapoints.size());
+        for (HmDatapoint dp : datapoints) {
+            if (!dp.isVirtual()) {
+                HmDatapoint storedDp = dp.clone();
+                storedDp.setChannel(null);
+                storedDp.setValue(storedDp.getDefaultValue());
+                storedDatapoints.add(storedDp);
+            }
+        }
+        datapointsByChannelId.put(channelId, storedDatapoints);
+        modified = true;
+    }
+
+    /**
+     * Removes all stored datapoints.
+     */
+    public void clear() {
+        datapointsByChannelId.clear();
+        modified = true;
+    }
+
+    /**
+     * Loads the store from disk, a missing or outdated file results in an empty store.
+     */
+    public void load() {
+        datapointsByChannelId.clear();
+        modified = false;
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                logger.debug("Ignoring outdated paramset description store '{}'", file);
+                return;
+            }
+            int channelCount = in.readInt();
+            for (int i = 0; i < channelCount; i++) {
+                String channelId = in.readUTF();
+                int datapointCount = in.readInt();
+                List<HmDatapoint> datapoints = new ArrayList<HmDatapoint>(datapointCount);
+                for (int j = 0; j < datapointCount; j++) {
+                    datapoints.add(readDatapoint(in));
+                }
+                datapointsByChannelId.put(channelId, datapoints);
+            }
+            logger.debug("Loaded paramset descriptions of {} channels from '{}'", channelCount, file);
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Can't load paramset description store '{}', ignoring it: {}", file, ex.getMessage());
+            datapointsByChannelId.clear();
+        }
+    }
+
+    /**
+     * Saves the store to disk if it has been modified since the last load or save.
+     */
+    public void save() {
+        if (!modified) {
+            return;
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            file.getParentFile().mkdirs();
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_VERSION);
+                Map<String, Collection<HmDatapoint>> snapshot = new ConcurrentHashMap<>(datapointsByChannelId);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, Collection<HmDatapoint>> entry : snapshot.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (HmDatapoint dp : entry.getValue()) {
+                        writeDatapoint(out, dp);
+                    }
+                }
+            }
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Unable to replace file " + file);
+            }
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("Unable to rename file " + tempFile);
+            }
+            modified = false;
+            logger.debug("Saved paramset descriptions of {} channels to '{}'", datapointsByChannelId.size(), file);
+        } catch (IOException ex) {
+            logger.warn("Can't save paramset description store '{}': {}", file, ex.getMessage());
+            tempFile.delete();
+        }
+    }
+
+    private void writeDatapoint(DataOutputStream out, HmDatapoint dp) throws IOException {
+        out.writeUTF(dp.getName());
+        writeString(out, dp.getDescription());
+        out.writeUTF(dp.getType().name());
+        out.writeUTF(dp.getParamsetType().name());
+        writeValue(out, dp.getMinValue());
+        writeValue(out, dp.getMaxValue());
+        writeValue(out, dp.getStep());
+        writeValue(out, dp.getDefaultValue());
+        String[] options = dp.getOptions();
+        out.writeInt(options == null ? -1 : options.length);
+        if (options != null) {
+            for (String option : options) {
+                writeString(out, option);
+            }
+        }
+        out.writeBoolean(dp.isReadOnly());
+        out.writeBoolean(dp.isReadable());
+        out.writeBoolean(dp.isTrigger());
+        writeString(out, dp.getInfo());
+        writeString(out, dp.getUnit());
+    }
+
+    private HmDatapoint readDatapoint(DataInputStream in) throws IOException {
+        HmDatapoint dp = new HmDatapoint();
+        dp.setName(in.readUTF());
+        dp.setDescription(readString(in));
+        dp.setType(HmValueType.valueOf(in.readUTF()));
+        dp.setParamsetType(HmParamsetType.valueOf(in.readUTF()));
+        dp.setMinValue((Number) readValue(in));
+        dp.setMaxValue((Number) readValue(in));
+        dp.setStep((Number) readValue(in));
+        dp.setDefaultValue(readValue(in));
+        int optionCount = in.readInt();
+        if (optionCount >= 0) {
+            String[] options = new String[optionCount];
+            for (int i = 0; i < optionCount; i++) {
+                options[i] = readString(in);
+            }
+            dp.setOptions(options);
+        }
+        dp.setReadOnly(in.readBoolean());
+        dp.setReadable(in.readBoolean());
+        dp.setTrigger(in.readBoolean());
+        dp.setInfo(readString(in));
+        dp.setUnit(readString(in));
+        dp.setValue(dp.getDefaultValue());
+        return dp;
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof Boolean) {
+            out.writeByte(VALUE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(VALUE_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Number) {
+            out.writeByte(VALUE_DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value != null) {
+            out.writeByte(VALUE_STRING);
+            out.writeUTF(value.toString());
+        } else {
+            out.writeByte(VALUE_NULL);
+        }
+    }
+
+    private Object readValue(DataInputStream in) throws IOException {
+        byte valueType = in.readByte();
+        switch (valueType) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_BOOLEAN:
+                return in.readBoolean();
+            case VALUE_INTEGER:
+                return in.readInt();
+            case VALUE_DOUBLE:
+                return in.readDouble();
+            case VALUE_STRING:
+                return in.readUTF();
+            default:
+                throw new IOException("Unknown value type " + valueType);
+        }
+    }
+}
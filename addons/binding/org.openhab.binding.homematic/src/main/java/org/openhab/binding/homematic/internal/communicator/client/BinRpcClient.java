@@ -10,8 +10,11 @@ package org.openhab.binding.homematic.internal.communicator.client;
 
 import java.io.IOException;
 import java.net.Socket;
+import java.nio.ByteBuffer;
 
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcCodec;
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcCodecPool;
 import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
 import org.openhab.binding.homematic.internal.communicator.message.RpcRequest;
 import org.openhab.binding.homematic.internal.communicator.parser.RpcResponseParser;
@@ -28,14 +31,18 @@ public class BinRpcClient extends RpcClient<byte[]> {
     private final Logger logger = LoggerFactory.getLogger(BinRpcClient.class);
 
     private SocketHandler socketHandler;
+    private BinRpcCodecPool codecPool;
 
     public BinRpcClient(HomematicConfig config) {
         super(config);
         socketHandler = new SocketHandler(config);
+        codecPool = new BinRpcCodecPool(config.getEncoding());
     }
 
     @Override
     public void dispose() {
+        logger.debug("Socket pool statistics: {} requests, average wait {} ms, max wait {} ms",
+                socketHandler.getBorrowCount(), socketHandler.getAverageWaitTime(), socketHandler.getMaxWaitTime());
         socketHandler.flush();
     }
 
@@ -59,7 +66,7 @@ public class BinRpcClient extends RpcClient<byte[]> {
      * Sends a BIN-RPC message and parses the response to see if there was an error.
      */
     @Override
-    protected synchronized Object[] sendMessage(int port, RpcRequest<byte[]> request) throws IOException {
+    protected Object[] sendMessage(int port, RpcRequest<byte[]> request) throws IOException {
         if (logger.isTraceEnabled()) {
             logger.trace("Client BinRpcRequest:\n{}", request);
         }
@@ -72,9 +79,20 @@ public class BinRpcClient extends RpcClient<byte[]> {
     private Object[] sendMessage(int port, RpcRequest<byte[]> request, int rpcRetryCounter) throws IOException {
         BinRpcMessage resp = null;
         try {
-            Socket socket = socketHandler.getSocket(port);
-            socket.getOutputStream().write(request.createMessage());
-            resp = new BinRpcMessage(socket.getInputStream(), false, config.getEncoding());
+            SocketInfo socketInfo = socketHandler.borrowSocket(port);
+            BinRpcCodec codec = codecPool.borrow();
+            try {
+                Socket socket = socketInfo.getSocket();
+                ByteBuffer message = codec.encode((BinRpcMessage) request);
+                socket.getOutputStream().write(message.array(), message.arrayOffset(), message.remaining());
+                resp = codec.decode(socket.getInputStream(), false);
+            } catch (IOException | RuntimeException ex) {
+                socketHandler.invalidateSocket(port, socketInfo);
+                throw ex;
+            } finally {
+                codecPool.release(codec);
+            }
+            socketHandler.returnSocket(port, socketInfo);
             return new RpcResponseParser(request).parse(resp.getResponseData());
         } catch (UnknownRpcFailureException | UnknownParameterSetException rpcEx) {
             // throw immediately, don't retry the message
@@ -86,6 +104,7 @@ public class BinRpcClient extends RpcClient<byte[]> {
                 rpcRetryCounter++;
                 logger.debug("BinRpcMessage socket failure, sending message again {}/{}", rpcRetryCounter,
                         MAX_RPC_RETRY);
+                // the other idle sockets of the port are probably broken too
                 socketHandler.removeSocket(port);
                 return sendMessage(port, request, rpcRetryCounter);
             }
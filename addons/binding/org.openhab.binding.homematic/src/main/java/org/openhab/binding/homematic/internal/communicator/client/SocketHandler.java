@@ -11,64 +11,103 @@ package org.openhab.binding.homematic.internal.communicator.client;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Simple socket cache class.
+ * Socket pool class, holds up to socketPoolSize connections per port which can be used concurrently.
  *
  * @author Gerhard Riegler - Initial contribution
  */
 public class SocketHandler {
     private final Logger logger = LoggerFactory.getLogger(SocketHandler.class);
 
-    private Map<Integer, SocketInfo> socketsPerPort = new HashMap<Integer, SocketInfo>();
+    private Map<Integer, SocketPool> poolsPerPort = new ConcurrentHashMap<Integer, SocketPool>();
     private HomematicConfig config;
 
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
     public SocketHandler(HomematicConfig config) {
         this.config = config;
     }
 
     /**
-     * Returns a socket for the given port, (re)creates it if required.
+     * Borrows a socket for the given port from the pool, (re)creates it if required. Waits until a socket is
+     * available if all sockets of the port are in use. The socket must be given back with
+     * {@link #returnSocket(int, SocketInfo)} or {@link #invalidateSocket(int, SocketInfo)}.
      */
-    public Socket getSocket(int port) throws IOException {
-        SocketInfo socketInfo = socketsPerPort.get(port);
-        if (socketInfo == null) {
-            logger.trace("Creating new socket for port {}", port);
-            Socket socket = new Socket();
-            socket.setSoTimeout(config.getTimeout() * 1000);
-            socket.setReuseAddress(true);
-            socket.connect(new InetSocketAddress(config.getGatewayAddress(), port), socket.getSoTimeout());
-            socketInfo = new SocketInfo(socket);
-            socketsPerPort.put(port, socketInfo);
-        } else {
-            boolean isMaxAliveReached = System.currentTimeMillis()
-                    - socketInfo.getCreated() > (config.getSocketMaxAlive() * 1000);
+    public SocketInfo borrowSocket(int port) throws IOException {
+        SocketPool pool = getPool(port);
+        long start = System.nanoTime();
+        try {
+            if (!pool.permits.tryAcquire(config.getTimeout(), TimeUnit.SECONDS)) {
+                throw new IOException("Timeout waiting for a free socket on port " + port);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a free socket on port " + port);
+        }
+        recordWaitTime(port, System.nanoTime() - start);
 
-            if (isMaxAliveReached) {
-                logger.debug("Max alive time reached for socket on port {}", port);
-                removeSocket(port);
-                return getSocket(port);
+        try {
+            SocketInfo socketInfo;
+            while ((socketInfo = pool.idleSockets.pollFirst()) != null) {
+                if (isMaxAliveReached(socketInfo)) {
+                    logger.debug("Max alive time reached for socket on port {}", port);
+                    closeSilent(socketInfo.getSocket());
+                } else {
+                    logger.trace("Returning socket for port {}", port);
+                    return socketInfo;
+                }
             }
-            logger.trace("Returning socket for port {}", port);
+            return createSocket(port);
+        } catch (IOException | RuntimeException ex) {
+            pool.permits.release();
+            throw ex;
         }
-        return socketInfo.getSocket();
     }
 
     /**
-     * Removes the socket for the given port from the cache.
+     * Gives a healthy socket back to the pool.
      */
-    public void removeSocket(int port) {
-        SocketInfo socketInfo = socketsPerPort.get(port);
-        if (socketInfo != null) {
-            logger.trace("Closing Socket on port {}", port);
-            socketsPerPort.remove(port);
+    public void returnSocket(int port, SocketInfo socketInfo) {
+        SocketPool pool = getPool(port);
+        if (isMaxAliveReached(socketInfo) || socketInfo.getSocket().isClosed()) {
             closeSilent(socketInfo.getSocket());
+        } else {
+            pool.idleSockets.offerFirst(socketInfo);
+        }
+        pool.permits.release();
+    }
+
+    /**
+     * Closes a broken socket and frees its slot in the pool.
+     */
+    public void invalidateSocket(int port, SocketInfo socketInfo) {
+        logger.trace("Closing Socket on port {}", port);
+        closeSilent(socketInfo.getSocket());
+        getPool(port).permits.release();
+    }
+
+    /**
+     * Closes all idle sockets for the given port, sockets in use are closed when they are given back.
+     */
+    public void removeSocket(int port) {
+        SocketPool pool = poolsPerPort.get(port);
+        if (pool != null) {
+            logger.trace("Closing Sockets on port {}", port);
+            closeAll(pool);
         }
     }
 
@@ -76,12 +115,83 @@ public class SocketHandler {
      * Removes all cached sockets.
      */
     public void flush() {
-        synchronized (SocketHandler.class) {
-            Integer[] portsToRemove = socketsPerPort.keySet().toArray(new Integer[0]);
-            for (Integer key : portsToRemove) {
-                removeSocket(key);
+        for (SocketPool pool : poolsPerPort.values()) {
+            closeAll(pool);
+        }
+    }
+
+    /**
+     * Returns the number of sockets borrowed from the pool.
+     */
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    /**
+     * Returns the average time in milliseconds a caller had to wait for a free socket.
+     */
+    public double getAverageWaitTime() {
+        long count = borrowCount.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.get()) / 1000.0 / count;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds a caller had to wait for a free socket.
+     */
+    public long getMaxWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    private SocketPool getPool(int port) {
+        SocketPool pool = poolsPerPort.get(port);
+        if (pool == null) {
+            pool = new SocketPool(Math.max(1, config.getSocketPoolSize()));
+            SocketPool existingPool = poolsPerPort.putIfAbsent(port, pool);
+            if (existingPool != null) {
+                pool = existingPool;
             }
         }
+        return pool;
+    }
+
+    private SocketInfo createSocket(int port) throws IOException {
+        logger.trace("Creating new socket for port {}", port);
+        Socket socket = new Socket();
+        try {
+            socket.setSoTimeout(config.getTimeout() * 1000);
+            socket.setReuseAddress(true);
+            socket.connect(new InetSocketAddress(config.getGatewayAddress(), port), socket.getSoTimeout());
+        } catch (IOException ex) {
+            closeSilent(socket);
+            throw ex;
+        }
+        return new SocketInfo(socket);
+    }
+
+    private boolean isMaxAliveReached(SocketInfo socketInfo) {
+        return System.currentTimeMillis() - socketInfo.getCreated() > (config.getSocketMaxAlive() * 1000L);
+    }
+
+    private void recordWaitTime(int port, long waitNanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        long max;
+        while (waitNanos > (max = maxWaitNanos.get()) && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+            // retry
+        }
+        if (logger.isTraceEnabled()) {
+            logger.trace("Waited {} ms for a socket on port {} (avg {} ms, max {} ms)",
+                    TimeUnit.NANOSECONDS.toMillis(waitNanos), port, getAverageWaitTime(), getMaxWaitTime());
+        }
+    }
+
+    private void closeAll(SocketPool pool) {
+        Iterator<SocketInfo> iterator = pool.idleSockets.iterator();
+        while (iterator.hasNext()) {
+            SocketInfo socketInfo = iterator.next();
+            iterator.remove();
+            closeSilent(socketInfo.getSocket());
+        }
     }
 
     /**
@@ -94,4 +204,16 @@ public class SocketHandler {
             // ignore
         }
     }
+
+    /**
+     * The idle sockets and the number of free slots of a port.
+     */
+    private static class SocketPool {
+        private final Semaphore permits;
+        private final ConcurrentLinkedDeque<SocketInfo> idleSockets = new ConcurrentLinkedDeque<SocketInfo>();
+
+        public SocketPool(int size) {
+            this.permits = new Semaphore(size, true);
+        }
+    }
 }
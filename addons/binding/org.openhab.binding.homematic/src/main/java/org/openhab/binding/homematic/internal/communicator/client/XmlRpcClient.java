@@ -56,7 +56,7 @@ public class XmlRpcClient extends RpcClient<String> {
     }
 
     @Override
-    protected synchronized Object[] sendMessage(int port, RpcRequest<String> request) throws IOException {
+    protected Object[] sendMessage(int port, RpcRequest<String> request) throws IOException {
         if (logger.isTraceEnabled()) {
             logger.trace("Client XmlRpcRequest (port {}):\n{}", port, request);
         }
@@ -66,7 +66,7 @@ public class XmlRpcClient extends RpcClient<String> {
     /**
      * Sends the message, retries if there was an error.
      */
-    private synchronized Object[] sendMessage(int port, RpcRequest<String> request, int rpcRetryCounter)
+    private Object[] sendMessage(int port, RpcRequest<String> request, int rpcRetryCounter)
             throws IOException {
         try {
             BytesContentProvider content = new BytesContentProvider(
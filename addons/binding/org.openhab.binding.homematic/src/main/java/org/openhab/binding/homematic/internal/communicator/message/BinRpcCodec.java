@@ -0,0 +1,347 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.internal.communicator.message;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage.TYPE;
+
+/**
+ * Encodes and decodes BIN-RPC messages directly on a reusable {@link ByteBuffer}. A codec is not thread safe, the
+ * clients and servers keep their codecs in a {@link BinRpcCodecPool}.
+ *
+ * @author agent - Initial contribution
+ */
+public class BinRpcCodec {
+    public static final int HEADER_LENGTH = 8;
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final int TYPE_INTEGER = 1;
+    private static final int TYPE_BOOLEAN = 2;
+    private static final int TYPE_STRING = 3;
+    private static final int TYPE_DOUBLE = 4;
+    private static final int TYPE_DATE = 5;
+    private static final int TYPE_ARRAY = 0x100;
+    private static final int TYPE_STRUCT = 0x101;
+
+    private final Charset charset;
+    private final String encoding;
+    private ByteBuffer buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+
+    public BinRpcCodec(String encoding) {
+        this.encoding = encoding;
+        this.charset = Charset.forName(encoding);
+    }
+
+    /**
+     * Returns the length of the complete message starting at the given position or -1, if the header is not complete.
+     */
+    public static int getMessageLength(ByteBuffer frame, int position) throws IOException {
+        if (frame.limit() - position < HEADER_LENGTH) {
+            return -1;
+        }
+        validateBinXSignature(frame, position);
+        int length = frame.getInt(position + 4);
+        if (length < 0) {
+            throw new IOException("Invalid BIN-RPC message length " + length);
+        }
+        return HEADER_LENGTH + length;
+    }
+
+    /**
+     * Reads and decodes a complete BIN-RPC message from the given InputStream.
+     */
+    public BinRpcMessage decode(InputStream is, boolean methodHeader) throws IOException {
+        buffer.clear();
+        readFully(is, HEADER_LENGTH, "signature");
+        int length = getMessageLength(buffer, 0);
+        ensureCapacity(length);
+        readFully(is, length - HEADER_LENGTH, "message payload");
+        buffer.flip();
+        try {
+            return decode(buffer, methodHeader);
+        } finally {
+            releaseBuffer();
+        }
+    }
+
+    /**
+     * Decodes the complete BIN-RPC message at the position of the given buffer and advances the position to the end
+     * of the message.
+     */
+    public BinRpcMessage decode(ByteBuffer frame, boolean methodHeader) throws IOException {
+        int start = frame.position();
+        int end = getMessageLength(frame, start);
+        if (end < 0 || start + end > frame.limit()) {
+            throw new EOFException("Incomplete BIN-RPC message");
+        }
+        end += start;
+        TYPE type = frame.get(start + 3) == 1 ? TYPE.RESPONSE : TYPE.REQUEST;
+        frame.position(start + HEADER_LENGTH);
+
+        String methodName = null;
+        if (methodHeader) {
+            methodName = readString(frame);
+            // the argument count is implied by the payload
+            frame.getInt();
+        }
+        Object[] values = new Object[methodHeader ? 4 : 1];
+        int count = 0;
+        while (frame.position() < end) {
+            if (count == values.length) {
+                Object[] newValues = new Object[count * 2];
+                System.arraycopy(values, 0, newValues, 0, count);
+                values = newValues;
+            }
+            values[count++] = readValue(frame);
+        }
+        Object[] data = new Object[count];
+        System.arraycopy(values, 0, data, 0, count);
+        return new BinRpcMessage(methodName, type, data, encoding);
+    }
+
+    /**
+     * Encodes the message into the internal buffer and returns it ready for reading. The returned buffer is only
+     * valid until the next call of this codec.
+     */
+    public ByteBuffer encode(BinRpcMessage message) {
+        buffer.clear();
+        buffer.put((byte) 'B').put((byte) 'i').put((byte) 'n');
+        buffer.put(message.getType() == TYPE.RESPONSE ? (byte) 1 : (byte) 0);
+        buffer.putInt(0); // placeholder content length
+        List<Object> args = message.getArgs();
+        if (message.getMethodName() != null) {
+            writeString(message.getMethodName());
+            ensureRemaining(4);
+            buffer.putInt(args.size());
+        }
+        for (Object arg : args) {
+            writeValue(arg);
+        }
+        buffer.putInt(4, buffer.position() - HEADER_LENGTH);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Encodes the message and returns a copy of the encoded bytes.
+     */
+    public byte[] encodeToArray(BinRpcMessage message) {
+        ByteBuffer encoded = encode(message);
+        byte[] result = new byte[encoded.remaining()];
+        encoded.get(result);
+        releaseBuffer();
+        return result;
+    }
+
+    private static void validateBinXSignature(ByteBuffer frame, int position) throws UnsupportedEncodingException {
+        if (frame.get(position) != 'B' || frame.get(position + 1) != 'i' || frame.get(position + 2) != 'n') {
+            throw new UnsupportedEncodingException("No BinX signature");
+        }
+    }
+
+    private void readFully(InputStream is, int length, String part) throws IOException {
+        byte[] array = buffer.array();
+        int offset = buffer.position();
+        int read = 0;
+        int currentLength;
+        while (read < length && (currentLength = is.read(array, offset + read, length - read)) != -1) {
+            read += currentLength;
+        }
+        if (read != length) {
+            throw new EOFException(
+                    "Only " + read + " bytes received while reading " + part + ", expected " + length + " bytes");
+        }
+        buffer.position(offset + length);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (buffer.capacity() < capacity) {
+            int newCapacity = Math.max(capacity, buffer.capacity() * 2);
+            ByteBuffer newBuffer = ByteBuffer.allocate(newCapacity);
+            buffer.flip();
+            newBuffer.put(buffer);
+            buffer = newBuffer;
+        }
+    }
+
+    private void ensureRemaining(int length) {
+        if (buffer.remaining() < length) {
+            ensureCapacity(buffer.position() + length);
+        }
+    }
+
+    /**
+     * Drops an oversized buffer, e.g. after a large listDevices response, to not keep it forever.
+     */
+    private void releaseBuffer() {
+        if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+        }
+    }
+
+    // decoding
+
+    private String readString(ByteBuffer frame) {
+        int length = frame.getInt();
+        String result;
+        if (frame.hasArray()) {
+            result = new String(frame.array(), frame.arrayOffset() + frame.position(), length, charset);
+            frame.position(frame.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            frame.get(bytes);
+            result = new String(bytes, charset);
+        }
+        return result;
+    }
+
+    private Object readValue(ByteBuffer frame) throws IOException {
+        int type = frame.getInt();
+        switch (type) {
+            case TYPE_INTEGER:
+                return Integer.valueOf(frame.getInt());
+            case TYPE_BOOLEAN:
+                return frame.get() != 0 ? Boolean.TRUE : Boolean.FALSE;
+            case TYPE_STRING:
+                return readString(frame);
+            case TYPE_DOUBLE:
+                int mantissa = frame.getInt();
+                int exponent = frame.getInt();
+                BigDecimal value = new BigDecimal(Math.scalb((double) mantissa, exponent - 30));
+                return value.setScale(6, RoundingMode.HALF_DOWN).doubleValue();
+            case TYPE_DATE:
+                return new Date(frame.getInt() * 1000L);
+            case TYPE_ARRAY:
+                int numElements = frame.getInt();
+                Object[] array = new Object[numElements];
+                for (int i = 0; i < numElements; i++) {
+                    array[i] = readValue(frame);
+                }
+                return array;
+            case TYPE_STRUCT:
+                numElements = frame.getInt();
+                Map<String, Object> struct = new TreeMap<String, Object>();
+                for (int i = 0; i < numElements; i++) {
+                    String name = readString(frame);
+                    struct.put(name, readValue(frame));
+                }
+                return struct;
+            default:
+                throw new IOException("Unknown data type " + type + " at position " + (frame.position() - 4));
+        }
+    }
+
+    // encoding
+
+    private void writeString(String string) {
+        byte[] bytes = string.getBytes(charset);
+        ensureRemaining(4 + bytes.length);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void writeDouble(double value) {
+        double tmp = Math.abs(value);
+        int exp = 0;
+        if (tmp != 0 && tmp < 0.5) {
+            while (tmp < 0.5) {
+                tmp *= 2;
+                exp--;
+            }
+        } else {
+            while (tmp >= 1) {
+                tmp /= 2;
+                exp++;
+            }
+        }
+        if (value < 0) {
+            tmp *= -1;
+        }
+        ensureRemaining(12);
+        buffer.putInt(TYPE_DOUBLE);
+        buffer.putInt((int) Math.round(tmp * 0x40000000));
+        buffer.putInt(exp);
+    }
+
+    private void writeValue(Object object) {
+        if (object instanceof String) {
+            ensureRemaining(4);
+            buffer.putInt(TYPE_STRING);
+            writeString((String) object);
+        } else if (object instanceof Boolean) {
+            ensureRemaining(5);
+            buffer.putInt(TYPE_BOOLEAN);
+            buffer.put(((Boolean) object).booleanValue() ? (byte) 1 : (byte) 0);
+        } else if (object instanceof Integer) {
+            ensureRemaining(8);
+            buffer.putInt(TYPE_INTEGER);
+            buffer.putInt(((Integer) object).intValue());
+        } else if (object instanceof Double) {
+            writeDouble(((Double) object).doubleValue());
+        } else if (object instanceof Float) {
+            writeDouble(new BigDecimal((Float) object).setScale(6, RoundingMode.HALF_DOWN).doubleValue());
+        } else if (object instanceof BigDecimal) {
+            writeDouble(((BigDecimal) object).setScale(6, RoundingMode.HALF_DOWN).doubleValue());
+        } else if (object instanceof BigInteger) {
+            writeDouble(((BigInteger) object).doubleValue());
+        } else if (object instanceof Date) {
+            ensureRemaining(8);
+            buffer.putInt(TYPE_DATE);
+            buffer.putInt((int) (((Date) object).getTime() / 1000));
+        } else if (object instanceof Collection<?>) {
+            Collection<?> collection = (Collection<?>) object;
+            ensureRemaining(8);
+            buffer.putInt(TYPE_ARRAY);
+            buffer.putInt(collection.size());
+            for (Object element : collection) {
+                writeValue(element);
+            }
+        } else if (object instanceof Object[]) {
+            Object[] array = (Object[]) object;
+            ensureRemaining(8);
+            buffer.putInt(TYPE_ARRAY);
+            buffer.putInt(array.length);
+            for (Object element : array) {
+                writeValue(element);
+            }
+        } else if (object instanceof Map<?, ?>) {
+            Map<?, ?> map = (Map<?, ?>) object;
+            int sizePosition = buffer.position() + 4;
+            ensureRemaining(8);
+            buffer.putInt(TYPE_STRUCT);
+            buffer.putInt(0); // placeholder struct size
+            int size = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                String key = (String) entry.getKey();
+                if (key != null && entry.getValue() != null) {
+                    writeString(key);
+                    writeValue(entry.getValue());
+                    size++;
+                }
+            }
+            buffer.putInt(sizePosition, size);
+        }
+    }
+}
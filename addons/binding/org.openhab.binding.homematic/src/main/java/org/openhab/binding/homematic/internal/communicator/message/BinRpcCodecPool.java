@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.internal.communicator.message;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps the {@link BinRpcCodec}s of a BIN-RPC client or server for reuse. A codec is borrowed for one message
+ * exchange, so concurrent exchanges never share a codec. The codecs belong to the owner of the pool and are released
+ * together with it.
+ *
+ * @author agent - Initial contribution
+ */
+public class BinRpcCodecPool {
+    private final String encoding;
+    private final Queue<BinRpcCodec> codecs = new ConcurrentLinkedQueue<BinRpcCodec>();
+
+    public BinRpcCodecPool(String encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Returns an idle codec or a new one, if all codecs are in use.
+     */
+    public BinRpcCodec borrow() {
+        BinRpcCodec codec = codecs.poll();
+        return codec != null ? codec : new BinRpcCodec(encoding);
+    }
+
+    /**
+     * Returns the codec to the pool after the message exchange.
+     */
+    public void release(BinRpcCodec codec) {
+        codecs.offer(codec);
+    }
+}
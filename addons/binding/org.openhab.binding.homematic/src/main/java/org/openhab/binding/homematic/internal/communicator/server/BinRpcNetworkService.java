@@ -15,6 +15,7 @@ import java.net.Socket;
 
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcCodecPool;
 import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
 import org.openhab.binding.homematic.internal.communicator.message.RpcRequest;
 
@@ -29,11 +30,12 @@ public class BinRpcNetworkService implements Runnable {
     private static final byte BIN_EMPTY_EVENT_LIST[] = { 'B', 'i', 'n', 1, 0, 0, 0, 21, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0,
             3, 0, 0, 0, 5, 'e', 'v', 'e', 'n', 't' };
 
-    private static final String RPC_POOL_NAME = "homematicRpc";
+    static final String RPC_POOL_NAME = "homematicRpc";
     private ServerSocket serverSocket;
     private boolean accept = true;
     private HomematicConfig config;
     private RpcResponseHandler<byte[]> rpcResponseHandler;
+    private BinRpcCodecPool codecPool;
 
     /**
      * Creates the socket for listening to events from the Homematic gateway.
@@ -45,7 +47,16 @@ public class BinRpcNetworkService implements Runnable {
         serverSocket.setReuseAddress(true);
         serverSocket.bind(new InetSocketAddress(config.getBinCallbackPort()));
 
-        this.rpcResponseHandler = new RpcResponseHandler<byte[]>(listener) {
+        this.rpcResponseHandler = createRpcResponseHandler(listener, config);
+        this.codecPool = new BinRpcCodecPool(config.getEncoding());
+    }
+
+    /**
+     * Creates the handler for the BIN-RPC method calls of the Homematic gateway.
+     */
+    static RpcResponseHandler<byte[]> createRpcResponseHandler(RpcEventListener listener,
+            final HomematicConfig config) {
+        return new RpcResponseHandler<byte[]>(listener) {
 
             @Override
             protected byte[] getEmptyStringResult() {
@@ -77,7 +88,7 @@ public class BinRpcNetworkService implements Runnable {
         while (accept) {
             try {
                 Socket cs = serverSocket.accept();
-                BinRpcResponseHandler rpcHandler = new BinRpcResponseHandler(cs, rpcResponseHandler, config);
+                BinRpcResponseHandler rpcHandler = new BinRpcResponseHandler(cs, rpcResponseHandler, codecPool);
                 ThreadPoolManager.getPool(RPC_POOL_NAME).execute(rpcHandler);
             } catch (IOException ex) {
                 // ignore
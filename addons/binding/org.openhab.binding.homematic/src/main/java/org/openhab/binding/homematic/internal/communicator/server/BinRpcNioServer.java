@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.internal.communicator.server;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.openhab.binding.homematic.internal.common.HomematicConfig;
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcCodec;
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcCodecPool;
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Server implementation for receiving messages via BIN-RPC from a Homematic gateway with non-blocking IO. All callback
+ * connections are multiplexed on one selector task which reads the BIN-RPC messages incrementally, the method calls
+ * are handled in order by one worker task at a time on the shared RPC thread pool.
+ *
+ * @author agent - Initial contribution
+ */
+public class BinRpcNioServer implements RpcServer, Runnable {
+    private final Logger logger = LoggerFactory.getLogger(BinRpcNioServer.class);
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private HomematicConfig config;
+    private RpcEventListener listener;
+    private RpcResponseHandler<byte[]> rpcResponseHandler;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+    private BinRpcCodecPool codecPool;
+    private Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<Runnable>();
+    private Queue<Runnable> workerTasks = new ConcurrentLinkedQueue<Runnable>();
+    private AtomicBoolean workerScheduled = new AtomicBoolean();
+    private volatile boolean running;
+
+    public BinRpcNioServer(RpcEventListener listener, HomematicConfig config) {
+        this.listener = listener;
+        this.config = config;
+    }
+
+    @Override
+    public void start() throws IOException {
+        logger.debug("Initializing non-blocking BIN-RPC server at port {}", config.getBinCallbackPort());
+
+        rpcResponseHandler = BinRpcNetworkService.createRpcResponseHandler(listener, config);
+        codecPool = new BinRpcCodecPool(config.getEncoding());
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.socket().setReuseAddress(true);
+        serverChannel.bind(new InetSocketAddress(config.getBinCallbackPort()));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        running = true;
+        selectorThread = new Thread(this);
+        selectorThread.setName("HomematicRpcServer");
+        selectorThread.start();
+    }
+
+    @Override
+    public void shutdown() {
+        if (running) {
+            logger.debug("Stopping non-blocking BIN-RPC server");
+            running = false;
+            selector.wakeup();
+            workerTasks.clear();
+            try {
+                selectorThread.join(1000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (selectorThread.isAlive()) {
+                logger.debug("Non-blocking BIN-RPC server did not stop cleanly");
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Runnable task;
+                while ((task = selectorTasks.poll()) != null) {
+                    task.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else if (key.isReadable()) {
+                            read(key);
+                        } else if (key.isWritable()) {
+                            write(key);
+                        }
+                    } catch (EOFException ex) {
+                        close(key);
+                    } catch (IOException | RuntimeException ex) {
+                        logger.debug("Closing BIN-RPC callback connection: {}", ex.getMessage());
+                        close(key);
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            logger.error("Non-blocking BIN-RPC server stopped: {}", ex.getMessage(), ex);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException ex) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Accepts a new callback connection from the gateway.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel != null) {
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, new Connection());
+        }
+    }
+
+    /**
+     * Reads the available bytes and hands the message to the worker as soon as it is complete.
+     */
+    private void read(final SelectionKey key) throws IOException {
+        final Connection connection = (Connection) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        if (channel.read(connection.buffer) == -1) {
+            throw new EOFException();
+        }
+        int messageLength = BinRpcCodec.getMessageLength((ByteBuffer) connection.buffer.duplicate().flip(), 0);
+        if (messageLength < 0) {
+            return;
+        }
+        if (messageLength > connection.buffer.capacity()) {
+            ByteBuffer newBuffer = ByteBuffer.allocate(messageLength);
+            connection.buffer.flip();
+            newBuffer.put(connection.buffer);
+            connection.buffer = newBuffer;
+        }
+        if (connection.buffer.position() < messageLength) {
+            return;
+        }
+
+        // the message is complete, stop reading until the response has been written
+        key.interestOps(0);
+        connection.buffer.flip();
+        workerTasks.add(() -> handleMessage(key, connection));
+        scheduleWorker();
+    }
+
+    /**
+     * Starts a worker task on the RPC thread pool if none is running. Only one worker task runs at a time, so the
+     * method calls are handled in the order they have been received.
+     */
+    private void scheduleWorker() {
+        if (workerScheduled.compareAndSet(false, true)) {
+            ThreadPoolManager.getPool(BinRpcNetworkService.RPC_POOL_NAME).execute(this::runWorker);
+        }
+    }
+
+    private void runWorker() {
+        try {
+            Runnable task;
+            while (running && (task = workerTasks.poll()) != null) {
+                task.run();
+            }
+        } finally {
+            workerScheduled.set(false);
+        }
+        // a task may have been added after the queue has been drained
+        if (running && !workerTasks.isEmpty()) {
+            scheduleWorker();
+        }
+    }
+
+    /**
+     * Decodes and handles the message on the worker task and schedules the response.
+     */
+    private void handleMessage(final SelectionKey key, final Connection connection) {
+        byte[] returnValue = null;
+        BinRpcCodec codec = codecPool.borrow();
+        try {
+            BinRpcMessage message = codec.decode(connection.buffer, true);
+            logger.trace("Event BinRpcMessage: {}", message);
+            returnValue = rpcResponseHandler.handleMethodCall(message.getMethodName(), message.getResponseData());
+        } catch (Exception ex) {
+            logger.error("{}", ex.getMessage(), ex);
+        } finally {
+            codecPool.release(codec);
+        }
+
+        final ByteBuffer response = returnValue == null ? null : ByteBuffer.wrap(returnValue);
+        selectorTasks.add(() -> {
+            if (response == null) {
+                close(key);
+            } else if (key.isValid()) {
+                connection.buffer = response;
+                key.interestOps(SelectionKey.OP_WRITE);
+            }
+        });
+        selector.wakeup();
+    }
+
+    /**
+     * Writes the response, the connection is closed afterwards like the blocking server does.
+     */
+    private void write(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        ((SocketChannel) key.channel()).write(connection.buffer);
+        if (!connection.buffer.hasRemaining()) {
+            close(key);
+        }
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ex) {
+            // ignore
+        }
+    }
+
+    /**
+     * The state of a callback connection.
+     */
+    private static class Connection {
+        private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    }
+}
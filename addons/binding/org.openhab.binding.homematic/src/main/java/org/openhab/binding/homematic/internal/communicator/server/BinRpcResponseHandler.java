@@ -12,7 +12,8 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.net.Socket;
 
-import org.openhab.binding.homematic.internal.common.HomematicConfig;
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcCodec;
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcCodecPool;
 import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,12 +28,13 @@ public class BinRpcResponseHandler implements Runnable {
 
     private Socket socket;
     private RpcResponseHandler<byte[]> rpcResponseHandler;
-    private HomematicConfig config;
+    private BinRpcCodecPool codecPool;
 
-    public BinRpcResponseHandler(Socket socket, RpcResponseHandler<byte[]> rpcResponseHandler, HomematicConfig config) {
+    public BinRpcResponseHandler(Socket socket, RpcResponseHandler<byte[]> rpcResponseHandler,
+            BinRpcCodecPool codecPool) {
         this.socket = socket;
         this.rpcResponseHandler = rpcResponseHandler;
-        this.config = config;
+        this.codecPool = codecPool;
     }
 
     /**
@@ -41,7 +43,13 @@ public class BinRpcResponseHandler implements Runnable {
     @Override
     public void run() {
         try {
-            BinRpcMessage message = new BinRpcMessage(socket.getInputStream(), true, config.getEncoding());
+            BinRpcMessage message;
+            BinRpcCodec codec = codecPool.borrow();
+            try {
+                message = codec.decode(socket.getInputStream(), true);
+            } finally {
+                codecPool.release(codec);
+            }
             logger.trace("Event BinRpcMessage: {}", message);
             byte[] returnValue = rpcResponseHandler.handleMethodCall(message.getMethodName(),
                     message.getResponseData());
@@ -9,6 +9,7 @@
 package org.openhab.binding.homematic.internal.communicator.server;
 
 import java.util.List;
+import java.util.Map.Entry;
 
 import org.openhab.binding.homematic.internal.model.HmDatapointInfo;
 
@@ -24,6 +25,12 @@ public interface RpcEventListener {
      */
     public void eventReceived(HmDatapointInfo dpInfo, Object newValue);
 
+    /**
+     * Called when a batch of events is received from a Homematic gateway, e.g. with a system.multicall. The events
+     * are in the order in which they were sent by the gateway.
+     */
+    public void eventsReceived(List<Entry<HmDatapointInfo, Object>> events);
+
     /**
      * Called when new devices has been detected on the Homeamtic gateway.
      */
@@ -11,9 +11,11 @@ package org.openhab.binding.homematic.internal.communicator.server;
 import static org.openhab.binding.homematic.internal.misc.HomematicConstants.*;
 
 import java.io.IOException;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import org.apache.commons.lang.ObjectUtils;
 import org.openhab.binding.homematic.internal.communicator.message.RpcRequest;
@@ -56,14 +58,25 @@ public abstract class RpcResponseHandler<T> {
             msg.addArg(getListMethods());
             return msg.createMessage();
         } else if (RPC_METHODNAME_SYSTEM_MULTICALL.equals(methodName)) {
+            // all events of a multicall are passed to the listener at once
+            List<Entry<HmDatapointInfo, Object>> events = new ArrayList<Entry<HmDatapointInfo, Object>>();
             for (Object o : (Object[]) responseData[0]) {
                 Map<?, ?> call = (Map<?, ?>) o;
                 if (call != null) {
                     String method = ObjectUtils.toString(call.get("methodName"));
                     Object[] data = (Object[]) call.get("params");
-                    handleMethodCall(method, data);
+                    if (RPC_METHODNAME_EVENT.equals(method)) {
+                        EventParser eventParser = new EventParser();
+                        HmDatapointInfo dpInfo = eventParser.parse(data);
+                        events.add(new SimpleImmutableEntry<HmDatapointInfo, Object>(dpInfo, eventParser.getValue()));
+                    } else {
+                        handleMethodCall(method, data);
+                    }
                 }
             }
+            if (!events.isEmpty()) {
+                listener.eventsReceived(events);
+            }
             return getEmptyEventListResult();
         } else if (RPC_METHODNAME_SET_CONFIG_READY.equals(methodName)) {
             return getEmptyEventListResult();
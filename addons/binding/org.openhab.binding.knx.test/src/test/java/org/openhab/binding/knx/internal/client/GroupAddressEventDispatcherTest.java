@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.knx.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXFormatException;
+
+/**
+ * Tests the coalescing of superseded telegrams in the {@link GroupAddressEventDispatcher}.
+ *
+ * @author agent - Initial contribution
+ */
+public class GroupAddressEventDispatcherTest {
+
+    // more telegrams than the coalescing threshold of a batch
+    private static final int TELEGRAMS = 20;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final List<Integer> delivered = new ArrayList<>();
+    private GroupAddressEventDispatcher dispatcher;
+    private GroupAddressListener listener;
+    private GroupAddress destination;
+
+    @Before
+    public void setup() throws KNXFormatException {
+        // the tasks are run by the test, so all telegrams end up in one batch
+        dispatcher = new GroupAddressEventDispatcher(tasks::add);
+        listener = mock(GroupAddressListener.class);
+        destination = new GroupAddress("1/2/3");
+    }
+
+    @Test
+    public void testDispatch_coalescesStateUpdates() {
+        dispatchTelegrams(true);
+        runTasks();
+
+        assertEquals(1, delivered.size());
+        assertEquals(TELEGRAMS - 1, delivered.get(0).intValue());
+        assertEquals(TELEGRAMS - 1, dispatcher.getCoalescedCount());
+    }
+
+    @Test
+    public void testDispatch_deliversAllCommands() {
+        dispatchTelegrams(false);
+        runTasks();
+
+        assertEquals(TELEGRAMS, delivered.size());
+        for (int i = 0; i < TELEGRAMS; i++) {
+            assertEquals(i, delivered.get(i).intValue());
+        }
+        assertEquals(0, dispatcher.getCoalescedCount());
+    }
+
+    private void dispatchTelegrams(boolean coalescable) {
+        for (int i = 0; i < TELEGRAMS; i++) {
+            int value = i;
+            dispatcher.dispatch(listener, destination, coalescable, () -> delivered.add(value));
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+}
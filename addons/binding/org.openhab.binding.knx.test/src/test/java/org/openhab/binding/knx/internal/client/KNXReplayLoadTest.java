@@ -0,0 +1,307 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.thing.Channel;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.thing.binding.ThingHandlerCallback;
+import org.eclipse.smarthome.core.thing.binding.builder.ChannelBuilder;
+import org.eclipse.smarthome.core.thing.binding.builder.ThingBuilder;
+import org.eclipse.smarthome.core.thing.type.ChannelTypeUID;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.knx.KNXBindingConstants;
+import org.openhab.binding.knx.client.StatusUpdateCallback;
+import org.openhab.binding.knx.handler.GroupAddressListener;
+import org.openhab.binding.knx.internal.client.TelegramRecording.Telegram;
+import org.openhab.binding.knx.internal.handler.DeviceThingHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.IndividualAddress;
+import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.dptxlator.DPTXlator2ByteFloat;
+import tuwien.auto.calimero.link.KNXNetworkLink;
+
+/**
+ * Replays recorded KNX bus traffic through a {@link ReplayNetworkLink} into a {@link DeviceThingHandler} and reports
+ * the latency from the telegram to the state update and the throughput.
+ *
+ * The test only runs with {@code -Dknx.replay=true}. By default a synthetic recording is used. A recording made by a
+ * bridge with the {@code recordingFile} parameter can be replayed with {@code -Dknx.replay.file=<file>}, the replay
+ * rates in telegrams per second can be set with {@code -Dknx.replay.rates=500,2000} (0 keeps the recorded timing).
+ *
+ * The latency of a state update is measured from the telegram which carried its value. Telegrams of a group address
+ * which are superseded before they are delivered are skipped. If a recording repeats a value on a group address, the
+ * update is matched to the oldest pending telegram with that value.
+ *
+ * @author agent - Initial contribution
+ */
+public class KNXReplayLoadTest {
+
+    private static final int GROUP_ADDRESSES = 200;
+    private static final int TELEGRAMS = 2000;
+    private static final long SETTLE_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+    private final Logger logger = LoggerFactory.getLogger(KNXReplayLoadTest.class);
+
+    private final ThingUID thingUID = new ThingUID(KNXBindingConstants.THING_TYPE_DEVICE, "replay");
+    private final Map<GroupAddress, ChannelUID> channels = new HashMap<>();
+    private final Map<ChannelUID, GroupAddress> groupAddresses = new HashMap<>();
+    // telegrams of every group address which were injected, but whose state update has not been seen yet
+    private final Map<GroupAddress, Deque<Injection>> injected = new ConcurrentHashMap<>();
+    private final Map<GroupAddress, Double> lastValues = new ConcurrentHashMap<>();
+    private final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+
+    private ScheduledExecutorService scheduler;
+    private List<Telegram> telegrams;
+
+    @Before
+    public void setup() throws Exception {
+        Assume.assumeTrue("KNX replay load test is disabled, enable it with -Dknx.replay=true",
+                Boolean.getBoolean("knx.replay"));
+        scheduler = Executors.newScheduledThreadPool(4);
+        String file = System.getProperty("knx.replay.file");
+        if (file != null) {
+            telegrams = TelegramRecording.read(new File(file));
+        } else {
+            File recording = File.createTempFile("knx-replay", ".rec");
+            recording.deleteOnExit();
+            TelegramRecording.write(recording, createSyntheticTelegrams());
+            telegrams = TelegramRecording.read(recording);
+        }
+        for (Telegram telegram : telegrams) {
+            GroupAddress destination = telegram.getDestination();
+            if (!channels.containsKey(destination)) {
+                ChannelUID channelUID = new ChannelUID(thingUID, "ga" + channels.size());
+                channels.put(destination, channelUID);
+                groupAddresses.put(channelUID, destination);
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReplay() throws Exception {
+        for (String rate : System.getProperty("knx.replay.rates", "500,2000,10000").split(",")) {
+            replay(Integer.parseInt(rate.trim()));
+        }
+    }
+
+    private void replay(int rate) throws Exception {
+        injected.clear();
+        lastValues.clear();
+        latencies.clear();
+
+        Map<GroupAddress, Double> expectedValues = new HashMap<>();
+        Map<Telegram, Double> telegramValues = new IdentityHashMap<>();
+        DPTXlator2ByteFloat translator = new DPTXlator2ByteFloat(DPTXlator2ByteFloat.DPT_TEMPERATURE);
+        for (Telegram telegram : telegrams) {
+            translator.setData(telegram.getAsdu());
+            expectedValues.put(telegram.getDestination(), translator.getNumericValue());
+            telegramValues.put(telegram, translator.getNumericValue());
+        }
+
+        ReplayNetworkLink link = new ReplayNetworkLink();
+        AbstractKNXClient client = new AbstractKNXClient(0, new ThingUID(KNXBindingConstants.THING_TYPE_IP_BRIDGE,
+                "replay"), 1, 50, 1, scheduler, mock(StatusUpdateCallback.class)) {
+            @Override
+            protected KNXNetworkLink establishConnection() throws KNXException, InterruptedException {
+                return link;
+            }
+        };
+        DeviceThingHandler handler = new DeviceThingHandler(createThing());
+        handler.setCallback(createCallback());
+        client.registerGroupAddressListener(new ForwardingListener(handler));
+        client.initialize();
+
+        long start = System.nanoTime();
+        try {
+            link.replay(telegrams, rate, telegram -> {
+                Deque<Injection> pending = injected.computeIfAbsent(telegram.getDestination(),
+                        destination -> new ArrayDeque<>());
+                synchronized (pending) {
+                    pending.add(new Injection(telegramValues.get(telegram), System.nanoTime()));
+                }
+            });
+            long replayed = System.nanoTime();
+            long deadline = System.currentTimeMillis() + SETTLE_TIMEOUT;
+            while (!lastValues.equals(expectedValues) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            long settled = System.nanoTime();
+
+            report(rate, replayed - start, settled - start);
+            for (Map.Entry<GroupAddress, Double> expected : expectedValues.entrySet()) {
+                Double value = lastValues.get(expected.getKey());
+                assertNotNull("No state update for " + expected.getKey(), value);
+                assertEquals("Last state of " + expected.getKey(), expected.getValue(), value, 0.01);
+            }
+        } finally {
+            client.dispose();
+        }
+    }
+
+    private void report(int rate, long replayNanos, long settleNanos) {
+        List<Long> sorted;
+        synchronized (latencies) {
+            sorted = new ArrayList<>(latencies);
+        }
+        Collections.sort(sorted);
+        long p50 = sorted.isEmpty() ? 0 : sorted.get(sorted.size() / 2);
+        long p99 = sorted.isEmpty() ? 0 : sorted.get(Math.min(sorted.size() - 1, sorted.size() * 99 / 100));
+        long max = sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1);
+        double seconds = settleNanos / 1e9;
+        logger.info(
+                "Replay at {} telegrams/s: {} telegrams in {} ms, settled after {} ms, {} state updates "
+                        + "({} telegrams/s), latency p50 {} us, p99 {} us, max {} us",
+                rate == 0 ? "recorded" : rate, telegrams.size(), TimeUnit.NANOSECONDS.toMillis(replayNanos),
+                TimeUnit.NANOSECONDS.toMillis(settleNanos), sorted.size(), Math.round(telegrams.size() / seconds),
+                TimeUnit.NANOSECONDS.toMicros(p50), TimeUnit.NANOSECONDS.toMicros(p99),
+                TimeUnit.NANOSECONDS.toMicros(max));
+    }
+
+    private Thing createThing() {
+        List<Channel> thingChannels = new ArrayList<>();
+        for (Map.Entry<GroupAddress, ChannelUID> entry : channels.entrySet()) {
+            Configuration configuration = new Configuration();
+            configuration.put(KNXBindingConstants.GA, "9.001:" + entry.getKey());
+            thingChannels.add(ChannelBuilder.create(entry.getValue(), "Number")
+                    .withType(new ChannelTypeUID(KNXBindingConstants.BINDING_ID, KNXBindingConstants.CHANNEL_NUMBER))
+                    .withConfiguration(configuration).build());
+        }
+        return ThingBuilder.create(KNXBindingConstants.THING_TYPE_DEVICE, thingUID).withChannels(thingChannels)
+                .build();
+    }
+
+    private ThingHandlerCallback createCallback() {
+        ThingHandlerCallback callback = mock(ThingHandlerCallback.class);
+        doAnswer(invocation -> {
+            long now = System.nanoTime();
+            GroupAddress destination = groupAddresses.get(invocation.getArguments()[0]);
+            double value = ((DecimalType) invocation.getArguments()[1]).doubleValue();
+            Deque<Injection> pending = injected.get(destination);
+            if (pending != null) {
+                synchronized (pending) {
+                    // Skip the telegrams which were superseded by the one carrying this value
+                    Injection injection;
+                    while ((injection = pending.poll()) != null) {
+                        if (Math.abs(injection.value - value) < 0.01) {
+                            latencies.add(now - injection.time);
+                            break;
+                        }
+                    }
+                }
+            }
+            lastValues.put(destination, value);
+            return null;
+        }).when(callback).stateUpdated(any(ChannelUID.class), any(State.class));
+        return callback;
+    }
+
+    private List<Telegram> createSyntheticTelegrams() throws KNXException {
+        List<Telegram> result = new ArrayList<>(TELEGRAMS);
+        DPTXlator2ByteFloat translator = new DPTXlator2ByteFloat(DPTXlator2ByteFloat.DPT_TEMPERATURE);
+        for (int i = 0; i < TELEGRAMS; i++) {
+            int index = i % GROUP_ADDRESSES;
+            // Every telegram of a group address has its own value, which tags it for the latency measurement
+            translator.setValue(15 + (i / GROUP_ADDRESSES) / 10.0);
+            result.add(new Telegram(i * 10L, i % 10 == 0 ? TelegramRecording.SERVICE_READ_RESPONSE
+                    : TelegramRecording.SERVICE_WRITE, new IndividualAddress(1, 1, index % 255 + 1),
+                    new GroupAddress(1, index / 256, index % 256), translator.getData()));
+        }
+        return result;
+    }
+
+    /**
+     * The value of an injected telegram and the time it was injected.
+     */
+    private static class Injection {
+        final double value;
+        final long time;
+
+        Injection(double value, long time) {
+            this.value = value;
+            this.time = time;
+        }
+    }
+
+    /**
+     * Passes all telegrams to the handler, which only listens to its group addresses after being initialized with a
+     * bridge.
+     */
+    private static class ForwardingListener implements GroupAddressListener {
+        private final DeviceThingHandler handler;
+
+        ForwardingListener(DeviceThingHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public boolean listensTo(GroupAddress destination) {
+            return true;
+        }
+
+        @Override
+        public boolean triggersCommands(GroupAddress destination) {
+            return handler.triggersCommands(destination);
+        }
+
+        @Override
+        public void onGroupWrite(AbstractKNXClient client, IndividualAddress source, GroupAddress destination,
+                byte[] asdu) {
+            handler.onGroupWrite(client, source, destination, asdu);
+        }
+
+        @Override
+        public void onGroupRead(AbstractKNXClient client, IndividualAddress source, GroupAddress destination,
+                byte[] asdu) {
+            handler.onGroupRead(client, source, destination, asdu);
+        }
+
+        @Override
+        public void onGroupReadResponse(AbstractKNXClient client, IndividualAddress source, GroupAddress destination,
+                byte[] asdu) {
+            handler.onGroupReadResponse(client, source, destination, asdu);
+        }
+    }
+
+}
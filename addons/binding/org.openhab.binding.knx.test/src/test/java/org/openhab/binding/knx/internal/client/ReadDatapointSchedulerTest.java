@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXFormatException;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
+/**
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class ReadDatapointSchedulerTest {
+
+    private ReadDatapointScheduler scheduler;
+
+    @Before
+    public void setup() {
+        scheduler = new ReadDatapointScheduler(50, 2);
+    }
+
+    @Test
+    public void testAdd_deduplicatesGroupAddresses() throws KNXFormatException {
+        assertTrue(scheduler.add(datapoint("1/2/3")));
+        assertFalse(scheduler.add(datapoint("1/2/3")));
+        assertTrue(scheduler.add(datapoint("1/2/4")));
+
+        assertEquals(2, scheduler.getQueueSize());
+        assertEquals("1/2/3", scheduler.poll().getDatapoint().getMainAddress().toString());
+        assertTrue(scheduler.add(datapoint("1/2/3")));
+    }
+
+    @Test
+    public void testPoll_initialReadsFirst() throws KNXFormatException {
+        scheduler.add(datapoint("1/2/3"));
+        ReadDatapoint read = scheduler.poll();
+        scheduler.succeeded(read);
+
+        scheduler.add(datapoint("1/2/3"));
+        scheduler.add(datapoint("1/2/4"));
+
+        assertEquals(1, scheduler.getInitialQueueSize());
+        assertEquals("1/2/4", scheduler.poll().getDatapoint().getMainAddress().toString());
+        assertEquals("1/2/3", scheduler.poll().getDatapoint().getMainAddress().toString());
+        assertNull(scheduler.poll());
+        assertEquals(3, scheduler.getReadCount());
+    }
+
+    @Test
+    public void testFailed_retriesUpToLimit() throws KNXFormatException {
+        scheduler.add(datapoint("1/2/3"));
+        ReadDatapoint read = scheduler.poll();
+        read.incrementRetries();
+        assertTrue(scheduler.failed(read, false));
+
+        read = scheduler.poll();
+        read.incrementRetries();
+        assertFalse(scheduler.failed(read, false));
+        assertNull(scheduler.poll());
+        assertEquals(2, scheduler.getFailureCount());
+    }
+
+    @Test
+    public void testPause_adaptsToBusyBus() throws KNXFormatException {
+        scheduler.add(datapoint("1/2/3"));
+        ReadDatapoint read = scheduler.poll();
+        assertEquals(50, scheduler.getPause());
+
+        scheduler.failed(read, true);
+        scheduler.failed(read, true);
+        assertEquals(200, scheduler.getPause());
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.failed(read, true);
+        }
+        assertEquals(50 * ReadDatapointScheduler.MAX_PAUSE_FACTOR, scheduler.getPause());
+
+        scheduler.succeeded(read);
+        assertEquals(50 * ReadDatapointScheduler.MAX_PAUSE_FACTOR / 2, scheduler.getPause());
+
+        scheduler.clear();
+        assertEquals(50, scheduler.getPause());
+    }
+
+    private Datapoint datapoint(String groupAddress) throws KNXFormatException {
+        return new CommandDP(new GroupAddress(groupAddress), "test", 0, "1.001");
+    }
+
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.openhab.binding.knx.internal.client.TelegramRecording.Telegram;
+
+import tuwien.auto.calimero.CloseEvent;
+import tuwien.auto.calimero.DataUnitBuilder;
+import tuwien.auto.calimero.FrameEvent;
+import tuwien.auto.calimero.KNXAddress;
+import tuwien.auto.calimero.Priority;
+import tuwien.auto.calimero.cemi.CEMILData;
+import tuwien.auto.calimero.link.KNXLinkClosedException;
+import tuwien.auto.calimero.link.KNXNetworkLink;
+import tuwien.auto.calimero.link.NetworkLinkListener;
+import tuwien.auto.calimero.link.medium.KNXMediumSettings;
+import tuwien.auto.calimero.link.medium.TPSettings;
+
+/**
+ * Stand-in {@link KNXNetworkLink} which replays recorded telegrams as if they were received from the bus. Requests
+ * sent to the link are only counted.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class ReplayNetworkLink implements KNXNetworkLink {
+
+    private static final int GROUP_RESPONSE = 0x40;
+    private static final int GROUP_WRITE = 0x80;
+
+    private final List<NetworkLinkListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger sentRequests = new AtomicInteger();
+    private KNXMediumSettings medium = new TPSettings();
+    private int hopCount = 6;
+    private volatile boolean open = true;
+
+    /**
+     * Replays the telegrams.
+     *
+     * @param telegrams the telegrams to replay
+     * @param rate the telegrams per second, or 0 to keep the recorded timing
+     * @param beforeIndication called right before a telegram is passed to the listeners
+     */
+    public void replay(List<Telegram> telegrams, int rate, Consumer<Telegram> beforeIndication)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        for (int i = 0; i < telegrams.size() && open; i++) {
+            Telegram telegram = telegrams.get(i);
+            long due = rate > 0 ? TimeUnit.SECONDS.toNanos(i) / rate
+                    : TimeUnit.MILLISECONDS.toNanos(telegram.getTime());
+            long wait = due - (System.nanoTime() - start);
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            int service = telegram.getService() == TelegramRecording.SERVICE_WRITE ? GROUP_WRITE : GROUP_RESPONSE;
+            CEMILData frame = new CEMILData(CEMILData.MC_LDATA_IND, telegram.getSource(), telegram.getDestination(),
+                    DataUnitBuilder.createLengthOptimizedAPDU(service, telegram.getAsdu()), Priority.LOW);
+            beforeIndication.accept(telegram);
+            FrameEvent event = new FrameEvent(this, frame);
+            for (NetworkLinkListener listener : listeners) {
+                listener.indication(event);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of requests which have been sent to the link, e.g. group read requests.
+     */
+    public int getSentRequests() {
+        return sentRequests.get();
+    }
+
+    @Override
+    public void setKNXMedium(KNXMediumSettings settings) {
+        this.medium = settings;
+    }
+
+    @Override
+    public KNXMediumSettings getKNXMedium() {
+        return medium;
+    }
+
+    @Override
+    public void addLinkListener(NetworkLinkListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeLinkListener(NetworkLinkListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void setHopCount(int count) {
+        this.hopCount = count;
+    }
+
+    @Override
+    public int getHopCount() {
+        return hopCount;
+    }
+
+    @Override
+    public void sendRequest(KNXAddress dst, Priority p, byte[] nsdu) throws KNXLinkClosedException {
+        send();
+    }
+
+    @Override
+    public void sendRequestWait(KNXAddress dst, Priority p, byte[] nsdu) throws KNXLinkClosedException {
+        send();
+    }
+
+    @Override
+    public void send(CEMILData msg, boolean waitForCon) throws KNXLinkClosedException {
+        send();
+    }
+
+    @Override
+    public String getName() {
+        return "replay";
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        if (open) {
+            open = false;
+            CloseEvent event = new CloseEvent(this, CloseEvent.USER_REQUEST, "replay finished");
+            for (NetworkLinkListener listener : listeners) {
+                listener.linkClosed(event);
+            }
+        }
+    }
+
+    private void send() throws KNXLinkClosedException {
+        if (!open) {
+            throw new KNXLinkClosedException("replay link is closed");
+        }
+        sentRequests.incrementAndGet();
+    }
+
+}
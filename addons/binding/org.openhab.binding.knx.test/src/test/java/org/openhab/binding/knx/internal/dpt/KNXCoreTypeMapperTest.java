@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.dpt;
+
+import static org.junit.Assert.*;
+
+import java.util.Locale;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.types.Type;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+import tuwien.auto.calimero.dptxlator.DPTXlator;
+import tuwien.auto.calimero.dptxlator.TranslatorTypes;
+
+/**
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class KNXCoreTypeMapperTest {
+
+    private KNXCoreTypeMapper mapper;
+    private Locale defaultLocale;
+
+    @Before
+    public void setup() {
+        mapper = new KNXCoreTypeMapper();
+        defaultLocale = Locale.getDefault();
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(defaultLocale);
+    }
+
+    @Test
+    public void testToType_switch() throws Exception {
+        assertEquals(OnOffType.ON, mapper.toType(datapoint("1.001"), new byte[] { 1 }));
+        assertEquals(OnOffType.OFF, mapper.toType(datapoint("1.001"), new byte[] { 0 }));
+    }
+
+    @Test
+    public void testToType_rgb() throws Exception {
+        assertEquals(HSBType.fromRGB(255, 128, 0),
+                mapper.toType(datapoint("232.600"), new byte[] { (byte) 255, (byte) 128, 0 }));
+    }
+
+    @Test
+    public void testToDPTValue_reusesConverter() throws Exception {
+        DPTConverter converter = mapper.getConverter("9.001");
+        assertNotNull(converter);
+        assertEquals("9.001", converter.getId());
+
+        assertEquals("21.5", mapper.toDPTValue(new DecimalType("21.5"), "9.001"));
+        assertEquals("19", mapper.toDPTValue(new DecimalType("19"), "9.001"));
+        assertEquals(new DecimalType("21.5"), mapper.toType(datapoint("9.001"), new byte[] { 0x0C, 0x33 }));
+        assertSame(converter, mapper.getConverter("9.001"));
+
+        assertNull(mapper.getConverter("invalid"));
+        assertNull(mapper.toDPTValue(new DecimalType("1"), "invalid"));
+    }
+
+    @Test
+    public void testRoundTrip_4ByteFloat() throws Exception {
+        assertRoundTrip("14.019", new DecimalType("21.5"));
+        assertRoundTrip("14.019", new DecimalType("-0.5"));
+        assertRoundTrip("14.019", new DecimalType("1234.56"));
+        assertRoundTrip("14.056", new DecimalType("99999.5"));
+        assertRoundTrip("14.056", new DecimalType("1.5E20"));
+        assertRoundTrip("14.056", new DecimalType("-3.14159E20"));
+    }
+
+    @Test
+    public void testRoundTrip_4ByteFloatWithDecimalComma() throws Exception {
+        // Calimero formats 4 byte floats with the default locale
+        Locale.setDefault(Locale.GERMANY);
+        assertRoundTrip("14.019", new DecimalType("21.5"));
+        assertRoundTrip("14.056", new DecimalType("1.5E20"));
+        assertRoundTrip("14.056", new DecimalType("-3.14159E20"));
+        assertEquals("21.5", mapper.toDPTValue(new DecimalType("21.5"), "14.019"));
+    }
+
+    private void assertRoundTrip(String dpt, DecimalType value) throws Exception {
+        DPTXlator translator = TranslatorTypes.createTranslator(0, dpt);
+        translator.setValue(mapper.toDPTValue(value, dpt));
+        Type type = mapper.toType(datapoint(dpt), translator.getData());
+        assertEquals(dpt + " " + value, 0, value.toBigDecimal().compareTo(((DecimalType) type).toBigDecimal()));
+    }
+
+    private Datapoint datapoint(String dpt) throws Exception {
+        return new CommandDP(new GroupAddress("1/2/3"), "test", 0, dpt);
+    }
+
+}
@@ -30,4 +30,16 @@ public interface GroupAddressListener extends BusMessageListener {
      */
     public boolean listensTo(GroupAddress destination);
 
+    /**
+     * Called to verify if a telegram to the given GroupAddress is turned into a command. Such telegrams must all be
+     * delivered, e.g. the steps of a dimmer control. Telegrams which only update the state of channels may be skipped,
+     * if a later telegram supersedes them.
+     *
+     * @param destination
+     * @return true if telegrams to the destination must not be skipped, which is the default
+     */
+    public default boolean triggersCommands(GroupAddress destination) {
+        return true;
+    }
+
 }
@@ -8,9 +8,10 @@
  */
 package org.openhab.binding.knx.internal.client;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -38,6 +39,7 @@ import tuwien.auto.calimero.FrameEvent;
 import tuwien.auto.calimero.GroupAddress;
 import tuwien.auto.calimero.IndividualAddress;
 import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.KNXTimeoutException;
 import tuwien.auto.calimero.datapoint.CommandDP;
 import tuwien.auto.calimero.datapoint.Datapoint;
 import tuwien.auto.calimero.device.ProcessCommunicationResponder;
@@ -70,9 +72,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
     private final ThingUID thingUID;
     private final int responseTimeout;
-    private final int readingPause;
     private final int autoReconnectPeriod;
-    private final int readRetriesLimit;
     private final StatusUpdateCallback statusUpdateCallback;
     private final ScheduledExecutorService knxScheduler;
 
@@ -83,10 +83,14 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     private @Nullable KNXNetworkLink link;
     private @Nullable DeviceInfoClient deviceInfoClient;
     private @Nullable ScheduledFuture<?> busJob;
+    private volatile boolean busJobActive;
+    private int busJobGeneration;
     private @Nullable ScheduledFuture<?> connectJob;
 
     private final Set<GroupAddressListener> groupAddressListeners = new CopyOnWriteArraySet<>();
-    private final LinkedBlockingQueue<ReadDatapoint> readDatapoints = new LinkedBlockingQueue<>();
+    private final ReadDatapointScheduler readScheduler;
+    private final GroupAddressEventDispatcher eventDispatcher;
+    private volatile @Nullable TelegramRecorder recorder;
 
     @FunctionalInterface
     private interface ListenerNotification {
@@ -103,21 +107,23 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
         @Override
         public void groupWrite(ProcessEvent e) {
-            processEvent("Group Write", e, (listener, source, destination, asdu) -> {
+            recordEvent(TelegramRecording.SERVICE_WRITE, e);
+            processEvent("Group Write", e, true, (listener, source, destination, asdu) -> {
                 listener.onGroupWrite(AbstractKNXClient.this, source, destination, asdu);
             });
         }
 
         @Override
         public void groupReadRequest(ProcessEvent e) {
-            processEvent("Group Read Request", e, (listener, source, destination, asdu) -> {
+            processEvent("Group Read Request", e, false, (listener, source, destination, asdu) -> {
                 listener.onGroupRead(AbstractKNXClient.this, source, destination, asdu);
             });
         }
 
         @Override
         public void groupReadResponse(ProcessEvent e) {
-            processEvent("Group Read Response", e, (listener, source, destination, asdu) -> {
+            recordEvent(TelegramRecording.SERVICE_READ_RESPONSE, e);
+            processEvent("Group Read Response", e, true, (listener, source, destination, asdu) -> {
                 listener.onGroupReadResponse(AbstractKNXClient.this, source, destination, asdu);
             });
         }
@@ -128,9 +134,9 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         this.autoReconnectPeriod = autoReconnectPeriod;
         this.thingUID = thingUID;
         this.responseTimeout = responseTimeout;
-        this.readingPause = readingPause;
-        this.readRetriesLimit = readRetriesLimit;
+        this.readScheduler = new ReadDatapointScheduler(readingPause, readRetriesLimit);
         this.knxScheduler = knxScheduler;
+        this.eventDispatcher = new GroupAddressEventDispatcher(knxScheduler);
         this.statusUpdateCallback = statusUpdateCallback;
     }
 
@@ -196,8 +202,8 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
             link.addLinkListener(this);
 
-            busJob = knxScheduler.scheduleWithFixedDelay(() -> readNextQueuedDatapoint(), 0, readingPause,
-                    TimeUnit.MILLISECONDS);
+            busJobActive = true;
+            scheduleReadJob(++busJobGeneration, 0);
 
             statusUpdateCallback.updateStatus(ThingStatus.ONLINE);
             cancelReconnectJob(false);
@@ -221,7 +227,8 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
     private void releaseConnection() {
         logger.debug("Bridge {} is disconnecting from the KNX bus", thingUID);
-        readDatapoints.clear();
+        readScheduler.clear();
+        busJobActive = false;
         busJob = nullify(busJob, j -> j.cancel(true));
         deviceInfoClient = null;
         managementProcedures = nullify(managementProcedures, mp -> mp.detach());
@@ -244,14 +251,23 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         return null;
     }
 
-    private void processEvent(String task, ProcessEvent event, ListenerNotification action) {
+    private void recordEvent(int service, ProcessEvent event) {
+        TelegramRecorder recorder = this.recorder;
+        if (recorder != null) {
+            recorder.record(service, event.getSourceAddr(), event.getDestination(), event.getASDU());
+        }
+    }
+
+    private void processEvent(String task, ProcessEvent event, boolean coalescable, ListenerNotification action) {
         GroupAddress destination = event.getDestination();
         IndividualAddress source = event.getSourceAddr();
         byte[] asdu = event.getASDU();
         logger.trace("Received a {} telegram from '{}' to '{}'", task, source, destination);
         for (GroupAddressListener listener : groupAddressListeners) {
             if (listener.listensTo(destination)) {
-                knxScheduler.schedule(() -> action.apply(listener, source, destination, asdu), 0, TimeUnit.SECONDS);
+                // telegrams which control channels turn into commands must all be delivered
+                eventDispatcher.dispatch(listener, destination, coalescable && !listener.triggersCommands(destination),
+                        () -> action.apply(listener, source, destination, asdu));
             }
         }
     }
@@ -268,7 +284,22 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         return typeHelper.toDPTValue(type, dpt);
     }
 
-    private void readNextQueuedDatapoint() {
+    private synchronized void scheduleReadJob(int generation, long delay) {
+        // a reconnect starts a new generation of the read job, the old one must not reschedule itself
+        if (busJobActive && generation == busJobGeneration) {
+            busJob = knxScheduler.schedule(() -> readNextQueuedDatapoint(generation), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void readNextQueuedDatapoint(int generation) {
+        try {
+            readQueuedDatapoint();
+        } finally {
+            scheduleReadJob(generation, readScheduler.getPause());
+        }
+    }
+
+    private void readQueuedDatapoint() {
         if (!connectIfNotAutomatic()) {
             return;
         }
@@ -276,15 +307,15 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         if (processCommunicator == null) {
             return;
         }
-        ReadDatapoint datapoint = readDatapoints.poll();
+        ReadDatapoint datapoint = readScheduler.poll();
         if (datapoint != null) {
             datapoint.incrementRetries();
             try {
                 logger.trace("Sending a Group Read Request telegram for {}", datapoint.getDatapoint().getMainAddress());
                 processCommunicator.read(datapoint.getDatapoint());
+                readScheduler.succeeded(datapoint);
             } catch (KNXException e) {
-                if (datapoint.getRetries() < datapoint.getLimit()) {
-                    readDatapoints.add(datapoint);
+                if (readScheduler.failed(datapoint, e instanceof KNXTimeoutException)) {
                     logger.debug("Could not read value for datapoint {}: {}. Going to retry.",
                             datapoint.getDatapoint().getMainAddress(), e.getMessage());
                 } else {
@@ -295,12 +326,52 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
                 logger.debug("Interrupted sending KNX read request");
                 return;
             }
+            if (logger.isTraceEnabled()) {
+                logger.trace("Read queue: {} pending ({} initial), {} read, {} failed, latency avg {} ms max {} ms, "
+                        + "pause {} ms", readScheduler.getQueueSize(), readScheduler.getInitialQueueSize(),
+                        readScheduler.getReadCount(), readScheduler.getFailureCount(),
+                        readScheduler.getAverageLatency(), readScheduler.getMaxLatency(), readScheduler.getPause());
+            }
+        }
+    }
+
+    /**
+     * Records the group write and read response telegrams received from the bus into the given file until the client
+     * is disposed. The recording can be replayed to reproduce the load of a real installation.
+     *
+     * @param fileName the file to record to, it is overwritten
+     */
+    public void startRecording(String fileName) {
+        try {
+            recorder = new TelegramRecorder(new File(fileName));
+            logger.info("Recording the KNX telegrams of bridge {} to '{}'", thingUID, fileName);
+        } catch (IOException e) {
+            logger.warn("Cannot record the KNX telegrams of bridge {} to '{}': {}", thingUID, fileName,
+                    e.getMessage());
+        }
+    }
+
+    private void stopRecording() {
+        TelegramRecorder recorder = this.recorder;
+        if (recorder != null) {
+            this.recorder = null;
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                logger.debug("Could not close the KNX telegram recording: {}", e.getMessage());
+            }
+            logger.debug("Bridge {} recorded {} KNX telegrams", thingUID, recorder.getCount());
         }
     }
 
     public void dispose() {
         cancelReconnectJob(true);
         disconnect(null);
+        stopRecording();
+        eventDispatcher.clear();
+        logger.debug("Bridge {} dispatched {} KNX telegrams, {} coalesced, {} dropped", thingUID,
+                eventDispatcher.getDispatchedCount(), eventDispatcher.getCoalescedCount(),
+                eventDispatcher.getDroppedCount());
     }
 
     @Override
@@ -363,12 +434,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
     @Override
     public void readDatapoint(Datapoint datapoint) {
-        synchronized (this) {
-            ReadDatapoint retryDatapoint = new ReadDatapoint(datapoint, readRetriesLimit);
-            if (!readDatapoints.contains(retryDatapoint)) {
-                readDatapoints.add(retryDatapoint);
-            }
-        }
+        readScheduler.add(datapoint);
     }
 
     @Override
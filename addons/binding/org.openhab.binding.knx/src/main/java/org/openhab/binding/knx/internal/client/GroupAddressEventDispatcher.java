@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.knx.handler.GroupAddressListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ * Dispatches the telegrams received from the KNX bus to the {@link GroupAddressListener}s.
+ *
+ * The events are distributed to a fixed number of stripes by their group address. Every stripe is drained by at most
+ * one task at a time, so the events of a group address are delivered in the order they have been received. If a
+ * listener falls behind, state updates of a group address which are superseded by a later value in the same batch are
+ * not delivered anymore. Telegrams which are turned into commands are always delivered.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class GroupAddressEventDispatcher {
+
+    private static final int STRIPES = 4;
+    private static final int MAX_BATCH_SIZE = 64;
+    private static final int COALESCE_THRESHOLD = 16;
+    private static final int MAX_QUEUE_SIZE = 10000;
+
+    private final Logger logger = LoggerFactory.getLogger(GroupAddressEventDispatcher.class);
+
+    private final Executor executor;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    public GroupAddressEventDispatcher(Executor executor) {
+        this.executor = executor;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Queues the notification of a listener about an event of the given group address.
+     *
+     * @param listener the listener to notify
+     * @param destination the group address of the telegram
+     * @param coalescable {@code true} if the event only updates states, so it is superseded by a later value
+     * @param notification the notification of the listener
+     */
+    public void dispatch(GroupAddressListener listener, GroupAddress destination, boolean coalescable,
+            Runnable notification) {
+        Stripe stripe = stripes[(destination.hashCode() & Integer.MAX_VALUE) % STRIPES];
+        if (stripe.size.incrementAndGet() > MAX_QUEUE_SIZE) {
+            stripe.size.decrementAndGet();
+            if (droppedCount.incrementAndGet() % 100 == 1) {
+                logger.warn("Dropping KNX telegrams to '{}', the listeners can not keep up ({} dropped so far)",
+                        destination, droppedCount.get());
+            }
+            return;
+        }
+        stripe.events.add(new Event(listener, destination, coalescable, notification));
+        schedule(stripe);
+    }
+
+    /**
+     * Removes all queued events.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            int removed = 0;
+            while (stripe.events.poll() != null) {
+                removed++;
+            }
+            stripe.size.addAndGet(-removed);
+        }
+    }
+
+    /**
+     * Returns the number of events which have been delivered to the listeners.
+     */
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    /**
+     * Returns the number of events which have not been delivered because a later value superseded them.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Returns the number of events which have been dropped because the queue was full.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private void schedule(Stripe stripe) {
+        if (stripe.scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> drain(stripe));
+            } catch (RejectedExecutionException e) {
+                stripe.scheduled.set(false);
+                logger.debug("Could not dispatch KNX telegrams: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void drain(Stripe stripe) {
+        try {
+            List<Event> batch = new ArrayList<>(Math.min(stripe.size.get(), MAX_BATCH_SIZE));
+            Event event;
+            while (batch.size() < MAX_BATCH_SIZE && (event = stripe.events.poll()) != null) {
+                batch.add(event);
+            }
+            stripe.size.addAndGet(-batch.size());
+            if (batch.size() > COALESCE_THRESHOLD) {
+                coalesce(batch);
+            }
+            for (Event current : batch) {
+                if (current.superseded) {
+                    continue;
+                }
+                try {
+                    current.notification.run();
+                    dispatchedCount.incrementAndGet();
+                } catch (RuntimeException e) {
+                    logger.warn("Error notifying listener about KNX telegram to '{}': {}", current.destination,
+                            e.getMessage(), e);
+                }
+            }
+        } finally {
+            stripe.scheduled.set(false);
+            if (!stripe.events.isEmpty()) {
+                schedule(stripe);
+            }
+        }
+    }
+
+    /**
+     * Marks the events which are followed by a newer value for the same listener and group address.
+     */
+    private void coalesce(List<Event> batch) {
+        Set<Target> seen = new HashSet<>();
+        int coalesced = 0;
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            Event event = batch.get(i);
+            if (event.coalescable && !seen.add(new Target(event.listener, event.destination))) {
+                event.superseded = true;
+                coalesced++;
+            }
+        }
+        if (coalesced > 0) {
+            coalescedCount.addAndGet(coalesced);
+            logger.trace("Coalesced {} of {} KNX telegrams ({} in total)", coalesced, batch.size(),
+                    coalescedCount.get());
+        }
+    }
+
+    private static class Stripe {
+        private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+    }
+
+    private static class Event {
+        private final GroupAddressListener listener;
+        private final GroupAddress destination;
+        private final boolean coalescable;
+        private final Runnable notification;
+        private boolean superseded;
+
+        Event(GroupAddressListener listener, GroupAddress destination, boolean coalescable, Runnable notification) {
+            this.listener = listener;
+            this.destination = destination;
+            this.coalescable = coalescable;
+            this.notification = notification;
+        }
+    }
+
+    private static class Target {
+        private final GroupAddressListener listener;
+        private final GroupAddress destination;
+
+        Target(GroupAddressListener listener, GroupAddress destination) {
+            this.listener = listener;
+            this.destination = destination;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(listener) + destination.hashCode();
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Target)) {
+                return false;
+            }
+            Target other = (Target) obj;
+            return listener == other.listener && destination.equals(other.destination);
+        }
+    }
+}
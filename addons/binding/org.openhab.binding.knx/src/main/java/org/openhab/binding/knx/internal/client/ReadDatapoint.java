@@ -20,6 +20,7 @@ public class ReadDatapoint {
     private final Datapoint datapoint;
     private int retries;
     private final int limit;
+    private long queued;
 
     public ReadDatapoint(Datapoint datapoint, int limit) {
         this.datapoint = datapoint;
@@ -43,6 +44,17 @@ public class ReadDatapoint {
         return limit;
     }
 
+    /**
+     * Returns the {@link System#nanoTime()} when the data point was queued.
+     */
+    public long getQueued() {
+        return queued;
+    }
+
+    public void setQueued(long queued) {
+        this.queued = queued;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
+/**
+ * Schedules the read requests to the KNX bus.
+ *
+ * Every group address is queued at most once. Group addresses which have never been read successfully are read before
+ * the periodic refreshes and retries, so the initial read-out is not delayed by them. The pause between two read
+ * requests adapts to the bus: it is doubled (up to {@link #MAX_PAUSE_FACTOR} times the configured reading pause) when
+ * the interface does not acknowledge a request in time and shrinks back to the configured pause with every successful
+ * read.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ReadDatapointScheduler {
+
+    static final int MAX_PAUSE_FACTOR = 32;
+
+    private final int readingPause;
+    private final int readRetriesLimit;
+
+    private final Map<GroupAddress, ReadDatapoint> pendingReads = new ConcurrentHashMap<>();
+    private final Queue<ReadDatapoint> initialReads = new ConcurrentLinkedQueue<>();
+    private final Queue<ReadDatapoint> refreshReads = new ConcurrentLinkedQueue<>();
+    private final Set<GroupAddress> readAddresses = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger pause;
+    private final AtomicLong readCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public ReadDatapointScheduler(int readingPause, int readRetriesLimit) {
+        this.readingPause = Math.max(0, readingPause);
+        this.readRetriesLimit = readRetriesLimit;
+        this.pause = new AtomicInteger(this.readingPause);
+    }
+
+    /**
+     * Queues the given datapoint for reading, unless its group address is already queued.
+     *
+     * @param datapoint the datapoint to read
+     * @return {@code true} if the datapoint has been queued
+     */
+    public boolean add(Datapoint datapoint) {
+        ReadDatapoint readDatapoint = new ReadDatapoint(datapoint, readRetriesLimit);
+        if (pendingReads.putIfAbsent(datapoint.getMainAddress(), readDatapoint) != null) {
+            return false;
+        }
+        readDatapoint.setQueued(System.nanoTime());
+        if (readAddresses.contains(datapoint.getMainAddress())) {
+            refreshReads.add(readDatapoint);
+        } else {
+            initialReads.add(readDatapoint);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the next datapoint to read, initial reads first.
+     *
+     * @return the datapoint or {@code null} if nothing is queued
+     */
+    public @Nullable ReadDatapoint poll() {
+        ReadDatapoint readDatapoint = initialReads.poll();
+        if (readDatapoint == null) {
+            readDatapoint = refreshReads.poll();
+        }
+        if (readDatapoint != null) {
+            pendingReads.remove(readDatapoint.getDatapoint().getMainAddress(), readDatapoint);
+            recordLatency(System.nanoTime() - readDatapoint.getQueued());
+        }
+        return readDatapoint;
+    }
+
+    /**
+     * Marks the given datapoint as read successfully and relaxes the pause after a busy bus.
+     */
+    public void succeeded(ReadDatapoint readDatapoint) {
+        readAddresses.add(readDatapoint.getDatapoint().getMainAddress());
+        pause.updateAndGet(current -> Math.max(readingPause, current / 2));
+    }
+
+    /**
+     * Requeues the given datapoint behind the initial reads if it has retries left.
+     *
+     * @param readDatapoint the datapoint which could not be read
+     * @param busy {@code true} if the interface reported to be busy, which increases the pause
+     * @return {@code true} if the datapoint will be retried
+     */
+    public boolean failed(ReadDatapoint readDatapoint, boolean busy) {
+        failureCount.incrementAndGet();
+        if (busy) {
+            pause.updateAndGet(current -> Math.min(Math.max(1, readingPause) * MAX_PAUSE_FACTOR,
+                    Math.max(1, current * 2)));
+        }
+        if (readDatapoint.getRetries() >= readDatapoint.getLimit()) {
+            return false;
+        }
+        if (pendingReads.putIfAbsent(readDatapoint.getDatapoint().getMainAddress(), readDatapoint) == null) {
+            readDatapoint.setQueued(System.nanoTime());
+            refreshReads.add(readDatapoint);
+        }
+        return true;
+    }
+
+    /**
+     * Removes all queued datapoints, e.g. when the connection is lost.
+     */
+    public void clear() {
+        pendingReads.clear();
+        initialReads.clear();
+        refreshReads.clear();
+        pause.set(readingPause);
+    }
+
+    /**
+     * Returns the pause in milliseconds before the next read request.
+     */
+    public int getPause() {
+        return pause.get();
+    }
+
+    /**
+     * Returns the number of queued datapoints.
+     */
+    public int getQueueSize() {
+        return pendingReads.size();
+    }
+
+    /**
+     * Returns the number of queued datapoints which have never been read successfully.
+     */
+    public int getInitialQueueSize() {
+        return initialReads.size();
+    }
+
+    /**
+     * Returns the number of read requests taken from the queue.
+     */
+    public long getReadCount() {
+        return readCount.get();
+    }
+
+    /**
+     * Returns the number of failed read requests.
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * Returns the average time in milliseconds a datapoint was queued before it was read.
+     */
+    public long getAverageLatency() {
+        long count = readCount.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.get() / count);
+    }
+
+    /**
+     * Returns the maximum time in milliseconds a datapoint was queued before it was read.
+     */
+    public long getMaxLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+
+    private void recordLatency(long latencyNanos) {
+        readCount.incrementAndGet();
+        totalLatencyNanos.addAndGet(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.knx.internal.client.TelegramRecording.Telegram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.IndividualAddress;
+
+/**
+ * Records the group write and read response telegrams received by a {@link AbstractKNXClient} into a file in the
+ * {@link TelegramRecording} format. The recording is started by the bridge configuration parameter
+ * {@code recordingFile} and written until the client is disposed.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class TelegramRecorder implements Closeable {
+
+    private final Logger logger = LoggerFactory.getLogger(TelegramRecorder.class);
+
+    private final File file;
+    private final DataOutputStream out;
+    private long start = -1;
+    private long previous;
+    private int count;
+    private boolean closed;
+
+    public TelegramRecorder(File file) throws IOException {
+        this.file = file;
+        this.out = TelegramRecording.open(file);
+    }
+
+    public synchronized void record(int service, IndividualAddress source, GroupAddress destination, byte[] asdu) {
+        if (closed) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (start < 0) {
+            start = now;
+        }
+        Telegram telegram = new Telegram(now - start, service, source, destination, asdu.clone());
+        try {
+            TelegramRecording.write(out, telegram, previous);
+            previous = telegram.getTime();
+            count++;
+        } catch (IOException e) {
+            logger.warn("Stopped recording KNX telegrams to '{}': {}", file, e.getMessage());
+            closeQuietly();
+        }
+    }
+
+    /**
+     * Returns the number of telegrams recorded so far.
+     */
+    public synchronized int getCount() {
+        return count;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            out.close();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+}
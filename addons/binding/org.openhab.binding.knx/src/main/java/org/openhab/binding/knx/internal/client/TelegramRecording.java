@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.IndividualAddress;
+
+/**
+ * Compact file format for recorded group telegrams.
+ *
+ * The file starts with the magic "KNXR" and a version byte, followed by one record per telegram: the milliseconds
+ * since the previous telegram as variable length integer, the service (0 = write, 1 = read response), the raw source
+ * and destination address (2 bytes each), the length of the ASDU (1 byte) and the ASDU.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class TelegramRecording {
+
+    private static final int MAGIC = 0x4B4E5852;
+    private static final int VERSION = 1;
+
+    public static final int SERVICE_WRITE = 0;
+    public static final int SERVICE_READ_RESPONSE = 1;
+
+    /**
+     * A recorded group telegram.
+     */
+    public static class Telegram {
+        private final long time;
+        private final int service;
+        private final IndividualAddress source;
+        private final GroupAddress destination;
+        private final byte[] asdu;
+
+        public Telegram(long time, int service, IndividualAddress source, GroupAddress destination, byte[] asdu) {
+            this.time = time;
+            this.service = service;
+            this.source = source;
+            this.destination = destination;
+            this.asdu = asdu;
+        }
+
+        /**
+         * Milliseconds since the start of the recording.
+         */
+        public long getTime() {
+            return time;
+        }
+
+        public int getService() {
+            return service;
+        }
+
+        public IndividualAddress getSource() {
+            return source;
+        }
+
+        public GroupAddress getDestination() {
+            return destination;
+        }
+
+        public byte[] getAsdu() {
+            return asdu;
+        }
+    }
+
+    public static void write(File file, List<Telegram> telegrams) throws IOException {
+        try (DataOutputStream out = open(file)) {
+            long previous = 0;
+            for (Telegram telegram : telegrams) {
+                write(out, telegram, previous);
+                previous = telegram.time;
+            }
+        }
+    }
+
+    /**
+     * Creates the file and writes the header of the recording.
+     */
+    static DataOutputStream open(File file) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+        return out;
+    }
+
+    /**
+     * Appends a telegram to the recording.
+     *
+     * @param previous the time of the previous telegram in the recording, 0 for the first one
+     */
+    static void write(DataOutputStream out, Telegram telegram, long previous) throws IOException {
+        writeVarInt(out, telegram.time - previous);
+        out.writeByte(telegram.service);
+        out.writeShort(telegram.source.getRawAddress());
+        out.writeShort(telegram.destination.getRawAddress());
+        out.writeByte(telegram.asdu.length);
+        out.write(telegram.asdu);
+    }
+
+    public static List<Telegram> read(File file) throws IOException {
+        List<Telegram> telegrams = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                throw new IOException("Not a KNX telegram recording: " + file);
+            }
+            long time = 0;
+            while (true) {
+                long delta;
+                try {
+                    delta = readVarInt(in);
+                } catch (EOFException e) {
+                    break;
+                }
+                time += delta;
+                int service = in.readUnsignedByte();
+                IndividualAddress source = new IndividualAddress(in.readUnsignedShort());
+                GroupAddress destination = new GroupAddress(in.readUnsignedShort());
+                byte[] asdu = new byte[in.readUnsignedByte()];
+                in.readFully(asdu);
+                telegrams.add(new Telegram(time, service, source, destination, asdu));
+            }
+        }
+        return telegrams;
+    }
+
+    private static void writeVarInt(DataOutputStream out, long value) throws IOException {
+        long remaining = Math.max(0, value);
+        while (remaining > 0x7F) {
+            out.writeByte((int) (remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte((int) remaining);
+    }
+
+    private static long readVarInt(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+}
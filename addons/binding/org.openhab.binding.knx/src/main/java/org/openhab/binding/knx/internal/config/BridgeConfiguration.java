@@ -24,6 +24,7 @@ public class BridgeConfiguration {
     private BigDecimal readingPause;
     private BigDecimal readRetriesLimit;
     private BigDecimal responseTimeout;
+    private String recordingFile;
 
     public BigDecimal getAutoReconnectPeriod() {
         return autoReconnectPeriod;
@@ -41,4 +42,8 @@ public class BridgeConfiguration {
         return responseTimeout;
     }
 
+    public String getRecordingFile() {
+        return recordingFile;
+    }
+
 }
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.knx.internal.dpt;
+
+import org.eclipse.smarthome.core.types.Type;
+
+import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.dptxlator.DPT;
+import tuwien.auto.calimero.dptxlator.DPTXlator;
+import tuwien.auto.calimero.dptxlator.TranslatorTypes.MainType;
+
+/**
+ * Precompiled information about a KNX datapoint type, so converting telegrams does not need to parse the DPT ID and
+ * look up the translator and openHAB type class again.
+ *
+ * Instances are immutable and can be shared between threads, the translators created by them can not.
+ *
+ * @author agent - Initial contribution
+ */
+final class DPTConverter {
+
+    private final String id;
+    private final int mainNumber;
+    private final int subNumber;
+    private final MainType mainType;
+    private final DPT dpt;
+    private final Class<? extends Type> typeClass;
+
+    DPTConverter(String id, int mainNumber, int subNumber, MainType mainType, DPT dpt,
+            Class<? extends Type> typeClass) {
+        this.id = id;
+        this.mainNumber = mainNumber;
+        this.subNumber = subNumber;
+        this.mainType = mainType;
+        this.dpt = dpt;
+        this.typeClass = typeClass;
+    }
+
+    /**
+     * Returns the DPT ID, e.g. "9.001".
+     */
+    String getId() {
+        return id;
+    }
+
+    int getMainNumber() {
+        return mainNumber;
+    }
+
+    /**
+     * Returns the sub number or -1 if the DPT ID has none.
+     */
+    int getSubNumber() {
+        return subNumber;
+    }
+
+    DPT getDPT() {
+        return dpt;
+    }
+
+    /**
+     * Returns the openHAB type class or {@code null} if the datapoint type is not mapped to one.
+     */
+    Class<? extends Type> getTypeClass() {
+        return typeClass;
+    }
+
+    /**
+     * Creates a new translator for this datapoint type.
+     */
+    DPTXlator createTranslator() throws KNXException {
+        return mainType.createTranslator(dpt);
+    }
+
+    @Override
+    public String toString() {
+        return id + " -> " + (typeClass != null ? typeClass.getSimpleName() : "unmapped");
+    }
+}
@@ -10,7 +10,7 @@ package org.openhab.binding.knx.internal.dpt;
 
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
-import java.text.NumberFormat;
+import java.text.DecimalFormatSymbols;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.smarthome.core.library.types.DateTimeType;
 import org.eclipse.smarthome.core.library.types.DecimalType;
@@ -64,6 +65,7 @@ import tuwien.auto.calimero.dptxlator.DPTXlatorString;
 import tuwien.auto.calimero.dptxlator.DPTXlatorTime;
 import tuwien.auto.calimero.dptxlator.DPTXlatorUtf8;
 import tuwien.auto.calimero.dptxlator.TranslatorTypes;
+import tuwien.auto.calimero.dptxlator.TranslatorTypes.MainType;
 
 /**
  * This class provides type mapping between all openHAB core types and KNX data point types.
@@ -103,6 +105,13 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     /** stores the default KNX DPT to use for each openHAB type */
     private final Map<Class<? extends Type>, String> defaultDptMap;
 
+    /** stores the precompiled converter for each KNX datapoint type which has been used */
+    private final Map<String, DPTConverter> converters = new ConcurrentHashMap<>();
+
+    /** formats large 4 byte float values, DecimalFormat is not thread safe */
+    private final ThreadLocal<DecimalFormat> floatFormat = ThreadLocal
+            .withInitial(() -> new DecimalFormat("0.#####E0", DecimalFormatSymbols.getInstance(Locale.US)));
+
     public KNXCoreTypeMapper() {
 
         @SuppressWarnings("unused")
@@ -540,15 +549,15 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     public String toDPTValue(Type type, String dptID) {
 
         DPT dpt;
-        int mainNumber = getMainNumber(dptID);
-        if (mainNumber == -1) {
-            logger.error("toDPTValue couldn't identify mainnumber in dptID: {}", dptID);
-            return null;
-        }
-
+        int mainNumber;
         try {
-            DPTXlator translator = TranslatorTypes.createTranslator(mainNumber, dptID);
-            dpt = translator.getType();
+            DPTConverter converter = getConverter(dptID);
+            if (converter == null) {
+                logger.error("toDPTValue couldn't identify mainnumber in dptID: {}", dptID);
+                return null;
+            }
+            mainNumber = converter.getMainNumber();
+            dpt = converter.getDPT();
         } catch (KNXException e) {
             return null;
         }
@@ -616,19 +625,20 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     @Override
     public Type toType(Datapoint datapoint, byte[] data) {
         try {
-            DPTXlator translator = TranslatorTypes.createTranslator(datapoint.getMainNumber(), datapoint.getDPT());
+            DPTConverter converter = getConverter(datapoint.getDPT());
+            if (converter == null) {
+                logger.debug("toType: couldn't identify mainnumber in dptID: {}.", datapoint.getDPT());
+                return null;
+            }
+            DPTXlator translator = converter.createTranslator();
             translator.setData(data);
             String value = translator.getValue();
 
-            String id = translator.getType().getID();
+            String id = converter.getId();
             logger.trace("toType datapoint DPT = {}", datapoint.getDPT());
 
-            int mainNumber = getMainNumber(id);
-            if (mainNumber == -1) {
-                logger.debug("toType: couldn't identify mainnumber in dptID: {}.", id);
-                return null;
-            }
-            int subNumber = getSubNumber(id);
+            int mainNumber = converter.getMainNumber();
+            int subNumber = converter.getSubNumber();
             if (subNumber == -1) {
                 logger.debug("toType: couldn't identify sub number in dptID: {}.", id);
                 return null;
@@ -687,11 +697,7 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
                     if (Math.abs(f) < 100000) {
                         value = String.valueOf(f);
                     } else {
-                        NumberFormat dcf = NumberFormat.getInstance(Locale.US);
-                        if (dcf instanceof DecimalFormat) {
-                            ((DecimalFormat) dcf).applyPattern("0.#####E0");
-                        }
-                        value = dcf.format(f);
+                        value = floatFormat.get().format(f);
                     }
                     break;
                 case 18:
@@ -755,7 +761,7 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
                     break;
             }
 
-            Class<? extends Type> typeClass = toTypeClass(id);
+            Class<? extends Type> typeClass = converter.getTypeClass();
             if (typeClass == null) {
                 return null;
             }
@@ -781,10 +787,11 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
             }
 
             if (typeClass.equals(HSBType.class)) {
-                // value has format of "r:<red value> g:<green value> b:<blue value>"
-                int r = Integer.parseInt(value.split(" ")[0].split(":")[1]);
-                int g = Integer.parseInt(value.split(" ")[1].split(":")[1]);
-                int b = Integer.parseInt(value.split(" ")[2].split(":")[1]);
+                // take the color components from the raw data instead of parsing "r:<red> g:<green> b:<blue>"
+                byte[] rgb = translator.getData();
+                int r = rgb[0] & 0xFF;
+                int g = rgb[1] & 0xFF;
+                int b = rgb[2] & 0xFF;
 
                 return HSBType.fromRGB(r, g, b);
             }
@@ -822,6 +829,33 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
         return ohClass;
     }
 
+    /**
+     * Returns the precompiled converter for the given datapoint type id, creates it on first use.
+     *
+     * @param dptID the datapoint type id
+     * @return the converter or {@code null} if the datapoint type id has no valid main number
+     * @throws KNXException if there is no translator for the datapoint type id
+     */
+    DPTConverter getConverter(String dptID) throws KNXException {
+        if (dptID == null) {
+            throw new IllegalArgumentException("Parameter dptID cannot be null");
+        }
+        DPTConverter converter = converters.get(dptID);
+        if (converter == null) {
+            int mainNumber = getMainNumber(dptID);
+            if (mainNumber == -1) {
+                return null;
+            }
+            DPT dpt = TranslatorTypes.createTranslator(mainNumber, dptID).getType();
+            MainType mainType = TranslatorTypes.getMainType(mainNumber);
+            converter = new DPTConverter(dpt.getID(), mainNumber, getSubNumber(dpt.getID()), mainType, dpt,
+                    toTypeClass(dpt.getID()));
+            converters.put(dptID, converter);
+            logger.trace("Created converter {} for dptID {}", converter, dptID);
+        }
+        return converter;
+    }
+
     /**
      * Converts an openHAB type class into a datapoint type id.
      *
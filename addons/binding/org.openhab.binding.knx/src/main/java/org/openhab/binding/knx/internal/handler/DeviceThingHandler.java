@@ -66,6 +66,7 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
 
     private final KNXTypeMapper typeHelper = new KNXCoreTypeMapper();
     private final Set<GroupAddress> groupAddresses = new HashSet<>();
+    private final Set<GroupAddress> commandGroupAddresses = new HashSet<>();
     private final Map<GroupAddress, @Nullable ScheduledFuture<?>> readFutures = new HashMap<>();
     private final Map<ChannelUID, @Nullable ScheduledFuture<?>> channelFutures = new HashMap<>();
     private @Nullable IndividualAddress address;
@@ -89,6 +90,15 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
             groupAddresses.addAll(selector.getWriteAddresses(channelConfiguration));
             groupAddresses.addAll(selector.getListenAddresses(channelConfiguration));
         });
+        for (Channel channel : getThing().getChannels()) {
+            if (isControl(channel.getUID())) {
+                withKNXType(channel, (selector, channelConfiguration) -> {
+                    commandGroupAddresses.addAll(selector.getReadAddresses(channelConfiguration));
+                    commandGroupAddresses.addAll(selector.getWriteAddresses(channelConfiguration));
+                    commandGroupAddresses.addAll(selector.getListenAddresses(channelConfiguration));
+                });
+            }
+        }
     }
 
     @Override
@@ -189,6 +199,11 @@ public class DeviceThingHandler extends AbstractKNXThingHandler {
         return groupAddresses.contains(destination);
     }
 
+    @Override
+    public boolean triggersCommands(GroupAddress destination) {
+        return commandGroupAddresses.contains(destination);
+    }
+
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
         logger.trace("Handling command '{}' for channel '{}'", command, channelUID);
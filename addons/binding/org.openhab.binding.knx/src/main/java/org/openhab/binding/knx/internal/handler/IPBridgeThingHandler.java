@@ -92,6 +92,10 @@ public class IPBridgeThingHandler extends KNXBridgeBaseThingHandler {
                 config.getAutoReconnectPeriod().intValue(), thing.getUID(), config.getResponseTimeout().intValue(),
                 config.getReadingPause().intValue(), config.getReadRetriesLimit().intValue(), getScheduler(), this);
 
+        String recordingFile = config.getRecordingFile();
+        if (recordingFile != null && !recordingFile.isEmpty()) {
+            client.startRecording(recordingFile);
+        }
         client.initialize();
     }
 
@@ -36,6 +36,10 @@ public class SerialBridgeThingHandler extends KNXBridgeBaseThingHandler {
         client = new SerialClient(config.getAutoReconnectPeriod().intValue(), thing.getUID(),
                 config.getResponseTimeout().intValue(), config.getReadingPause().intValue(),
                 config.getReadRetriesLimit().intValue(), getScheduler(), config.getSerialPort(), this);
+        String recordingFile = config.getRecordingFile();
+        if (recordingFile != null && !recordingFile.isEmpty()) {
+            client.startRecording(recordingFile);
+        }
     }
 
     @Override
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.logreader.internal.searchengine;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the time to match a log against the default error and warning patterns and a custom pattern set with the
+ * {@link PatternSet} and with one scan per pattern.
+ *
+ * The benchmark only runs with {@code -Dlogreader.benchmark=true}. It repeats the sample log up to 100000 lines, a
+ * real log can be used with {@code -Dlogreader.benchmark.file=<file>}.
+ *
+ * @author agent - Initial contribution
+ */
+public class PatternSetBenchmarkTest {
+    private static final int LINES = 100000;
+    private static final int ROUNDS = 10;
+    private static final String[] PATTERN_SETS = { "ERROR+", "WARN+",
+            "(?i)exception|changed from \\w+ to ON|timed? out|Error_Count" };
+
+    private final Logger logger = LoggerFactory.getLogger(PatternSetBenchmarkTest.class);
+
+    private final List<String> lines = new ArrayList<String>();
+
+    @Before
+    public void setup() throws Exception {
+        Assume.assumeTrue("Log reader benchmark is disabled, enable it with -Dlogreader.benchmark=true",
+                Boolean.getBoolean("logreader.benchmark"));
+        String file = System.getProperty("logreader.benchmark.file");
+        List<String> sample = file != null ? Files.readAllLines(Paths.get(file))
+                : PatternSetTest.readSampleLog();
+        while (lines.size() < LINES) {
+            lines.addAll(sample);
+        }
+    }
+
+    @Test
+    public void benchmark() {
+        List<PatternSet> patternSets = new ArrayList<PatternSet>();
+        List<List<Pattern>> separatePatterns = new ArrayList<List<Pattern>>();
+        for (String patterns : PATTERN_SETS) {
+            patternSets.add(new PatternSet(patterns));
+            List<Pattern> compiled = new ArrayList<Pattern>();
+            for (String pattern : patterns.split("\\|")) {
+                compiled.add(Pattern.compile(pattern));
+            }
+            separatePatterns.add(compiled);
+        }
+
+        long patternSetTime = Long.MAX_VALUE;
+        long separateTime = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            int patternSetMatches = 0;
+            for (String line : lines) {
+                for (PatternSet patternSet : patternSets) {
+                    if (patternSet.isMatching(line)) {
+                        patternSetMatches++;
+                    }
+                }
+            }
+            patternSetTime = Math.min(patternSetTime, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            int separateMatches = 0;
+            for (String line : lines) {
+                for (List<Pattern> patterns : separatePatterns) {
+                    for (Pattern pattern : patterns) {
+                        if (pattern.matcher(line).find()) {
+                            separateMatches++;
+                            break;
+                        }
+                    }
+                }
+            }
+            separateTime = Math.min(separateTime, System.nanoTime() - start);
+
+            assertThat(patternSetMatches, is(separateMatches));
+        }
+        logger.info("{} lines: pattern set {} ms, one scan per pattern {} ms", lines.size(), patternSetTime / 1000000,
+                separateTime / 1000000);
+    }
+}
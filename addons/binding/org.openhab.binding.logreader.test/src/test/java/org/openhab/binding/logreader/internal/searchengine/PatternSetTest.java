@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.logreader.internal.searchengine;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link PatternSet} against matching every pattern on its own.
+ *
+ * @author agent - Initial contribution
+ */
+public class PatternSetTest {
+
+    private static final String[] PATTERN_SETS = { "ERROR+", "WARN+", "ERROR|WARN",
+            "(?i)exception|changed from \\w+ to ON|\\QItem 'Light_Kitchen'\\E|timed? out|Error_Count",
+            "(?<value>OPEN)|(?<value>\\d+\\.\\d+)", "(\\d)\\1{2}|ERRORCODE=\\d+|^java\\.|\\tat ",
+            "AB?C|Humidity_Bath|[EW]A?RN|ERR(OR)?:", "WARN|ERROR||INFO" };
+
+    @Test
+    public void literalPrefix() {
+        assertThat(PatternSet.getLiteralPrefix("ERROR"), is("ERROR"));
+        assertThat(PatternSet.getLiteralPrefix("ERROR+"), is("ERROR"));
+        assertThat(PatternSet.getLiteralPrefix("ERROR+?"), is("ERROR"));
+        assertThat(PatternSet.getLiteralPrefix("WARN.*timeout"), is("WARN"));
+        assertThat(PatternSet.getLiteralPrefix("ERR(OR)?"), is("ERR"));
+        assertThat(PatternSet.getLiteralPrefix("AB?"), is("A"));
+        assertThat(PatternSet.getLiteralPrefix("AB*"), is("A"));
+        assertThat(PatternSet.getLiteralPrefix("AB{2,}"), is("A"));
+        assertThat(PatternSet.getLiteralPrefix("A{2}"), is(""));
+        assertThat(PatternSet.getLiteralPrefix("(?i)error"), is(""));
+        assertThat(PatternSet.getLiteralPrefix("\\QItem\\E"), is(""));
+        assertThat(PatternSet.getLiteralPrefix("Item \\Q'x'\\E"), is("Item "));
+        assertThat(PatternSet.getLiteralPrefix("[EW]ARN"), is(""));
+        assertThat(PatternSet.getLiteralPrefix("^ERROR"), is(""));
+        assertThat(PatternSet.getLiteralPrefix(""), is(""));
+    }
+
+    @Test
+    public void emptyPatternsNeverMatch() {
+        assertThat(new PatternSet(null).isMatching("ERROR"), is(false));
+        assertThat(new PatternSet("").isMatching("ERROR"), is(false));
+    }
+
+    @Test
+    public void emptyAlternativeMatchesEveryLine() {
+        PatternSet patternSet = new PatternSet("ERROR||WARN");
+        assertThat(patternSet.isMatching("INFO"), is(true));
+        assertThat(patternSet.isMatching(""), is(true));
+    }
+
+    @Test
+    public void matchesLikeSeparatePatterns() throws IOException {
+        List<String> lines = readSampleLog();
+        lines.addAll(Arrays.asList("", "AC", "ABC", "ABBC", "WRN", "ERR:", "error 111", "EXCEPTION", "timeout"));
+        for (String patterns : PATTERN_SETS) {
+            PatternSet patternSet = new PatternSet(patterns);
+            for (String line : lines) {
+                assertThat(patterns + " on " + line, patternSet.isMatching(line),
+                        is(matchesSeparately(patterns, line)));
+            }
+        }
+    }
+
+    /**
+     * Matches every pattern on its own, like the search engine did before.
+     */
+    static boolean matchesSeparately(String patterns, String line) {
+        for (String pattern : patterns.split("\\|")) {
+            if (Pattern.compile(pattern).matcher(line).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static List<String> readSampleLog() throws IOException {
+        List<String> lines = new ArrayList<String>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                PatternSetTest.class.getResourceAsStream("/openhab.log"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.logreader.internal.searchengine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A set of search patterns, which is checked against a line with as few scans as possible.
+ *
+ * Most log patterns start with a literal text, e.g. the default error pattern ERROR+ can only match lines which
+ * contain "ERROR". This literal is used as a prefilter, so the regular expression only runs on lines which contain it.
+ * Patterns without any regular expression syntax are matched by the literal alone. All remaining patterns are
+ * combined into one alternation, which needs a single scan of the line instead of one scan per pattern.
+ *
+ * @author agent - Initial contribution
+ */
+class PatternSet {
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+    private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\(\\d|k<)");
+
+    private final List<String> literals = new ArrayList<String>();
+    private final List<String> prefilters = new ArrayList<String>();
+    private final List<Pattern> prefilteredPatterns = new ArrayList<Pattern>();
+    private final List<Pattern> separatePatterns = new ArrayList<Pattern>();
+    private @Nullable Pattern combinedPattern;
+
+    /**
+     * Split pattern string and precompile search patterns.
+     *
+     * @param patterns patterns separated by | character. If null or empty, the set never matches.
+     */
+    PatternSet(@Nullable String patterns) throws PatternSyntaxException {
+        if (patterns == null || patterns.isEmpty()) {
+            return;
+        }
+
+        List<String> unfilteredPatterns = new ArrayList<String>();
+        for (String patternStr : patterns.split("\\|")) {
+            // Compile each pattern on its own first, so a syntax error refers to the pattern of the user
+            Pattern pattern = Pattern.compile(patternStr);
+            String prefix = getLiteralPrefix(patternStr);
+            if (prefix.length() == patternStr.length() && !prefix.isEmpty()) {
+                literals.add(prefix);
+            } else if (!prefix.isEmpty()) {
+                prefilters.add(prefix);
+                prefilteredPatterns.add(pattern);
+            } else {
+                unfilteredPatterns.add(patternStr);
+            }
+        }
+        combine(unfilteredPatterns);
+    }
+
+    /**
+     * Check if data is matching to one of the patterns.
+     *
+     * @param data data against search will be done.
+     * @return true if one of the patterns found.
+     */
+    boolean isMatching(String data) {
+        for (String literal : literals) {
+            if (data.contains(literal)) {
+                return true;
+            }
+        }
+        for (int i = 0; i < prefilters.size(); i++) {
+            if (data.contains(prefilters.get(i)) && prefilteredPatterns.get(i).matcher(data).find()) {
+                return true;
+            }
+        }
+        for (Pattern pattern : separatePatterns) {
+            if (pattern.matcher(data).find()) {
+                return true;
+            }
+        }
+        Pattern pattern = combinedPattern;
+        return pattern != null && pattern.matcher(data).find();
+    }
+
+    /**
+     * Returns the literal text every match of the pattern starts with. The pattern must not contain the | character.
+     *
+     * @param pattern the regular expression
+     * @return the literal prefix, which is the whole pattern if it does not contain regular expression syntax
+     */
+    static String getLiteralPrefix(String pattern) {
+        int end = 0;
+        while (end < pattern.length() && METACHARACTERS.indexOf(pattern.charAt(end)) < 0) {
+            end++;
+        }
+        if (end < pattern.length() && end > 0) {
+            char quantifier = pattern.charAt(end);
+            // The last character is optional or its repetition is unknown, it is not part of every match
+            if (quantifier == '?' || quantifier == '*' || quantifier == '{') {
+                end--;
+            }
+        }
+        return pattern.substring(0, end);
+    }
+
+    /**
+     * Combines the patterns into one alternation. Patterns with back references cannot be combined, because the
+     * group numbers change. These are kept as separate patterns.
+     */
+    private void combine(List<String> patterns) {
+        StringBuilder combined = new StringBuilder();
+        for (String pattern : patterns) {
+            if (BACK_REFERENCE.matcher(pattern).find()) {
+                separatePatterns.add(Pattern.compile(pattern));
+                continue;
+            }
+            if (combined.length() > 0) {
+                combined.append('|');
+            }
+            combined.append("(?:").append(pattern).append(')');
+        }
+        if (combined.length() > 0) {
+            try {
+                combinedPattern = Pattern.compile(combined.toString());
+            } catch (PatternSyntaxException e) {
+                // For instance the same named group is used in two patterns
+                for (String pattern : patterns) {
+                    if (!BACK_REFERENCE.matcher(pattern).find()) {
+                        separatePatterns.add(Pattern.compile(pattern));
+                    }
+                }
+            }
+        }
+    }
+}
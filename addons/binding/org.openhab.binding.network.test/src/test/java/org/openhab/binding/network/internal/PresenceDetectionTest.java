@@ -16,7 +16,10 @@ import static org.mockito.Mockito.*;
 import java.io.IOException;
 import java.net.UnknownHostException;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -85,8 +88,8 @@ public class PresenceDetectionTest {
         subject.waitForPresenceDetection();
     }
 
-    // Depending on the amount of test methods an according amount of threads is spawned.
-    // We will check if they spawn and return in time.
+    // Depending on the amount of test methods an according amount of checks is submitted.
+    // We will check if they are performed and return in time.
     @Test
     public void threadCountTest() {
         assertNull(subject.executorService);
@@ -98,7 +101,7 @@ public class PresenceDetectionTest {
 
         subject.performPresenceDetection(false);
 
-        // Thread count: ARP + ICMP + 1*TCP
+        // Check count: ARP + ICMP + 1*TCP
         assertThat(subject.detectionChecks, is(3));
         assertNotNull(subject.executorService);
 
@@ -136,7 +139,7 @@ public class PresenceDetectionTest {
                 anyObject(), anyInt());
         doReturn(true).when(networkUtils).servicePing(anyString(), anyInt(), anyInt());
 
-        doReturn(executorService).when(subject).getThreadsFor(anyInt());
+        doReturn(executorService).when(subject).getExecutor();
 
         // We expect no valid value
         assertTrue(subject.cache.isExpired());
@@ -149,7 +152,7 @@ public class PresenceDetectionTest {
 
         // Perform the different presence detection threads now
         ArgumentCaptor<Runnable> capture = ArgumentCaptor.forClass(Runnable.class);
-        verify(executorService, times(3)).execute(capture.capture());
+        verify(executorService, times(3)).submit(capture.capture());
         for (Runnable r : capture.getAllValues()) {
             r.run();
         }
@@ -170,6 +173,47 @@ public class PresenceDetectionTest {
         verify(callback, times(2)).accept(anyObject());
     }
 
+    @Test
+    public void timedOutChecksAreCancelled() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        doNothing().when(subject).performARPping(anyObject());
+        doNothing().when(subject).performSystemPing();
+        doAnswer(invocation -> {
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        }).when(subject).performServicePing(anyInt());
+
+        assertTrue(subject.performPresenceDetection(true));
+
+        // The hanging TCP check must not keep a thread of the shared executor
+        assertNull(subject.executorService);
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        verify(listener, times(1)).finalDetectionResult(anyObject());
+    }
+
+    @Test
+    public void automaticRefreshTest() {
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        ScheduledFuture<?> refreshJob = mock(ScheduledFuture.class);
+        doReturn(refreshJob).when(scheduler).scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(),
+                any(TimeUnit.class));
+        long offset = subject.probeEngine.getRefreshOffset("127.0.0.1", subject.getRefreshInterval());
+
+        subject.startAutomaticRefresh(scheduler);
+
+        // Also the first detection starts at the offset and is cancelled with the refresh job
+        verify(scheduler).scheduleWithFixedDelay(any(Runnable.class), eq(offset), eq(subject.getRefreshInterval()),
+                eq(TimeUnit.MILLISECONDS));
+        verify(scheduler, never()).execute(any(Runnable.class));
+
+        subject.stopAutomaticRefresh();
+        verify(refreshJob).cancel(true);
+    }
+
     @Test
     public void reuseValueTests() throws InterruptedException, IOException {
         final long START_TIME = 1000L;
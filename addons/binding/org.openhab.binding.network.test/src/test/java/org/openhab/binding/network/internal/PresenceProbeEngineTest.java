@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openhab.binding.network.internal.PresenceProbeEngine.ProbeStatistics;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+
+/**
+ * Tests cases for {@see PresenceProbeEngine}
+ *
+ * @author agent - Initial contribution
+ */
+public class PresenceProbeEngineTest {
+    @Mock
+    NetworkUtils networkUtils;
+
+    PresenceProbeEngine subject;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        subject = new PresenceProbeEngine();
+        subject.networkUtils = networkUtils;
+    }
+
+    @Test
+    public void refreshOffsetTest() {
+        final long interval = 60000;
+        for (int i = 1; i < 255; ++i) {
+            String hostname = "192.168.1." + i;
+            long offset = subject.getRefreshOffset(hostname, interval);
+            assertTrue(offset >= 0 && offset < interval);
+            // The offset is stable for a host
+            assertThat(subject.getRefreshOffset(hostname, interval), is(offset));
+        }
+        // Similar hosts are not refreshed at the same time
+        assertNotEquals(subject.getRefreshOffset("192.168.1.10", interval),
+                subject.getRefreshOffset("192.168.1.11", interval));
+        assertThat(subject.getRefreshOffset(null, interval), is(0L));
+        assertThat(subject.getRefreshOffset("192.168.1.10", 0), is(0L));
+    }
+
+    @Test
+    public void parseFpingOutputTest() throws IOException {
+        String output = "192.168.1.1 (0.35 ms)\n\n192.168.1.20 (12.1 ms)\n10.0.0.1\n";
+        Map<String, Double> result = NetworkUtils.parseFpingOutput(new BufferedReader(new StringReader(output)));
+        assertThat(result.size(), is(3));
+        assertThat(result.get("192.168.1.1"), is(0.35));
+        assertThat(result.get("192.168.1.20"), is(12.1));
+        assertThat(result.get("10.0.0.1"), is(0.0));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void batchPingTest() throws IOException, InterruptedException, ExecutionException {
+        Map<String, Double> reachable = new HashMap<>();
+        reachable.put("192.168.1.1", 1.5);
+        doReturn(reachable).when(networkUtils).nativeBatchPing(anyCollection(), anyInt());
+
+        // Two concurrent requests end up in a single batch
+        CompletableFuture<Double> other = CompletableFuture.supplyAsync(() -> {
+            try {
+                return subject.batchPing("192.168.1.2", 500);
+            } catch (InterruptedException e) {
+                return 0.0;
+            }
+        });
+        assertThat(subject.batchPing("192.168.1.1", 300), is(1.5));
+        assertThat(other.get(), is(PresenceDetection.NOT_REACHABLE));
+
+        ArgumentCaptor<Collection<String>> addresses = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Integer> timeout = ArgumentCaptor.forClass(Integer.class);
+        verify(networkUtils, atLeastOnce()).nativeBatchPing(addresses.capture(), timeout.capture());
+        int pinged = 0;
+        for (Collection<String> batch : addresses.getAllValues()) {
+            pinged += batch.size();
+        }
+        assertThat(pinged, is(2));
+    }
+
+    @Test
+    public void statisticsTest() {
+        assertNull(subject.getStatistics(PresenceDetectionType.TCP_CONNECTION));
+
+        subject.recordProbe(PresenceDetectionType.TCP_CONNECTION, true, 10);
+        subject.recordProbe(PresenceDetectionType.TCP_CONNECTION, true, 30);
+        subject.recordProbe(PresenceDetectionType.TCP_CONNECTION, false, 300);
+
+        ProbeStatistics statistics = subject.getStatistics(PresenceDetectionType.TCP_CONNECTION);
+        assertThat(statistics.getCount(), is(3L));
+        assertThat(statistics.getReachableCount(), is(2L));
+        assertThat(statistics.getAverageLatency(), is(20.0));
+        assertThat(statistics.getMaxLatency(), is(30.0));
+        assertNull(subject.getStatistics(PresenceDetectionType.ARP_PING));
+    }
+}
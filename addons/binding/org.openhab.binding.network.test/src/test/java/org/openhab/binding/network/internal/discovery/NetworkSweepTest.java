@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.discovery;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+
+/**
+ * Tests cases and a benchmark for {@see NetworkSweep}. The benchmark sweeps the loopback range,
+ * which is completely routed to the loopback interface on Linux.
+ *
+ * @author agent - Initial contribution
+ */
+public class NetworkSweepTest {
+    ServerSocket server;
+    NetworkSweepListener listener;
+    NetworkSweep subject;
+
+    @Before
+    public void setUp() throws IOException {
+        // Listen on all addresses, including the whole loopback range
+        server = new ServerSocket(0, 1024);
+        Thread acceptor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    server.accept().close();
+                } catch (IOException ignored) {
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        listener = mock(NetworkSweepListener.class);
+        subject = new NetworkSweep(listener);
+        subject.setUseIcmpPing(false);
+        subject.setServicePorts(Collections.singleton(server.getLocalPort()));
+        subject.setTimeout(500);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    private Set<String> loopbackRange(int count) {
+        Set<String> ips = new LinkedHashSet<>();
+        for (int i = 0; i < count; ++i) {
+            ips.add("127.0." + (i / 254) + "." + (i % 254 + 1));
+        }
+        return ips;
+    }
+
+    @Test
+    public void serviceDeviceTest() {
+        subject.run(Collections.singleton("127.0.0.1"));
+        verify(listener).newServiceDevice("127.0.0.1", server.getLocalPort());
+        verify(listener, never()).newServiceDevice("127.0.0.1", server.getLocalPort() + 1);
+    }
+
+    @Test
+    public void closedPortTest() throws IOException {
+        int closedPort;
+        try (ServerSocket s = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            closedPort = s.getLocalPort();
+        }
+        subject.setServicePorts(Collections.singleton(closedPort));
+        subject.run(Collections.singleton("127.0.0.1"));
+        verifyZeroInteractions(listener);
+    }
+
+    @Test
+    public void estimateTest() {
+        subject.setPacketsPerSecond(100);
+        assertThat(subject.estimateDuration(100), is(1500L));
+    }
+
+    @Test
+    public void estimateFpingTest() {
+        NetworkUtils networkUtils = mock(NetworkUtils.class);
+        when(networkUtils.isFpingAvailable()).thenReturn(true);
+        subject.networkUtils = networkUtils;
+        subject.setUseIcmpPing(true);
+        subject.setServicePorts(Collections.emptySet());
+        subject.setPacketsPerSecond(100);
+
+        // fping sends a ping every 10 ms and waits for the timeout after each of the 4 batches
+        assertThat(subject.getFpingInterval(), is(10));
+        assertThat(subject.estimateDuration(1016), is(1016 * 10 + 4 * 500L));
+    }
+
+    @Test
+    public void loopbackBenchmark() {
+        Assume.assumeTrue(System.getProperty("os.name").startsWith("Linux"));
+        final int count = 1016; // a /22 network
+        Set<String> ips = loopbackRange(count);
+        subject.setMaxInFlight(256);
+        subject.setPacketsPerSecond(100000);
+
+        subject.run(ips);
+        verify(listener, times(count)).newServiceDevice(anyString(), eq(server.getLocalPort()));
+
+        // The packet rate limits the sweep
+        subject.setPacketsPerSecond(1000);
+        long start = System.nanoTime();
+        subject.run(loopbackRange(200));
+        long durationInMS = (System.nanoTime() - start) / 1000000;
+        assertTrue("Rate limit not respected: " + durationInMS + " ms", durationInMS >= 190);
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.neighbour;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests cases for the neighbour table presence detection
+ *
+ * @author agent - Initial contribution
+ */
+public class NeighbourTableTest {
+    static final String HEADER = "IP address       HW type     Flags       HW address            Mask     Device\n";
+    File originalTable;
+    File table;
+
+    @Before
+    public void setUp() throws IOException {
+        originalTable = NeighbourTableService.neighbourTable;
+        table = File.createTempFile("arp", null);
+        NeighbourTableService.neighbourTable = table;
+    }
+
+    @After
+    public void tearDown() {
+        NeighbourTableService.unregister("192.168.1.2");
+        NeighbourTableService.unregister("192.168.1.3");
+        NeighbourTableService.neighbourTable = originalTable;
+        table.delete();
+    }
+
+    private void writeTable(String entries) throws IOException {
+        Files.write(table.toPath(), (HEADER + entries).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void parseTest() throws IOException {
+        String content = HEADER + "192.168.1.1      0x1         0x2         00:11:22:33:44:55     *        eth0\n"
+                + "192.168.1.2      0x1         0x0         00:00:00:00:00:00     *        eth0\n"
+                + "192.168.1.3      0x1         0x6         00:11:22:33:44:66     *        eth0\n";
+        Map<String, String> entries = NeighbourTableService
+                .parseNeighbourTable(new BufferedReader(new StringReader(content)));
+        assertThat(entries.size(), is(2));
+        assertThat(entries.get("192.168.1.1"), is("00:11:22:33:44:55"));
+        assertThat(entries.get("192.168.1.2"), is(nullValue()));
+        assertThat(entries.get("192.168.1.3"), is("00:11:22:33:44:66"));
+    }
+
+    @Test
+    public void diffTest() throws IOException {
+        NeighbourTableListener listener = mock(NeighbourTableListener.class);
+        NeighbourTableListener other = mock(NeighbourTableListener.class);
+        assertTrue(NeighbourTableService.register("192.168.1.2", listener));
+        assertTrue(NeighbourTableService.register("192.168.1.3", other));
+        assertTrue(NeighbourTableService.isRunning());
+
+        // The first read is only the reference
+        writeTable("192.168.1.2      0x1         0x2         00:11:22:33:44:55     *        eth0\n");
+        NeighbourTableService.refresh();
+        verifyZeroInteractions(listener, other);
+
+        // Unchanged entries are no proof of presence
+        NeighbourTableService.refresh();
+        verifyZeroInteractions(listener, other);
+
+        // A new entry
+        writeTable("192.168.1.2      0x1         0x2         00:11:22:33:44:55     *        eth0\n"
+                + "192.168.1.3      0x1         0x2         00:11:22:33:44:66     *        eth0\n");
+        NeighbourTableService.refresh();
+        verify(other).neighbourSeen("192.168.1.3");
+        verifyZeroInteractions(listener);
+
+        // An entry which cannot be resolved anymore
+        writeTable("192.168.1.2      0x1         0x0         00:00:00:00:00:00     *        eth0\n"
+                + "192.168.1.3      0x1         0x2         00:11:22:33:44:66     *        eth0\n");
+        NeighbourTableService.refresh();
+        verify(listener).neighbourLost("192.168.1.2");
+        verify(other, times(1)).neighbourSeen("192.168.1.3");
+
+        NeighbourTableService.unregister("192.168.1.2");
+        assertTrue(NeighbourTableService.isRunning());
+        NeighbourTableService.unregister("192.168.1.3");
+        assertFalse(NeighbourTableService.isRunning());
+    }
+}
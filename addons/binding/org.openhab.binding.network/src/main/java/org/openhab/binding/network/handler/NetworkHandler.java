@@ -175,6 +175,7 @@ public class NetworkHandler extends BaseThingHandler implements PresenceDetectio
             presenceDetection.setIOSDevice(true);
             // Hand over binding configurations to the network service
             presenceDetection.setUseDhcpSniffing(configuration.allowDHCPlisten);
+            presenceDetection.setUseNeighbourTable(configuration.allowNeighbourTable);
             presenceDetection.setUseIcmpPing(configuration.allowSystemPings);
             presenceDetection.setUseArpPing(true, configuration.arpPingToolPath);
         }
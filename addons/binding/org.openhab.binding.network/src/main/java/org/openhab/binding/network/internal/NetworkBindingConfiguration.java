@@ -23,11 +23,17 @@ public class NetworkBindingConfiguration {
     public Boolean allowDHCPlisten = true;
     public BigDecimal cacheDeviceStateTimeInMS = BigDecimal.valueOf(2000);
     public String arpPingToolPath = "arping";
+    public Boolean allowNeighbourTable = true;
+    public BigDecimal maxInFlightProbes = BigDecimal.valueOf(256);
+    public BigDecimal packetsPerSecond = BigDecimal.valueOf(1000);
 
     public void update(@NonNull NetworkBindingConfiguration newConfiguration) {
         this.allowSystemPings = newConfiguration.allowSystemPings;
         this.allowDHCPlisten = newConfiguration.allowDHCPlisten;
         this.cacheDeviceStateTimeInMS = newConfiguration.cacheDeviceStateTimeInMS;
         this.arpPingToolPath = newConfiguration.arpPingToolPath;
+        this.allowNeighbourTable = newConfiguration.allowNeighbourTable;
+        this.maxInFlightProbes = newConfiguration.maxInFlightProbes;
+        this.packetsPerSecond = newConfiguration.packetsPerSecond;
     }
 }
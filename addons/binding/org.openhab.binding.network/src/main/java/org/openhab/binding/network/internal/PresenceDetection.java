@@ -13,10 +13,13 @@ import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -25,6 +28,8 @@ import java.util.function.Consumer;
 import org.apache.commons.lang.StringUtils;
 import org.openhab.binding.network.internal.dhcp.DHCPListenService;
 import org.openhab.binding.network.internal.dhcp.IPRequestReceivedCallback;
+import org.openhab.binding.network.internal.neighbour.NeighbourTableListener;
+import org.openhab.binding.network.internal.neighbour.NeighbourTableService;
 import org.openhab.binding.network.internal.toberemoved.cache.ExpiringCacheAsync;
 import org.openhab.binding.network.internal.utils.NetworkUtils;
 import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
@@ -38,22 +43,26 @@ import org.slf4j.LoggerFactory;
  * @author David Gräff, 2017 - Rewritten
  * @author Marc Mettke - Initial contribution
  */
-public class PresenceDetection implements IPRequestReceivedCallback {
+public class PresenceDetection implements IPRequestReceivedCallback, NeighbourTableListener {
     public static final double NOT_REACHABLE = -1;
     NetworkUtils networkUtils = new NetworkUtils();
+    PresenceProbeEngine probeEngine = PresenceProbeEngine.getInstance();
     private Logger logger = LoggerFactory.getLogger(PresenceDetection.class);
 
     /// Configuration variables
     private boolean useDHCPsniffing = false;
+    private boolean useNeighbourTable = false;
     private ArpPingUtilEnum arpPingMethod = null;
     private String arpPingUtilPath = "arping";
     private IpPingMethodEnum pingMethod = null;
+    private boolean useBatchPing = false;
     private boolean iosDevice;
     private Set<Integer> tcpPorts = new HashSet<Integer>();
 
     private long refreshIntervalInMS = 60000;
     private int timeoutInMS = 5000;
     private long lastSeenInMS;
+    private volatile long lastNeighbourSeenInMS;
 
     private String hostname;
 
@@ -63,6 +72,10 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     private ScheduledFuture<?> refreshJob;
     private InetAddress destination;
     ExecutorService executorService;
+    private CountDownLatch pendingChecks;
+    private CountDownLatch startedChecks;
+    private List<Future<?>> checkFutures;
+    private long detectionStartInMS;
     private String dhcpState = "off";
     Integer currentCheck = 0;
     int detectionChecks;
@@ -111,6 +124,15 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         this.useDHCPsniffing = enable;
     }
 
+    /**
+     * Enables or disables the passive presence detection by the kernel neighbour table. Active
+     * checks are skipped as long as the neighbour table proved a presence within the refresh interval.
+     * Only available for IPv4 addresses on Linux.
+     */
+    public void setUseNeighbourTable(boolean enable) {
+        this.useNeighbourTable = enable;
+    }
+
     public void setRefreshInterval(long refreshInterval) {
         this.refreshIntervalInMS = refreshInterval;
     }
@@ -134,6 +156,9 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         } else {
             pingMethod = IpPingMethodEnum.JAVA_PING;
         }
+        // Batched pings need fping, which is used instead of the unix system ping if available
+        useBatchPing = (pingMethod == IpPingMethodEnum.IPUTILS_LINUX_PING || pingMethod == IpPingMethodEnum.MAC_OS_PING)
+                && probeEngine.isBatchPingAvailable();
     }
 
     /**
@@ -202,14 +227,17 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         cache.getValue(callback);
     }
 
-    public ExecutorService getThreadsFor(int threadCount) {
-        return Executors.newFixedThreadPool(threadCount);
+    /**
+     * Return the executor the checks are performed on, which is shared by all presence detections.
+     */
+    public ExecutorService getExecutor() {
+        return probeEngine.getExecutor();
     }
 
     /**
      * Perform a presence detection with ICMP-, ARP ping and
-     * TCP connection attempts simultaneously. A fixed thread pool will be created with as many
-     * thread as necessary to perform all tests at once.
+     * TCP connection attempts simultaneously. The checks are performed on the bounded
+     * executor of the {@link PresenceProbeEngine}, which is shared by all presence detections.
      *
      * This is a NO-OP, if there is already an ongoing detection or if the cached value
      * is not expired yet.
@@ -234,6 +262,16 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             return false;
         }
 
+        // The device has been seen recently by the neighbour table, there is no need for active checks
+        if (lastNeighbourSeenInMS + refreshIntervalInMS > System.currentTimeMillis()) {
+            logger.trace("Skip active presence detection for {}, seen in the neighbour table", hostname);
+            PresenceDetectionValue v = new PresenceDetectionValue(destination.getHostAddress(), 0);
+            v.addType(PresenceDetectionType.NEIGHBOUR_TABLE);
+            cache.setValue(v);
+            updateListener.finalDetectionResult(v);
+            return true;
+        }
+
         Set<String> interfaceNames = null;
 
         currentCheck = 0;
@@ -250,37 +288,46 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             return false;
         }
 
-        executorService = getThreadsFor(detectionChecks);
+        final CountDownLatch checks = new CountDownLatch(detectionChecks);
+        final CountDownLatch started = new CountDownLatch(detectionChecks);
+        final List<Future<?>> futures = new ArrayList<>();
+        synchronized (this) {
+            pendingChecks = checks;
+            startedChecks = started;
+            checkFutures = futures;
+            detectionStartInMS = System.currentTimeMillis();
+            executorService = getExecutor();
+        }
 
         for (Integer tcpPort : tcpPorts) {
-            executorService.execute(() -> {
-                Thread.currentThread().setName("presenceDetectionTCP_" + hostname + " " + String.valueOf(tcpPort));
+            submitCheck(futures, () -> {
+                started.countDown();
                 performServicePing(tcpPort);
-                checkIfFinished();
+                checkIfFinished(checks);
             });
         }
 
-        // ARP ping for IPv4 addresses. Use an own executor for each network interface
+        // ARP ping for IPv4 addresses. Use an own check for each network interface
         if (interfaceNames != null) {
             for (final String interfaceName : interfaceNames) {
-                executorService.execute(() -> {
-                    Thread.currentThread().setName("presenceDetectionARP_" + hostname + " " + interfaceName);
+                submitCheck(futures, () -> {
+                    started.countDown();
                     performARPping(interfaceName);
-                    checkIfFinished();
+                    checkIfFinished(checks);
                 });
             }
         }
 
         // ICMP ping
         if (pingMethod != null) {
-            executorService.execute(() -> {
+            submitCheck(futures, () -> {
+                started.countDown();
                 if (pingMethod != IpPingMethodEnum.JAVA_PING) {
-                    Thread.currentThread().setName("presenceDetectionICMP_" + hostname);
                     performSystemPing();
                 } else {
                     performJavaPing();
                 }
-                checkIfFinished();
+                checkIfFinished(checks);
             });
         }
 
@@ -291,11 +338,30 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         return true;
     }
 
+    private synchronized void submitCheck(List<Future<?>> futures, Runnable check) {
+        Future<?> future = executorService.submit(check);
+        if (future != null) {
+            futures.add(future);
+        }
+    }
+
+    /**
+     * Cancels the checks of the detection process which are still queued or running, so they do not
+     * occupy the shared executor after the detection has timed out.
+     */
+    private void cancelChecks(CountDownLatch checks, List<Future<?>> futures) {
+        if (checks != null && futures != null && checks.getCount() > 0) {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
     /**
      * Calls updateListener.finalDetectionResult() with a final result value.
      * Safe to be called from different threads. After a call to this method,
-     * the presence detection process is finished and all threads are forcefully
-     * shut down.
+     * the presence detection process is finished. Checks which are still
+     * running are cancelled.
      */
     private synchronized void submitFinalResult() {
         // Do nothing if we are not in a detection process
@@ -303,15 +369,19 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             return;
         }
         // Finish the detection process
-        executorService.shutdownNow();
+        cancelChecks(pendingChecks, checkFutures);
         executorService = null;
+        pendingChecks = null;
+        startedChecks = null;
+        checkFutures = null;
         detectionChecks = 0;
 
         PresenceDetectionValue v;
 
         // The cache will be expired by now if cache_time < timeoutInMS. But the device might be actually reachable.
         // Therefore use lastSeenInMS here and not cache.isExpired() to determine if we got a ping response.
-        if (lastSeenInMS + timeoutInMS + 100 < System.currentTimeMillis()) {
+        // Checks may have waited on the shared executor, so the detection can take longer than timeoutInMS.
+        if (lastSeenInMS < detectionStartInMS) {
             // We haven't seen the device in the detection process
             v = new PresenceDetectionValue(destination.getHostAddress(), -1);
         } else {
@@ -327,8 +397,15 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * If the counter equals the total checks,the final result is submitted. This will
      * happen way before the "timeoutInMS", if all checks were successful.
      * Thread safe.
+     *
+     * @param checks The checks of the detection process the finished check belongs to
      */
-    private synchronized void checkIfFinished() {
+    private synchronized void checkIfFinished(CountDownLatch checks) {
+        checks.countDown();
+        // Ignore checks of an already finished detection process
+        if (checks != pendingChecks) {
+            return;
+        }
         currentCheck += 1;
         if (currentCheck < detectionChecks) {
             return;
@@ -339,19 +416,34 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     /**
      * Waits for the presence detection threads to finish. Returns immediately
      * if no presence detection is performed right now.
+     *
+     * The checks are queued on the shared executor. The timeout starts when the checks have begun,
+     * the time they waited in the queue, up to another timeout, does not count.
      */
     public void waitForPresenceDetection() {
-        if (executorService == null) {
-            return;
+        CountDownLatch checks;
+        CountDownLatch started;
+        synchronized (this) {
+            if (executorService == null) {
+                return;
+            }
+            checks = pendingChecks;
+            started = startedChecks;
         }
         try {
             // We may get interrupted here by cancelRefreshJob().
-            executorService.awaitTermination(timeoutInMS + 100, TimeUnit.MILLISECONDS);
+            started.await(timeoutInMS, TimeUnit.MILLISECONDS);
+            checks.await(timeoutInMS + 100, TimeUnit.MILLISECONDS);
             submitFinalResult();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Reset interrupt flag
-            executorService.shutdownNow();
-            executorService = null;
+            synchronized (this) {
+                cancelChecks(pendingChecks, checkFutures);
+                executorService = null;
+                pendingChecks = null;
+                startedChecks = null;
+                checkFutures = null;
+            }
         }
     }
 
@@ -384,8 +476,10 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         logger.trace("Perform TCP presence detection for {} on port: {}", hostname, tcpPort);
         try {
             double pingTime = System.nanoTime();
-            if (networkUtils.servicePing(destination.getHostAddress(), tcpPort, timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+            boolean reachable = networkUtils.servicePing(destination.getHostAddress(), tcpPort, timeoutInMS);
+            final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+            probeEngine.recordProbe(PresenceDetectionType.TCP_CONNECTION, reachable, latency);
+            if (reachable) {
                 PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.TCP_CONNECTION, latency);
                 v.addReachableTcpService(tcpPort);
                 updateListener.partialDetectionResult(v);
@@ -412,9 +506,11 @@ public class PresenceDetection implements IPRequestReceivedCallback {
                 Thread.sleep(50);
             }
             double pingTime = System.nanoTime();
-            if (networkUtils.nativeARPPing(arpPingMethod, arpPingUtilPath, interfaceName, destination.getHostAddress(),
-                    timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+            boolean reachable = networkUtils.nativeARPPing(arpPingMethod, arpPingUtilPath, interfaceName,
+                    destination.getHostAddress(), timeoutInMS);
+            final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+            probeEngine.recordProbe(PresenceDetectionType.ARP_PING, reachable, latency);
+            if (reachable) {
                 PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ARP_PING, latency);
                 updateListener.partialDetectionResult(v);
             }
@@ -435,8 +531,10 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         try {
             logger.trace("Perform java ping presence detection for {}", hostname);
             double pingTime = System.nanoTime();
-            if (destination.isReachable(timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+            boolean reachable = destination.isReachable(timeoutInMS);
+            final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+            probeEngine.recordProbe(PresenceDetectionType.ICMP_PING, reachable, latency);
+            if (reachable) {
                 PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ICMP_PING, latency);
                 updateListener.partialDetectionResult(v);
             }
@@ -445,12 +543,25 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         }
     }
 
+    /**
+     * Performs a native ping. If fping is available, the ping is batched with the pings
+     * of other presence detections by the {@link PresenceProbeEngine}.
+     */
     protected void performSystemPing() {
         try {
             logger.trace("Perform native ping presence detection for {}", hostname);
             double pingTime = System.nanoTime();
-            if (networkUtils.nativePing(pingMethod, destination.getHostAddress(), timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+            boolean reachable;
+            double latency;
+            if (useBatchPing) {
+                latency = probeEngine.batchPing(destination.getHostAddress(), timeoutInMS);
+                reachable = latency != NOT_REACHABLE;
+            } else {
+                reachable = networkUtils.nativePing(pingMethod, destination.getHostAddress(), timeoutInMS);
+                latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+            }
+            probeEngine.recordProbe(PresenceDetectionType.ICMP_PING, reachable, latency);
+            if (reachable) {
                 PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ICMP_PING, latency);
                 updateListener.partialDetectionResult(v);
             }
@@ -467,8 +578,23 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         updateListener.partialDetectionResult(v);
     }
 
+    @Override
+    public void neighbourSeen(String ipAddress) {
+        lastNeighbourSeenInMS = System.currentTimeMillis();
+        PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.NEIGHBOUR_TABLE, 0);
+        updateListener.partialDetectionResult(v);
+    }
+
+    @Override
+    public void neighbourLost(String ipAddress) {
+        // Let the next active detection decide about the presence
+        lastNeighbourSeenInMS = 0;
+    }
+
     /**
      * Start/Restart a fixed scheduled runner to update the devices reach-ability state.
+     * The detections start at an offset within the refresh interval, so that not all devices
+     * are probed at the same time.
      *
      * @param scheduledExecutorService A scheduler to run pings periodically.
      */
@@ -476,10 +602,12 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         if (refreshJob != null && !refreshJob.isDone()) {
             refreshJob.cancel(true);
         }
-        refreshJob = scheduledExecutorService.scheduleWithFixedDelay(() -> performPresenceDetection(true), 0,
+        long offset = probeEngine.getRefreshOffset(hostname, refreshIntervalInMS);
+        refreshJob = scheduledExecutorService.scheduleWithFixedDelay(() -> performPresenceDetection(true), offset,
                 refreshIntervalInMS, TimeUnit.MILLISECONDS);
 
         enableDHCPListen(useDHCPsniffing);
+        enableNeighbourTable(useNeighbourTable);
     }
 
     /**
@@ -498,6 +626,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             refreshJob = null;
         }
         enableDHCPListen(false);
+        enableNeighbourTable(false);
     }
 
     /**
@@ -525,4 +654,21 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             dhcpState = "off";
         }
     }
+
+    /**
+     * Enables/Disables the passive presence detection by the kernel neighbour table. The table is read once
+     * for all registered hostnames, see {@link NeighbourTableService}.
+     *
+     * @param enabled Enable/Disable the neighbour table for this hostname.
+     */
+    private void enableNeighbourTable(boolean enabled) {
+        if (enabled && destination instanceof Inet4Address) {
+            if (!NeighbourTableService.register(destination.getHostAddress(), this)) {
+                logger.debug("The neighbour table is not available on this system");
+            }
+        } else if (destination != null) {
+            NeighbourTableService.unregister(destination.getHostAddress());
+            lastNeighbourSeenInMS = 0;
+        }
+    }
 }
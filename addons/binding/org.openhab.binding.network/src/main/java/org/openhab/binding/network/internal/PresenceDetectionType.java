@@ -18,5 +18,6 @@ public enum PresenceDetectionType {
     ARP_PING,
     ICMP_PING,
     TCP_CONNECTION,
-    DHCP_REQUEST
+    DHCP_REQUEST,
+    NEIGHBOUR_TABLE
 }
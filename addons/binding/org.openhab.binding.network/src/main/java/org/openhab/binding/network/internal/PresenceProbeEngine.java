@@ -0,0 +1,292 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link PresenceProbeEngine} is shared by all {@link PresenceDetection} instances of the binding.
+ * It provides
+ * - one bounded thread pool for all presence probes instead of a pool per detection,
+ * - staggered refresh offsets, so hosts with the same refresh interval are not probed all at once,
+ * - batched ICMP pings: concurrent ping requests are collected for a short time and sent with a single
+ * fping process, if fping is available,
+ * - latency and success statistics per probe type.
+ *
+ * @author agent - Initial contribution
+ */
+public class PresenceProbeEngine {
+    private static final int MAX_THREADS = 32;
+    private static final long BATCH_WINDOW_IN_MS = 20;
+    private static final long STATISTICS_LOG_INTERVAL_IN_MS = TimeUnit.MINUTES.toMillis(10);
+
+    private static PresenceProbeEngine instance;
+
+    private final Logger logger = LoggerFactory.getLogger(PresenceProbeEngine.class);
+
+    NetworkUtils networkUtils = new NetworkUtils();
+    private final ExecutorService executor;
+    private Boolean batchPingAvailable;
+
+    private final List<PingRequest> pendingPings = new ArrayList<>();
+    private boolean collectingPings;
+
+    private final Map<PresenceDetectionType, ProbeStatistics> statistics = new EnumMap<>(
+            PresenceDetectionType.class);
+    private long lastStatisticsLog = System.currentTimeMillis();
+
+    PresenceProbeEngine() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "networkPresenceProbe-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+    }
+
+    /**
+     * Return the binding wide probe engine.
+     */
+    public static synchronized PresenceProbeEngine getInstance() {
+        if (instance == null) {
+            instance = new PresenceProbeEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Stop the binding wide probe engine and interrupt the running probes. The next call of {@link #getInstance()}
+     * creates a new engine.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.executor.shutdownNow();
+            instance = null;
+        }
+    }
+
+    /**
+     * Return the bounded executor all presence probes are performed on.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Return the offset of the first refresh of the given host within the refresh interval.
+     * The offset is stable for a host and spreads the refreshes of many hosts over the interval.
+     *
+     * @param hostname The hostname or IP address
+     * @param refreshIntervalInMS The refresh interval in milliseconds
+     * @return The offset in milliseconds, between 0 and the refresh interval
+     */
+    public long getRefreshOffset(String hostname, long refreshIntervalInMS) {
+        if (hostname == null || refreshIntervalInMS <= 0) {
+            return 0;
+        }
+        // Spread the bits of similar hostnames like 192.168.1.10 and 192.168.1.11
+        long hash = hostname.hashCode() * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(hash >>> 16, refreshIntervalInMS);
+    }
+
+    /**
+     * Return true if ICMP pings can be batched, which needs the fping utility.
+     */
+    public synchronized boolean isBatchPingAvailable() {
+        if (batchPingAvailable == null) {
+            batchPingAvailable = networkUtils.isFpingAvailable();
+            logger.debug("Batched ICMP pings are {}", batchPingAvailable ? "available" : "not available");
+        }
+        return batchPingAvailable;
+    }
+
+    /**
+     * Ping the given address. The ping is sent together with all other pings requested at about the same time,
+     * using a single fping process. Blocks until the result is known.
+     *
+     * @param ipAddress The IP address
+     * @param timeoutInMS The timeout in milliseconds
+     * @return The latency in milliseconds or {@link PresenceDetection#NOT_REACHABLE}
+     */
+    public double batchPing(String ipAddress, int timeoutInMS) throws InterruptedException {
+        PingRequest request = new PingRequest(ipAddress, timeoutInMS);
+        boolean leader;
+        synchronized (pendingPings) {
+            pendingPings.add(request);
+            leader = !collectingPings;
+            collectingPings = true;
+        }
+
+        // The first requester collects the requests of the other threads for a short time and sends all of them
+        if (leader) {
+            try {
+                Thread.sleep(BATCH_WINDOW_IN_MS);
+            } finally {
+                // Always send the batch, other threads are waiting for it
+                List<PingRequest> batch;
+                synchronized (pendingPings) {
+                    batch = new ArrayList<>(pendingPings);
+                    pendingPings.clear();
+                    collectingPings = false;
+                }
+                performBatch(batch);
+            }
+        }
+
+        try {
+            return request.result.get(timeoutInMS + BATCH_WINDOW_IN_MS + 1000, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            return PresenceDetection.NOT_REACHABLE;
+        }
+    }
+
+    private void performBatch(List<PingRequest> batch) {
+        Set<String> addresses = new LinkedHashSet<>();
+        int timeout = 0;
+        for (PingRequest request : batch) {
+            addresses.add(request.ipAddress);
+            timeout = Math.max(timeout, request.timeoutInMS);
+        }
+        logger.trace("Perform batched ICMP ping for {} addresses", addresses.size());
+
+        Map<String, Double> reachable;
+        try {
+            reachable = networkUtils.nativeBatchPing(addresses, timeout);
+        } catch (IOException e) {
+            logger.debug("Failed to execute a batched ping", e);
+            reachable = new HashMap<>();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reachable = new HashMap<>();
+        }
+
+        for (PingRequest request : batch) {
+            Double latency = reachable.get(request.ipAddress);
+            request.result.complete(latency != null ? latency : PresenceDetection.NOT_REACHABLE);
+        }
+    }
+
+    /**
+     * Record the result of a single probe.
+     *
+     * @param type The probe type
+     * @param reachable True if the device responded
+     * @param latency The time in milliseconds the probe took
+     */
+    public void recordProbe(PresenceDetectionType type, boolean reachable, double latency) {
+        String summary = null;
+        synchronized (statistics) {
+            statistics.computeIfAbsent(type, t -> new ProbeStatistics()).record(reachable, latency);
+            long now = System.currentTimeMillis();
+            if (now - lastStatisticsLog > STATISTICS_LOG_INTERVAL_IN_MS) {
+                lastStatisticsLog = now;
+                summary = statistics.toString();
+            }
+        }
+        if (summary != null) {
+            logger.debug("Presence probe statistics: {}", summary);
+        }
+    }
+
+    /**
+     * Return the statistics of the given probe type or null if no probe of that type was performed yet.
+     */
+    public ProbeStatistics getStatistics(PresenceDetectionType type) {
+        synchronized (statistics) {
+            ProbeStatistics s = statistics.get(type);
+            return s != null ? s.copy() : null;
+        }
+    }
+
+    /**
+     * Number of probes, successful probes and their latencies for a probe type.
+     */
+    public static class ProbeStatistics {
+        private long count;
+        private long reachableCount;
+        private double totalLatency;
+        private double maxLatency;
+
+        void record(boolean reachable, double latency) {
+            count++;
+            if (reachable) {
+                reachableCount++;
+                totalLatency += latency;
+                maxLatency = Math.max(maxLatency, latency);
+            }
+        }
+
+        ProbeStatistics copy() {
+            ProbeStatistics copy = new ProbeStatistics();
+            copy.count = count;
+            copy.reachableCount = reachableCount;
+            copy.totalLatency = totalLatency;
+            copy.maxLatency = maxLatency;
+            return copy;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getReachableCount() {
+            return reachableCount;
+        }
+
+        /**
+         * Return the average latency of the successful probes in milliseconds.
+         */
+        public double getAverageLatency() {
+            return reachableCount > 0 ? totalLatency / reachableCount : 0;
+        }
+
+        public double getMaxLatency() {
+            return maxLatency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d probes, %d reachable, latency avg %.1fms max %.1fms", count, reachableCount,
+                    getAverageLatency(), maxLatency);
+        }
+    }
+
+    private static class PingRequest {
+        final String ipAddress;
+        final int timeoutInMS;
+        final CompletableFuture<Double> result = new CompletableFuture<>();
+
+        PingRequest(String ipAddress, int timeoutInMS) {
+            this.ipAddress = ipAddress;
+            this.timeoutInMS = timeoutInMS;
+        }
+    }
+}
@@ -10,7 +10,6 @@ package org.openhab.binding.network.internal.discovery;
 
 import static org.openhab.binding.network.NetworkBindingConstants.*;
 
-import java.net.UnknownHostException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,7 +24,6 @@ import org.eclipse.smarthome.config.discovery.DiscoveryResultBuilder;
 import org.eclipse.smarthome.config.discovery.DiscoveryService;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.openhab.binding.network.internal.NetworkBindingConfiguration;
-import org.openhab.binding.network.internal.PresenceDetection;
 import org.openhab.binding.network.internal.PresenceDetectionListener;
 import org.openhab.binding.network.internal.PresenceDetectionValue;
 import org.openhab.binding.network.internal.utils.NetworkUtils;
@@ -41,31 +39,42 @@ import com.google.common.collect.Sets;
 /**
  * The {@link NetworkDiscoveryService} is responsible for discovering devices on
  * the current Network. It uses every Network Interface which is connected to a network.
- * It tries common TCP ports to connect to, ICMP pings and ARP pings.
+ * It tries common TCP ports to connect to and ICMP pings, all addresses are swept at once by
+ * a {@link NetworkSweep}. Devices are reported as soon as they respond.
  *
  * @author David Graeff - Rewritten
  * @author Marc Mettke - Initial contribution
  */
 @Component(service = DiscoveryService.class, immediate = true, configurationPid = "discovery.network")
-public class NetworkDiscoveryService extends AbstractDiscoveryService implements PresenceDetectionListener {
+public class NetworkDiscoveryService extends AbstractDiscoveryService
+        implements PresenceDetectionListener, NetworkSweepListener {
     static final int PING_TIMEOUT_IN_MS = 500;
-    static final int MAXIMUM_IPS_PER_INTERFACE = 255;
+    static final int MAXIMUM_IPS_PER_INTERFACE = 1024;
     private static final long DISCOVERY_RESULT_TTL = TimeUnit.MINUTES.toSeconds(10);
     private final Logger logger = LoggerFactory.getLogger(NetworkDiscoveryService.class);
 
     // TCP port 548 (Apple Filing Protocol (AFP))
     // TCP port 554 (Windows share / Linux samba)
     // TCP port 1025 (Xbox / MS-RPC)
-    private Set<Integer> tcp_service_ports = Sets.newHashSet(80, 548, 554, 1025);
-    private Integer scannedIPcount;
+    private static Set<Integer> tcp_service_ports = Sets.newHashSet(80, 548, 554, 1025);
     private ExecutorService executorService = null;
+    private NetworkSweep sweep = null;
     private final NetworkBindingConfiguration configuration = new NetworkBindingConfiguration();
     NetworkUtils networkUtils = new NetworkUtils();
 
     public NetworkDiscoveryService() {
-        super(SUPPORTED_THING_TYPES_UIDS, (int) Math.round(
-                new NetworkUtils().getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE).size() * (PING_TIMEOUT_IN_MS / 1000.0)),
-                false);
+        super(SUPPORTED_THING_TYPES_UIDS,
+                estimateScanTimeout(new NetworkUtils().getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE).size()), false);
+    }
+
+    /**
+     * Return the scan timeout in seconds for the default packet rate.
+     */
+    private static int estimateScanTimeout(int ipCount) {
+        NetworkSweep estimate = new NetworkSweep(null);
+        estimate.setServicePorts(tcp_service_ports);
+        estimate.setTimeout(PING_TIMEOUT_IN_MS);
+        return (int) TimeUnit.MILLISECONDS.toSeconds(estimate.estimateDuration(ipCount)) + 1;
     }
 
     @Override
@@ -109,10 +118,10 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Starts the DiscoveryThread for each IP on each interface on the network
+     * Sweeps all IPs on each interface on the network
      */
     @Override
-    protected void startScan() {
+    protected synchronized void startScan() {
         if (executorService != null) {
             return;
         }
@@ -120,37 +129,32 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
         logger.trace("Starting Network Device Discovery");
 
         final Set<String> networkIPs = networkUtils.getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE);
-        executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
-        scannedIPcount = 0;
-
-        for (String ip : networkIPs) {
-            final PresenceDetection s = new PresenceDetection(this, 2000);
-            try {
-                s.setHostname(ip);
-            } catch (UnknownHostException unknownHostException) {
-                logger.trace("Skip IP that cannot be converted to a InetAddress", unknownHostException);
-                continue;
-            }
-            s.setIOSDevice(true);
-            s.setUseDhcpSniffing(false);
-            s.setTimeout(PING_TIMEOUT_IN_MS);
-            // Ping devices
-            s.setUseIcmpPing(true);
-            s.setUseArpPing(true, configuration.arpPingToolPath);
-            // TCP devices
-            s.setServicePorts(tcp_service_ports);
-
-            executorService.execute(() -> {
-                Thread.currentThread().setName("Discovery thread " + ip);
-                s.performPresenceDetection(true);
-                synchronized (scannedIPcount) {
-                    scannedIPcount += 1;
-                    if (scannedIPcount == networkIPs.size()) {
-                        logger.trace("Scan of {} IPs successful", scannedIPcount);
-                        stopScan();
-                    }
-                }
-            });
+        final NetworkSweep s = new NetworkSweep(this);
+        s.networkUtils = networkUtils;
+        s.setTimeout(PING_TIMEOUT_IN_MS);
+        // Ping devices
+        s.setUseIcmpPing(true);
+        // TCP devices
+        s.setServicePorts(tcp_service_ports);
+        s.setMaxInFlight(configuration.maxInFlightProbes.intValue());
+        s.setPacketsPerSecond(configuration.packetsPerSecond.intValue());
+        sweep = s;
+
+        executorService = Executors.newSingleThreadExecutor(r -> new Thread(r, "Discovery thread"));
+        executorService.execute(() -> {
+            long start = System.currentTimeMillis();
+            s.run(networkIPs);
+            logger.trace("Scan of {} IPs finished in {} ms", networkIPs.size(), System.currentTimeMillis() - start);
+            stopScan(s);
+        });
+    }
+
+    /**
+     * Stops the scan of the given sweep, unless it has been stopped already and a new scan has been started meanwhile.
+     */
+    private synchronized void stopScan(NetworkSweep finishedSweep) {
+        if (sweep == finishedSweep) {
+            stopScan();
         }
     }
 
@@ -161,11 +165,8 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
             return;
         }
 
-        try {
-            executorService.awaitTermination(PING_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt(); // Reset interrupt flag
-        }
+        sweep.cancel();
+        sweep = null;
         executorService.shutdown();
         executorService = null;
     }
@@ -176,11 +177,13 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
+     * Submit newly discovered devices. This method is called by the {@link NetworkSweep} started in
+     * {@link startScan}.
      *
      * @param ip The device IP
      * @param tcpPort The TCP port
      */
+    @Override
     public void newServiceDevice(String ip, int tcpPort) {
         logger.trace("Found reachable service for device with IP address {} on port {}", ip, tcpPort);
 
@@ -219,10 +222,12 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
+     * Submit newly discovered devices. This method is called by the {@link NetworkSweep} started in
+     * {@link startScan}.
      *
      * @param ip The device IP
      */
+    @Override
     public void newPingDevice(String ip) {
         logger.trace("Found pingable network device with IP address {}", ip);
 
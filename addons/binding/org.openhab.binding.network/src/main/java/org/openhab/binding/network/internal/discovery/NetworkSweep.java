@@ -0,0 +1,471 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.discovery;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.binding.network.internal.PresenceProbeEngine;
+import org.openhab.binding.network.internal.neighbour.NeighbourTableService;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link NetworkSweep} probes many addresses at once, without a thread per address:
+ * - TCP connections are opened non-blocking and are all watched by a single NIO selector,
+ * - ICMP pings are sent in batches with a single fping process, if fping is available,
+ * otherwise by a few worker threads of the {@link PresenceProbeEngine},
+ * - the kernel neighbour table is read before and after the sweep. Every address of the sweep which got resolved
+ * or changed its hardware address in the meantime belongs to a device, even if it did not respond to pings and
+ * connection attempts.
+ *
+ * The number of probes in flight and the number of packets per second are limited.
+ * Devices are reported to the {@link NetworkSweepListener} as soon as they respond.
+ *
+ * @author agent - Initial contribution
+ */
+public class NetworkSweep {
+    private static final int ICMP_BATCH_SIZE = 256;
+    private static final int MAX_ICMP_WORKERS = 8;
+
+    private final Logger logger = LoggerFactory.getLogger(NetworkSweep.class);
+    private final NetworkSweepListener listener;
+    NetworkUtils networkUtils = new NetworkUtils();
+
+    private Set<Integer> tcpPorts = Collections.emptySet();
+    private boolean useIcmpPing = true;
+    private int timeoutInMS = 500;
+    private int maxInFlight = 256;
+    private int packetsPerSecond = 1000;
+
+    private volatile boolean cancelled;
+    private volatile Selector selector;
+
+    public NetworkSweep(NetworkSweepListener listener) {
+        this.listener = listener;
+    }
+
+    public void setServicePorts(Set<Integer> ports) {
+        this.tcpPorts = ports;
+    }
+
+    public void setUseIcmpPing(boolean useIcmpPing) {
+        this.useIcmpPing = useIcmpPing;
+    }
+
+    public void setTimeout(int timeoutInMS) {
+        this.timeoutInMS = timeoutInMS;
+    }
+
+    /**
+     * Set the maximum number of TCP connection attempts in flight.
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /**
+     * Set the maximum number of probe packets per second for TCP connection attempts and pings.
+     */
+    public void setPacketsPerSecond(int packetsPerSecond) {
+        this.packetsPerSecond = Math.max(1, packetsPerSecond);
+    }
+
+    /**
+     * Return an estimate of the duration of a sweep in milliseconds.
+     *
+     * @param ipCount The number of addresses
+     */
+    public long estimateDuration(int ipCount) {
+        long packets = (long) ipCount * (tcpPorts.size() + (useIcmpPing ? 1 : 0));
+        long duration = packets * 1000 / packetsPerSecond + timeoutInMS;
+        if (!useIcmpPing) {
+            return duration;
+        }
+        long icmpDuration;
+        if (networkUtils.isFpingAvailable()) {
+            // fping paces the pings of a batch itself and waits for the timeout after each batch
+            long batches = (ipCount + ICMP_BATCH_SIZE - 1) / ICMP_BATCH_SIZE;
+            icmpDuration = (long) ipCount * getFpingInterval() + batches * timeoutInMS;
+        } else {
+            // Each worker waits for the timeout of every address which does not respond
+            int workers = Math.min(MAX_ICMP_WORKERS, Math.min(maxInFlight, Math.max(1, ipCount)));
+            icmpDuration = (long) (ipCount + workers - 1) / workers * timeoutInMS;
+        }
+        return Math.max(duration, icmpDuration);
+    }
+
+    /**
+     * Return the interval in milliseconds between two pings of fping, which does not exceed the packet rate.
+     */
+    int getFpingInterval() {
+        return Math.max(1, (1000 + packetsPerSecond - 1) / packetsPerSecond);
+    }
+
+    /**
+     * Cancels a running sweep. Probes in flight are abandoned.
+     */
+    public void cancel() {
+        cancelled = true;
+        Selector s = selector;
+        if (s != null) {
+            s.wakeup();
+        }
+    }
+
+    /**
+     * Probes all given addresses. Blocks until all probes are finished or the sweep got cancelled.
+     *
+     * @param ipAddresses The IPv4 or IPv6 addresses
+     */
+    public void run(Collection<String> ipAddresses) {
+        cancelled = false;
+        Map<String, String> neighboursBefore = readNeighbourTable();
+        RateLimiter rateLimiter = new RateLimiter(packetsPerSecond);
+        Set<String> respondingIPs = Collections.synchronizedSet(new HashSet<>());
+
+        CountDownLatch icmpWorkers = useIcmpPing ? startPing(ipAddresses, rateLimiter, respondingIPs)
+                : new CountDownLatch(0);
+
+        if (!tcpPorts.isEmpty()) {
+            try (Selector s = Selector.open()) {
+                selector = s;
+                connect(ipAddresses, s, rateLimiter);
+            } catch (IOException e) {
+                logger.warn("Could not perform the TCP sweep", e);
+            } finally {
+                selector = null;
+            }
+        }
+
+        try {
+            while (!cancelled && !icmpWorkers.await(100, TimeUnit.MILLISECONDS)) {
+                // wait for the ping workers
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Reset interrupt flag
+            cancelled = true;
+        }
+
+        if (!cancelled && neighboursBefore != null) {
+            checkNeighbourTable(ipAddresses, respondingIPs, neighboursBefore);
+        }
+    }
+
+    /**
+     * Opens non-blocking TCP connections to all addresses and ports and waits with a single selector
+     * for them to be established.
+     */
+    private void connect(Collection<String> ipAddresses, Selector s, RateLimiter rateLimiter) throws IOException {
+        Iterator<String> ips = ipAddresses.iterator();
+        Iterator<Integer> ports = Collections.emptyIterator();
+        String ip = null;
+        // Pending connections in the order they were started, which is the order they time out
+        Deque<SelectionKey> pending = new ArrayDeque<>();
+
+        while (!cancelled) {
+            // Start new connection attempts as long as the limits allow
+            long waitInNanos = 0;
+            while (pending.size() < maxInFlight && (ports.hasNext() || ips.hasNext())) {
+                waitInNanos = rateLimiter.tryAcquire();
+                if (waitInNanos > 0) {
+                    break;
+                }
+                if (!ports.hasNext()) {
+                    ip = ips.next();
+                    ports = tcpPorts.iterator();
+                }
+                startConnect(ip, ports.next(), s, pending);
+            }
+
+            if (pending.isEmpty()) {
+                if (!ports.hasNext() && !ips.hasNext()) {
+                    return;
+                }
+                // Only waiting for the rate limiter
+                s.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitInNanos)));
+                continue;
+            }
+
+            long now = System.nanoTime();
+            long timeout = TimeUnit.NANOSECONDS.toMillis(((Probe) pending.getFirst().attachment()).deadline - now);
+            if (waitInNanos > 0) {
+                timeout = Math.min(timeout, TimeUnit.NANOSECONDS.toMillis(waitInNanos));
+            }
+            s.select(Math.max(1, timeout));
+
+            for (Iterator<SelectionKey> it = s.selectedKeys().iterator(); it.hasNext();) {
+                SelectionKey key = it.next();
+                it.remove();
+                finishConnect(key);
+                pending.remove(key);
+            }
+
+            // Close timed out connection attempts
+            now = System.nanoTime();
+            while (!pending.isEmpty() && ((Probe) pending.getFirst().attachment()).deadline <= now) {
+                closeQuietly(pending.removeFirst());
+            }
+        }
+
+        for (SelectionKey key : pending) {
+            closeQuietly(key);
+        }
+    }
+
+    private void startConnect(String ip, int port, Selector s, Deque<SelectionKey> pending) {
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            Probe probe = new Probe(ip, port, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMS));
+            if (channel.connect(new InetSocketAddress(InetAddress.getByName(ip), port))) {
+                // Connections to the local host may be established immediately
+                channel.close();
+                listener.newServiceDevice(ip, port);
+                return;
+            }
+            pending.addLast(channel.register(s, SelectionKey.OP_CONNECT, probe));
+        } catch (IOException e) {
+            // Unreachable networks for example are reported immediately
+            logger.trace("Connection attempt to {}:{} failed", ip, port, e);
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private void finishConnect(SelectionKey key) {
+        Probe probe = (Probe) key.attachment();
+        try {
+            if (((SocketChannel) key.channel()).finishConnect()) {
+                listener.newServiceDevice(probe.ip, probe.port);
+            }
+        } catch (IOException e) {
+            // Connection refused, host unreachable and so on
+        }
+        closeQuietly(key);
+    }
+
+    private void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Starts pinging all addresses on the executor of the {@link PresenceProbeEngine}.
+     *
+     * @return A latch which is counted down by each ping worker when it is done.
+     */
+    private CountDownLatch startPing(Collection<String> ipAddresses, RateLimiter rateLimiter,
+            Set<String> respondingIPs) {
+        ExecutorService executor = PresenceProbeEngine.getInstance().getExecutor();
+        Queue<String> queue = new ConcurrentLinkedQueue<>(ipAddresses);
+
+        if (networkUtils.isFpingAvailable()) {
+            CountDownLatch done = new CountDownLatch(1);
+            executor.execute(() -> {
+                try {
+                    batchPing(queue, rateLimiter, respondingIPs);
+                } finally {
+                    done.countDown();
+                }
+            });
+            return done;
+        }
+
+        IpPingMethodEnum pingMethod = networkUtils.determinePingMethod();
+        int workers = Math.min(MAX_ICMP_WORKERS, Math.min(maxInFlight, Math.max(1, ipAddresses.size())));
+        CountDownLatch done = new CountDownLatch(workers);
+        for (int i = 0; i < workers; ++i) {
+            executor.execute(() -> {
+                try {
+                    ping(queue, pingMethod, rateLimiter, respondingIPs);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        return done;
+    }
+
+    private void batchPing(Queue<String> queue, RateLimiter rateLimiter, Set<String> respondingIPs) {
+        List<String> batch = new ArrayList<>(ICMP_BATCH_SIZE);
+        while (!cancelled && !queue.isEmpty()) {
+            batch.clear();
+            String ip;
+            while (batch.size() < ICMP_BATCH_SIZE && (ip = queue.poll()) != null) {
+                batch.add(ip);
+            }
+            try {
+                rateLimiter.acquire(batch.size());
+                Map<String, Double> reachable = networkUtils.nativeBatchPing(batch, timeoutInMS, getFpingInterval());
+                for (String reachableIP : reachable.keySet()) {
+                    respondingIPs.add(reachableIP);
+                    listener.newPingDevice(reachableIP);
+                }
+            } catch (IOException e) {
+                logger.debug("Failed to execute a batched ping", e);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Reset interrupt flag
+                return;
+            }
+        }
+    }
+
+    private void ping(Queue<String> queue, IpPingMethodEnum pingMethod, RateLimiter rateLimiter,
+            Set<String> respondingIPs) {
+        String ip;
+        while (!cancelled && (ip = queue.poll()) != null) {
+            try {
+                rateLimiter.acquire(1);
+                boolean reachable;
+                if (pingMethod == IpPingMethodEnum.JAVA_PING) {
+                    reachable = InetAddress.getByName(ip).isReachable(timeoutInMS);
+                } else {
+                    reachable = networkUtils.nativePing(pingMethod, ip, timeoutInMS);
+                }
+                if (reachable) {
+                    respondingIPs.add(ip);
+                    listener.newPingDevice(ip);
+                }
+            } catch (IOException e) {
+                logger.trace("Failed to ping {}", ip, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Reset interrupt flag
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads the kernel neighbour table.
+     *
+     * @return The resolved entries or null if the neighbour table is not available
+     */
+    private Map<String, String> readNeighbourTable() {
+        if (!NeighbourTableService.isAvailable()) {
+            return null;
+        }
+        try {
+            return NeighbourTableService.readNeighbourTable();
+        } catch (IOException e) {
+            logger.debug("Failed to read the neighbour table", e);
+            return null;
+        }
+    }
+
+    /**
+     * The probes of the sweep made the kernel resolve the hardware addresses of all devices on the local network.
+     * Report the devices which did not respond to pings, but got resolved or changed their hardware address during
+     * the sweep. Entries which were resolved already before are not reported, the kernel keeps them for a while
+     * even if the device is gone.
+     */
+    private void checkNeighbourTable(Collection<String> ipAddresses, Set<String> respondingIPs,
+            Map<String, String> neighboursBefore) {
+        Map<String, String> entries = readNeighbourTable();
+        if (entries == null) {
+            return;
+        }
+        Set<String> sweptIPs = ipAddresses instanceof Set ? (Set<String>) ipAddresses : new HashSet<>(ipAddresses);
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            String ip = entry.getKey();
+            if (sweptIPs.contains(ip) && !respondingIPs.contains(ip)
+                    && !entry.getValue().equals(neighboursBefore.get(ip))) {
+                listener.newPingDevice(ip);
+            }
+        }
+    }
+
+    /**
+     * A pending TCP connection attempt.
+     */
+    private static class Probe {
+        final String ip;
+        final int port;
+        final long deadline;
+
+        Probe(String ip, int port, long deadline) {
+            this.ip = ip;
+            this.port = port;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Spreads the probe packets of all threads of a sweep evenly over time.
+     */
+    private static class RateLimiter {
+        private final long intervalInNanos;
+        private long next = System.nanoTime();
+
+        RateLimiter(int packetsPerSecond) {
+            intervalInNanos = TimeUnit.SECONDS.toNanos(1) / packetsPerSecond;
+        }
+
+        /**
+         * Take one permit if available.
+         *
+         * @return 0 if the permit was taken, otherwise the time in nanoseconds until it is available
+         */
+        synchronized long tryAcquire() {
+            long now = System.nanoTime();
+            if (next > now) {
+                return next - now;
+            }
+            // Do not accumulate permits while idle
+            next = Math.max(next, now - intervalInNanos) + intervalInNanos;
+            return 0;
+        }
+
+        /**
+         * Take the given number of permits, waits until they are available.
+         */
+        void acquire(int permits) throws InterruptedException {
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long start = Math.max(next, now);
+                next = start + permits * intervalInNanos;
+                wait = start - now;
+            }
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+    }
+}
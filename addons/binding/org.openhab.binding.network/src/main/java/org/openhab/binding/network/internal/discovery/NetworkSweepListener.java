@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.discovery;
+
+/**
+ * Implement this interface to be notified of the devices a {@link NetworkSweep} found.
+ * The methods are called as soon as a device responded, while the sweep is still running.
+ *
+ * @author agent - Initial contribution
+ */
+public interface NetworkSweepListener {
+    /**
+     * The device responded to an ICMP ping or was resolved by ARP.
+     *
+     * @param ip The device IP
+     */
+    void newPingDevice(String ip);
+
+    /**
+     * The device accepted a TCP connection.
+     *
+     * @param ip The device IP
+     * @param tcpPort The TCP port
+     */
+    void newServiceDevice(String ip, int tcpPort);
+}
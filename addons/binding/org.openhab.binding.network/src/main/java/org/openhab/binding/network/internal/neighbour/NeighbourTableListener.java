@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.neighbour;
+
+/**
+ * Implement this interface to be notified of changes of the kernel neighbour table
+ * for a registered IP address. Register to {@see NeighbourTableService}.
+ *
+ * @author agent - Initial contribution
+ */
+public interface NeighbourTableListener {
+    /**
+     * The neighbour table got a new resolved entry for the address or the hardware address of the
+     * entry changed. The device must have been communicating recently.
+     *
+     * @param ipAddress The IP address.
+     */
+    void neighbourSeen(String ipAddress);
+
+    /**
+     * The entry of the address was removed from the neighbour table or could not be resolved anymore.
+     *
+     * @param ipAddress The IP address.
+     */
+    void neighbourLost(String ipAddress);
+}
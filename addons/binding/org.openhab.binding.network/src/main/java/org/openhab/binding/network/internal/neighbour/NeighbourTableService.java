@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.neighbour;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A singleton. NeighbourTableListener objects can register and unregister.
+ * If the first one is registered, the kernel neighbour table (/proc/net/arp) is read periodically,
+ * once for all listeners. If the last NeighbourTableListener is removed, reading is stopped.
+ *
+ * The table is diffed against the previous read. A listener is notified if an entry for its address
+ * appears, gets resolved or changes its hardware address, and if the entry disappears or cannot be
+ * resolved anymore. Unchanged entries do not tell if a device is still present, because the kernel keeps
+ * resolved entries of silent devices, therefore they do not cause notifications.
+ *
+ * @author agent - Initial contribution
+ */
+public class NeighbourTableService {
+    static final long REFRESH_INTERVAL_IN_MS = 5000;
+    private static final int ATF_COM = 0x02; // Completed entry, the hardware address is valid
+    private static final String EMPTY_HW_ADDRESS = "00:00:00:00:00:00";
+
+    static File neighbourTable = new File("/proc/net/arp");
+    static Map<String, NeighbourTableListener> registeredListeners = new TreeMap<>();
+    static Logger logger = LoggerFactory.getLogger(NeighbourTableService.class);
+
+    private static ScheduledExecutorService scheduler;
+    private static ScheduledFuture<?> refreshJob;
+    // IP address -> hardware address of the resolved entries of the last read, null before the first read
+    static Map<String, String> lastEntries;
+
+    /**
+     * Return true if the neighbour table can be read on this system.
+     */
+    public static boolean isAvailable() {
+        return neighbourTable.canRead();
+    }
+
+    /**
+     * Register a listener for the given address. Starts reading the neighbour table
+     * if this is the first listener.
+     *
+     * @return Return false if the neighbour table is not available on this system.
+     */
+    public static synchronized boolean register(String hostAddress, NeighbourTableListener listener) {
+        if (!isAvailable()) {
+            return false;
+        }
+        synchronized (registeredListeners) {
+            registeredListeners.put(hostAddress, listener);
+        }
+        if (refreshJob == null) {
+            if (scheduler == null) {
+                scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "networkNeighbourTable");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            refreshJob = scheduler.scheduleWithFixedDelay(NeighbourTableService::refresh, REFRESH_INTERVAL_IN_MS,
+                    REFRESH_INTERVAL_IN_MS, TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    public static synchronized void unregister(String hostAddress) {
+        synchronized (registeredListeners) {
+            registeredListeners.remove(hostAddress);
+            if (!registeredListeners.isEmpty()) {
+                return;
+            }
+        }
+
+        if (refreshJob != null) {
+            refreshJob.cancel(false);
+        }
+        refreshJob = null;
+        lastEntries = null;
+    }
+
+    public static boolean isRunning() {
+        return refreshJob != null;
+    }
+
+    /**
+     * Reads the neighbour table.
+     *
+     * @return The IP addresses of all resolved entries mapped to their hardware address.
+     * @throws IOException The neighbour table could not be read, for instance because this is not a Linux system
+     */
+    public static Map<String, String> readNeighbourTable() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(neighbourTable))) {
+            return parseNeighbourTable(reader);
+        }
+    }
+
+    /**
+     * Reads the neighbour table and notifies the listeners of changed entries.
+     */
+    static void refresh() {
+        Map<String, String> entries;
+        try {
+            entries = readNeighbourTable();
+        } catch (IOException e) {
+            logger.debug("Failed to read the neighbour table {}", neighbourTable, e);
+            return;
+        }
+
+        Map<String, String> previous = lastEntries;
+        lastEntries = entries;
+        // The first read is the reference only, a resolved entry alone does not prove a recent presence
+        if (previous == null) {
+            return;
+        }
+
+        Map<String, NeighbourTableListener> listeners;
+        synchronized (registeredListeners) {
+            listeners = new HashMap<>(registeredListeners);
+        }
+        for (Map.Entry<String, NeighbourTableListener> entry : listeners.entrySet()) {
+            String hwAddress = entries.get(entry.getKey());
+            String previousHwAddress = previous.get(entry.getKey());
+            if (hwAddress != null && !hwAddress.equals(previousHwAddress)) {
+                logger.trace("Neighbour table entry for {} resolved to {}", entry.getKey(), hwAddress);
+                entry.getValue().neighbourSeen(entry.getKey());
+            } else if (hwAddress == null && previousHwAddress != null) {
+                logger.trace("Neighbour table entry for {} is gone", entry.getKey());
+                entry.getValue().neighbourLost(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Parses the content of /proc/net/arp, which looks like:
+     *
+     * <pre>
+     * IP address       HW type     Flags       HW address            Mask     Device
+     * 192.168.1.1      0x1         0x2         00:11:22:33:44:55     *        eth0
+     * </pre>
+     *
+     * @return The IP addresses of all resolved entries mapped to their hardware address.
+     */
+    static Map<String, String> parseNeighbourTable(BufferedReader reader) throws IOException {
+        Map<String, String> entries = new HashMap<>();
+        // Skip the header
+        String line = reader.readLine();
+        while ((line = reader.readLine()) != null) {
+            String[] columns = line.trim().split("\\s+");
+            if (columns.length < 4) {
+                continue;
+            }
+            int flags;
+            try {
+                flags = Integer.decode(columns[2]);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if ((flags & ATF_COM) == 0 || EMPTY_HW_ADDRESS.equals(columns[3])) {
+                continue;
+            }
+            entries.put(columns[0], columns[3]);
+        }
+        return entries;
+    }
+}
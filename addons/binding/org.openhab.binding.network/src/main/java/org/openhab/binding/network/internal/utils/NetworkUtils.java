@@ -9,6 +9,7 @@
 package org.openhab.binding.network.internal.utils;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.ConnectException;
@@ -24,10 +25,15 @@ import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
@@ -41,6 +47,9 @@ import org.eclipse.smarthome.io.net.exec.ExecUtil;
  * @author David Graeff <david.graeff@web.de>
  */
 public class NetworkUtils {
+    /** Whether fping is available, shared by all instances because it is costly to find out */
+    private static volatile Boolean fpingAvailable;
+
     /**
      * Gets every IPv4 Address on each Interface except the loopback
      * The Address format is ip/subnet
@@ -282,6 +291,106 @@ public class NetworkUtils {
         }
     }
 
+    /**
+     * Return true if the fping utility is available. In contrast to the system ping, fping
+     * can ping many hosts with a single process. The utility is only looked up on the first call.
+     */
+    public boolean isFpingAvailable() {
+        Boolean available = fpingAvailable;
+        if (available == null) {
+            if (SystemUtils.IS_OS_WINDOWS) {
+                available = false;
+            } else {
+                String result = ExecUtil.executeCommandLineAndWaitResponse("fping -v", 100);
+                available = StringUtils.isNotBlank(result) && result.contains("fping");
+            }
+            fpingAvailable = available;
+        }
+        return available;
+    }
+
+    /**
+     * Use the fping utility to detect the presence of many devices with a single process.
+     *
+     * @param ipAddresses The IPv4 or IPv6 addresses. Must not be null.
+     * @param timeoutInMS Timeout in milliseconds for each address.
+     * @return The addresses of the devices which responded, mapped to their latency in milliseconds.
+     * @throws IOException The fping command could probably not be found
+     */
+    public Map<String, Double> nativeBatchPing(Collection<String> ipAddresses, int timeoutInMS)
+            throws IOException, InterruptedException {
+        return nativeBatchPing(ipAddresses, timeoutInMS, 0);
+    }
+
+    /**
+     * Use the fping utility to detect the presence of many devices with a single process.
+     *
+     * @param ipAddresses The IPv4 or IPv6 addresses. Must not be null.
+     * @param timeoutInMS Timeout in milliseconds for each address.
+     * @param intervalInMS Interval in milliseconds between two ping packets to any address, 0 for the fping default.
+     * @return The addresses of the devices which responded, mapped to their latency in milliseconds.
+     * @throws IOException The fping command could probably not be found or rejected the options
+     */
+    public Map<String, Double> nativeBatchPing(Collection<String> ipAddresses, int timeoutInMS, int intervalInMS)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add("fping");
+        command.add("-a"); // only print reachable hosts
+        command.add("-e"); // with their latency
+        command.add("-r");
+        command.add("0");
+        command.add("-t");
+        command.add(String.valueOf(timeoutInMS));
+        if (intervalInMS > 0) {
+            command.add("-i");
+            command.add(String.valueOf(intervalInMS));
+        }
+        command.addAll(ipAddresses);
+
+        // Unreachable hosts are reported on stderr, which we are not interested in
+        Process proc = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.to(new File("/dev/null")))
+                .start();
+        Map<String, Double> result;
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(proc.getInputStream()))) {
+            result = parseFpingOutput(r);
+        }
+        // The return code is 0 if all hosts responded and 1 if some didn't, the output is all we need.
+        int exitCode = proc.waitFor();
+        if (exitCode > 1) {
+            throw new IOException("fping failed with exit code " + exitCode);
+        }
+        return result;
+    }
+
+    /**
+     * Parses the output of "fping -a -e", which is one line per reachable host like "192.168.1.1 (0.35 ms)".
+     *
+     * @return The reachable addresses mapped to their latency in milliseconds or 0 if no latency was printed.
+     */
+    public static Map<String, Double> parseFpingOutput(BufferedReader reader) throws IOException {
+        Map<String, Double> result = new HashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            int end = line.indexOf(' ');
+            String address = end > 0 ? line.substring(0, end) : line;
+            double latency = 0;
+            int open = line.indexOf('(');
+            int close = line.indexOf(" ms)", open);
+            if (open > 0 && close > open) {
+                try {
+                    latency = Double.parseDouble(line.substring(open + 1, close).trim());
+                } catch (NumberFormatException ignored) {
+                }
+            }
+            result.put(address, latency);
+        }
+        return result;
+    }
+
     public enum ArpPingUtilEnum {
         UNKNOWN_TOOL,
         IPUTILS_ARPING,
@@ -16,6 +16,7 @@ import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
 import java.net.UnknownHostException;
+import java.util.Collections;
 import java.util.Hashtable;
 import java.util.List;
 
@@ -353,6 +354,18 @@ public class SysteminfoOSGiTest extends JavaOSGiTest {
         assertItemState(acceptedItemType, DEFAULT_TEST_ITEM_NAME, DEFAULT_CHANNEL_TEST_PRIORITY, mockedCpuLoadValue);
     }
 
+    @Test
+    public void assertSnapshotIsTakenForLinkedChannels() {
+        String channnelID = SysteminfoBindingConstants.CHANNEL_CPU_LOAD;
+        String acceptedItemType = "Number";
+
+        initializeThingWithChannel(channnelID, acceptedItemType);
+        waitForAssert(() -> {
+            verify(mockedSystemInfo, atLeastOnce()).takeSnapshot(eq(Collections.singleton(channnelID)),
+                    eq(Collections.<Integer> emptySet()));
+        });
+    }
+
     @Test
     public void assertChannelCpuLoad1IsUpdated() {
         String channnelID = SysteminfoBindingConstants.CHANNEL_CPU_LOAD_1;
@@ -11,6 +11,7 @@ package org.openhab.binding.systeminfo.handler;
 import static org.openhab.binding.systeminfo.SysteminfoBindingConstants.*;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -235,17 +236,48 @@ public class SysteminfoHandler extends BaseThingHandler {
 
     private void publishData(Set<ChannelUID> channels) {
         if (channels != null) {
+            Set<ChannelUID> linkedChannels = new HashSet<ChannelUID>();
             Iterator<ChannelUID> iter = channels.iterator();
             while (iter.hasNext()) {
                 ChannelUID channeUID = iter.next();
                 if (isLinked(channeUID.getId())) {
-                    publishDataForChannel(channeUID);
+                    linkedChannels.add(channeUID);
                 }
             }
+            if (linkedChannels.isEmpty()) {
+                return;
+            }
+            // Sample the system once for all channels, instead of querying it again for each channel
+            takeSnapshot(linkedChannels);
+            for (ChannelUID channelUID : linkedChannels) {
+                publishState(channelUID);
+            }
         }
     }
 
     private void publishDataForChannel(ChannelUID channelUID) {
+        takeSnapshot(Collections.singleton(channelUID));
+        publishState(channelUID);
+    }
+
+    /**
+     * Samples the data of the given channels at once through {@link SysteminfoInterface#takeSnapshot(Set, Set)}.
+     *
+     * @param channels the UIDs of the channels
+     */
+    private void takeSnapshot(Set<ChannelUID> channels) {
+        Set<String> channelIDs = new HashSet<String>();
+        Set<Integer> pids = new HashSet<Integer>();
+        for (ChannelUID channelUID : channels) {
+            channelIDs.add(getChannelIDWithoutDeviceIndex(channelUID));
+            if (channelUID.getGroupId().contains(CHANNEL_GROUP_PROCESS)) {
+                pids.add(getPID(channelUID));
+            }
+        }
+        systeminfo.takeSnapshot(channelIDs, pids);
+    }
+
+    private void publishState(ChannelUID channelUID) {
         State state = getInfoForChannel(channelUID);
         String channelID = channelUID.getId();
         if (state != null) {
@@ -278,16 +310,12 @@ public class SysteminfoHandler extends BaseThingHandler {
      */
     private State getInfoForChannel(ChannelUID channelUID) {
         State state = null;
-        String channelID = channelUID.getId();
-        String channelIDWithoutGroup = channelUID.getIdWithoutGroup();
-        String channelGroupID = channelUID.getGroupId();
 
         int deviceIndex = getDeviceIndex(channelUID);
 
         // The channelGroup may contain deviceIndex. It must be deleted from the channelID, because otherwise the
         // switch will not find the correct method below.
-        // All digits are deleted from the ID
-        channelID = channelGroupID.replaceAll("\\d+", "") + "#" + channelIDWithoutGroup;
+        String channelID = getChannelIDWithoutDeviceIndex(channelUID);
 
         try {
             switch (channelID) {
@@ -451,6 +479,18 @@ public class SysteminfoHandler extends BaseThingHandler {
         return state != null ? state : UnDefType.UNDEF;
     }
 
+    /**
+     * Returns the ID of the channel without the device index, e.g. "storage#available" for a channel in the group
+     * "storage1". All digits are deleted from the group ID.
+     *
+     * @param channelUID the UID of the channel
+     * @return the ID of the channel as defined in the binding constants
+     */
+    private String getChannelIDWithoutDeviceIndex(ChannelUID channelUID) {
+        String channelGroupID = channelUID.getGroupId();
+        return channelGroupID.replaceAll("\\d+", "") + "#" + channelUID.getIdWithoutGroup();
+    }
+
     /**
      * The device index is an optional part of the channelID - the last characters of the groupID. It is used to
      * identify unique device, when more than one devices are available (e.g. local disks with names C:\, D:\, E"\ - the
@@ -8,11 +8,19 @@
  */
 package org.openhab.binding.systeminfo.internal.model;
 
+import static org.openhab.binding.systeminfo.SysteminfoBindingConstants.*;
+
 import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.StringType;
+import org.openhab.binding.systeminfo.internal.model.SysteminfoSnapshot.Source;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,6 +70,9 @@ public class OshiSysteminfo implements SysteminfoInterface {
     private PowerSource[] powerSources;
     private HWDiskStore[] drives;
 
+    // The data sampled by the last takeSnapshot() call, replaced as a whole on each call
+    private volatile SysteminfoSnapshot snapshot = SysteminfoSnapshot.EMPTY;
+
     public static final int PRECISION_AFTER_DECIMAL_SIGN = 1;
 
     /**
@@ -95,6 +106,147 @@ public class OshiSysteminfo implements SysteminfoInterface {
         drives = hal.getDiskStores();
     }
 
+    @Override
+    public void takeSnapshot(Set<String> channelIDs, Set<Integer> pids) {
+        Set<Source> sources = EnumSet.noneOf(Source.class);
+        for (String channelID : channelIDs) {
+            Source source = getSource(channelID);
+            if (source != null) {
+                sources.add(source);
+            }
+        }
+        sample(sources, pids);
+    }
+
+    /**
+     * Queries each of the data sources and processes once and publishes the values as a new snapshot.
+     */
+    private synchronized void sample(Set<Source> sources, Set<Integer> pids) {
+        Map<Integer, OSProcess> processes = new HashMap<>();
+        for (Integer pid : pids) {
+            if (pid > 0) {
+                processes.put(pid, operatingSystem.getProcess(pid));
+            }
+        }
+
+        SysteminfoSnapshot next = new SysteminfoSnapshot(snapshot, sources, processes);
+        for (Source source : sources) {
+            switch (source) {
+                case MEMORY:
+                    next.memoryTotal = memory.getTotal();
+                    next.memoryAvailable = memory.getAvailable();
+                    break;
+                case SWAP:
+                    next.swapTotal = memory.getSwapTotal();
+                    next.swapUsed = memory.getSwapUsed();
+                    break;
+                case CPU_LOAD:
+                    next.cpuLoad = cpu.getSystemCpuLoad();
+                    break;
+                case CPU_LOAD_AVERAGE:
+                    // All three values are read at once
+                    next.cpuLoadAverage = cpu.getSystemLoadAverage(3);
+                    break;
+                case CPU_UPTIME:
+                    next.cpuUptime = cpu.getSystemUptime();
+                    break;
+                case CPU_THREADS:
+                    next.cpuThreads = operatingSystem.getThreadCount();
+                    break;
+                case SENSORS:
+                    next.cpuTemperature = sensors.getCpuTemperature();
+                    next.cpuVoltage = sensors.getCpuVoltage();
+                    next.fanSpeeds = sensors.getFanSpeeds();
+                    break;
+                case STORAGE:
+                    // In the current OSHI version a new query is required for the storage data values to be updated
+                    // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
+                    next.fileStores = operatingSystem.getFileSystem().getFileStores();
+                    break;
+                case NETWORK:
+                    // In the current OSHI version a new query is required for the network data values to be updated
+                    NetworkIF[] sampledNetworks = hal.getNetworkIFs();
+                    for (NetworkIF network : sampledNetworks) {
+                        network.updateNetworkStats();
+                    }
+                    next.networks = sampledNetworks;
+                    break;
+                case BATTERY:
+                    // In the current OSHI version a new query is required for the battery data values to be updated
+                    next.powerSources = hal.getPowerSources();
+                    break;
+            }
+        }
+        snapshot = next;
+    }
+
+    /**
+     * Returns the data source of a channel, whose value changes over time.
+     *
+     * @param channelID ID of the channel without device index
+     * @return the data source or null if the value of the channel does not change
+     */
+    private Source getSource(String channelID) {
+        switch (channelID) {
+            case CHANNEL_MEMORY_AVAILABLE:
+            case CHANNEL_MEMORY_USED:
+            case CHANNEL_MEMORY_TOTAL:
+            case CHANNEL_MEMORY_AVAILABLE_PERCENT:
+            case CHANNEL_MEMORY_USED_PERCENT:
+                return Source.MEMORY;
+            case CHANNEL_SWAP_AVAILABLE:
+            case CHANNEL_SWAP_USED:
+            case CHANNEL_SWAP_TOTAL:
+            case CHANNEL_SWAP_AVAILABLE_PERCENT:
+            case CHANNEL_SWAP_USED_PERCENT:
+                return Source.SWAP;
+            case CHANNEL_CPU_LOAD:
+                return Source.CPU_LOAD;
+            case CHANNEL_CPU_LOAD_1:
+            case CHANNEL_CPU_LOAD_5:
+            case CHANNEL_CPU_LOAD_15:
+                return Source.CPU_LOAD_AVERAGE;
+            case CHANNEL_CPU_UPTIME:
+                return Source.CPU_UPTIME;
+            case CHANNEL_CPU_THREADS:
+                return Source.CPU_THREADS;
+            case CHANNEL_SENSORS_CPU_TEMPERATURE:
+            case CHANNEL_SENOSRS_CPU_VOLTAGE:
+            case CHANNEL_SENSORS_FAN_SPEED:
+                return Source.SENSORS;
+            case CHANNEL_STORAGE_AVAILABLE:
+            case CHANNEL_STORAGE_USED:
+            case CHANNEL_STORAGE_TOTAL:
+            case CHANNEL_STORAGE_AVAILABLE_PERCENT:
+            case CHANNEL_STORAGE_USED_PERCENT:
+                return Source.STORAGE;
+            case CHANNEL_NETWORK_IP:
+            case CHANNEL_NETWORK_DATA_SENT:
+            case CHANNEL_NETWORK_DATA_RECEIVED:
+            case CHANNEL_NETWORK_PACKETS_SENT:
+            case CHANNEL_NETWORK_PACKETS_RECEIVED:
+                return Source.NETWORK;
+            case CHANNEL_BATTERY_REMAINING_CAPACITY:
+            case CHANNEL_BATTERY_REMAINING_TIME:
+                return Source.BATTERY;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns the current snapshot. If the data source has not been sampled yet, for example because the channel
+     * was linked after the last snapshot, it is sampled now.
+     */
+    private SysteminfoSnapshot getSnapshot(Source source) {
+        SysteminfoSnapshot current = snapshot;
+        if (!current.contains(source)) {
+            sample(EnumSet.of(source), Collections.<Integer> emptySet());
+            current = snapshot;
+        }
+        return current;
+    }
+
     @SuppressWarnings("null")
     private Object getDevice(Object[] devices, int index) throws DeviceNotFoundException {
         if ((devices != null) && (devices.length <= index)) {
@@ -104,7 +256,12 @@ public class OshiSysteminfo implements SysteminfoInterface {
     }
 
     private OSProcess getProcess(int pid) throws DeviceNotFoundException {
-        OSProcess process = operatingSystem.getProcess(pid);
+        SysteminfoSnapshot current = snapshot;
+        if (!current.containsProcess(pid)) {
+            sample(Collections.<Source> emptySet(), Collections.singleton(pid));
+            current = snapshot;
+        }
+        OSProcess process = current.getProcess(pid);
         if (process == null) {
             throw new DeviceNotFoundException("Error while getting information for process with PID " + pid);
         }
@@ -164,29 +321,30 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getCpuLoad() {
-        double processorLoad = cpu.getSystemCpuLoad();
+        double processorLoad = getSnapshot(Source.CPU_LOAD).cpuLoad;
         BigDecimal processorLoadPercent = getPercentsValue(processorLoad);
         return new DecimalType(processorLoadPercent);
     }
 
     @Override
     public DecimalType getMemoryTotal() {
-        long totalMemory = memory.getTotal();
+        long totalMemory = getSnapshot(Source.MEMORY).memoryTotal;
         totalMemory = getSizeInMB(totalMemory);
         return new DecimalType(totalMemory);
     }
 
     @Override
     public DecimalType getMemoryAvailable() {
-        long availableMemory = memory.getAvailable();
+        long availableMemory = getSnapshot(Source.MEMORY).memoryAvailable;
         availableMemory = getSizeInMB(availableMemory);
         return new DecimalType(availableMemory);
     }
 
     @Override
     public DecimalType getMemoryUsed() {
-        long totalMemory = memory.getTotal();
-        long availableMemory = memory.getAvailable();
+        SysteminfoSnapshot current = getSnapshot(Source.MEMORY);
+        long totalMemory = current.memoryTotal;
+        long availableMemory = current.memoryAvailable;
         long usedMemory = totalMemory - availableMemory;
         usedMemory = getSizeInMB(usedMemory);
         return new DecimalType(usedMemory);
@@ -194,10 +352,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageTotal(int index) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the storage data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        fileStores = operatingSystem.getFileSystem().getFileStores();
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
+        OSFileStore fileStore = (OSFileStore) getDevice(getSnapshot(Source.STORAGE).fileStores, index);
         long totalSpace = fileStore.getTotalSpace();
         totalSpace = getSizeInMB(totalSpace);
         return new DecimalType(totalSpace);
@@ -205,10 +360,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageAvailable(int index) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the storage data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        fileStores = operatingSystem.getFileSystem().getFileStores();
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
+        OSFileStore fileStore = (OSFileStore) getDevice(getSnapshot(Source.STORAGE).fileStores, index);
         long freeSpace = fileStore.getUsableSpace();
         freeSpace = getSizeInMB(freeSpace);
         return new DecimalType(freeSpace);
@@ -216,10 +368,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageUsed(int index) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the storage data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        fileStores = operatingSystem.getFileSystem().getFileStores();
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
+        OSFileStore fileStore = (OSFileStore) getDevice(getSnapshot(Source.STORAGE).fileStores, index);
         long totalSpace = fileStore.getTotalSpace();
         long freeSpace = fileStore.getUsableSpace();
         long usedSpace = totalSpace - freeSpace;
@@ -229,10 +378,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageAvailablePercent(int deviceIndex) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the storage data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        fileStores = operatingSystem.getFileSystem().getFileStores();
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, deviceIndex);
+        OSFileStore fileStore = (OSFileStore) getDevice(getSnapshot(Source.STORAGE).fileStores, deviceIndex);
         long totalSpace = fileStore.getTotalSpace();
         long freeSpace = fileStore.getUsableSpace();
         if (totalSpace > 0) {
@@ -246,10 +392,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageUsedPercent(int deviceIndex) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the storage data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        fileStores = operatingSystem.getFileSystem().getFileStores();
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, deviceIndex);
+        OSFileStore fileStore = (OSFileStore) getDevice(getSnapshot(Source.STORAGE).fileStores, deviceIndex);
         long totalSpace = fileStore.getTotalSpace();
         long freeSpace = fileStore.getUsableSpace();
         long usedSpace = totalSpace - freeSpace;
@@ -285,10 +428,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public StringType getNetworkIp(int index) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the network data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        networks = hal.getNetworkIFs();
-        NetworkIF netInterface = (NetworkIF) getDevice(networks, index);
+        NetworkIF netInterface = (NetworkIF) getDevice(getSnapshot(Source.NETWORK).networks, index);
         String[] ipAddresses = netInterface.getIPv4addr();
         String ipv4 = (String) getDevice(ipAddresses, 0);
         return new StringType(ipv4);
@@ -326,31 +466,28 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getSensorsCpuTemperature() {
-        BigDecimal cpuTemp = new BigDecimal(sensors.getCpuTemperature());
+        BigDecimal cpuTemp = new BigDecimal(getSnapshot(Source.SENSORS).cpuTemperature);
         cpuTemp = cpuTemp.setScale(PRECISION_AFTER_DECIMAL_SIGN, BigDecimal.ROUND_HALF_UP);
         return cpuTemp.signum() == 1 ? new DecimalType(cpuTemp) : null;
     }
 
     @Override
     public DecimalType getSensorsCpuVoltage() {
-        BigDecimal cpuVoltage = new BigDecimal(sensors.getCpuVoltage());
+        BigDecimal cpuVoltage = new BigDecimal(getSnapshot(Source.SENSORS).cpuVoltage);
         cpuVoltage = cpuVoltage.setScale(PRECISION_AFTER_DECIMAL_SIGN, BigDecimal.ROUND_HALF_UP);
         return cpuVoltage.signum() == 1 ? new DecimalType(cpuVoltage) : null;
     }
 
     @Override
     public DecimalType getSensorsFanSpeed(int index) throws DeviceNotFoundException {
-        int[] fanSpeeds = sensors.getFanSpeeds();
+        int[] fanSpeeds = getSnapshot(Source.SENSORS).fanSpeeds;
         int speed = (int) getDevice(ArrayUtils.toObject(fanSpeeds), index);
         return speed > 0 ? new DecimalType(speed) : null;
     }
 
     @Override
     public DecimalType getBatteryRemainingTime(int index) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the battery data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        powerSources = hal.getPowerSources();
-        PowerSource powerSource = (PowerSource) getDevice(powerSources, index);
+        PowerSource powerSource = (PowerSource) getDevice(getSnapshot(Source.BATTERY).powerSources, index);
         double remainingTimeInSeconds = powerSource.getTimeRemaining();
         // The getTimeRemaining() method returns (-1.0) if is calculating or (-2.0) if the time is unlimited.
         BigDecimal remainingTime = getTimeInMinutes(remainingTimeInSeconds);
@@ -359,10 +496,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getBatteryRemainingCapacity(int index) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the battery data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        powerSources = hal.getPowerSources();
-        PowerSource powerSource = (PowerSource) getDevice(powerSources, index);
+        PowerSource powerSource = (PowerSource) getDevice(getSnapshot(Source.BATTERY).powerSources, index);
         double remainingCapacity = powerSource.getRemainingCapacity();
         BigDecimal remainingCapacityPercents = getPercentsValue(remainingCapacity);
         return new DecimalType(remainingCapacityPercents);
@@ -377,8 +511,9 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getMemoryAvailablePercent() {
-        long availableMemory = memory.getAvailable();
-        long totalMemory = memory.getTotal();
+        SysteminfoSnapshot current = getSnapshot(Source.MEMORY);
+        long availableMemory = current.memoryAvailable;
+        long totalMemory = current.memoryTotal;
         if (totalMemory > 0) {
             double freePercentDecimal = (double) availableMemory / (double) totalMemory;
             BigDecimal freePercent = getPercentsValue(freePercentDecimal);
@@ -390,8 +525,9 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getMemoryUsedPercent() {
-        long availableMemory = memory.getAvailable();
-        long totalMemory = memory.getTotal();
+        SysteminfoSnapshot current = getSnapshot(Source.MEMORY);
+        long availableMemory = current.memoryAvailable;
+        long totalMemory = current.memoryTotal;
         long usedMemory = totalMemory - availableMemory;
         if (totalMemory > 0) {
             double usedPercentDecimal = (double) usedMemory / (double) totalMemory;
@@ -425,15 +561,16 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getSwapTotal() {
-        long swapTotal = memory.getSwapTotal();
+        long swapTotal = getSnapshot(Source.SWAP).swapTotal;
         swapTotal = getSizeInMB(swapTotal);
         return swapTotal > 0 ? new DecimalType(swapTotal) : null;
     }
 
     @Override
     public DecimalType getSwapAvailable() {
-        long swapTotal = memory.getSwapTotal();
-        long swapUsed = memory.getSwapUsed();
+        SysteminfoSnapshot current = getSnapshot(Source.SWAP);
+        long swapTotal = current.swapTotal;
+        long swapUsed = current.swapUsed;
         long swapAvaialble = swapTotal - swapUsed;
         swapAvaialble = getSizeInMB(swapAvaialble);
         return swapAvaialble > 0 ? new DecimalType(swapAvaialble) : null;
@@ -441,15 +578,16 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getSwapUsed() {
-        long swapTotal = memory.getSwapUsed();
+        long swapTotal = getSnapshot(Source.SWAP).swapUsed;
         swapTotal = getSizeInMB(swapTotal);
         return swapTotal > 0 ? new DecimalType(swapTotal) : null;
     }
 
     @Override
     public DecimalType getSwapAvailablePercent() {
-        long usedSwap = memory.getSwapUsed();
-        long totalSwap = memory.getSwapTotal();
+        SysteminfoSnapshot current = getSnapshot(Source.SWAP);
+        long usedSwap = current.swapUsed;
+        long totalSwap = current.swapTotal;
         long freeSwap = totalSwap - usedSwap;
         if (totalSwap > 0) {
             double freePercentDecimal = (double) freeSwap / (double) totalSwap;
@@ -462,8 +600,9 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getSwapUsedPercent() {
-        long usedSwap = memory.getSwapUsed();
-        long totalSwap = memory.getSwapTotal();
+        SysteminfoSnapshot current = getSnapshot(Source.SWAP);
+        long usedSwap = current.swapUsed;
+        long totalSwap = current.swapTotal;
         if (totalSwap > 0) {
             double usedPercentDecimal = (double) usedSwap / (double) totalSwap;
             BigDecimal usedPercent = getPercentsValue(usedPercentDecimal);
@@ -538,7 +677,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
             default:
                 index = 2;
         }
-        double processorLoads[] = cpu.getSystemLoadAverage(index + 1);
+        double processorLoads[] = getSnapshot(Source.CPU_LOAD_AVERAGE).cpuLoadAverage;
         BigDecimal result = new BigDecimal(processorLoads[index]);
         result = result.setScale(PRECISION_AFTER_DECIMAL_SIGN, BigDecimal.ROUND_HALF_UP);
         return result;
@@ -546,13 +685,13 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getCpuUptime() {
-        long seconds = cpu.getSystemUptime();
+        long seconds = getSnapshot(Source.CPU_UPTIME).cpuUptime;
         return new DecimalType(getTimeInMinutes(seconds));
     }
 
     @Override
     public DecimalType getCpuThreads() {
-        int threadCount = operatingSystem.getThreadCount();
+        int threadCount = getSnapshot(Source.CPU_THREADS).cpuThreads;
         return new DecimalType(threadCount);
     }
 
@@ -565,44 +704,28 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getNetworkPacketsReceived(int networkIndex) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the network data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        networks = hal.getNetworkIFs();
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateNetworkStats();
+        NetworkIF network = (NetworkIF) getDevice(getSnapshot(Source.NETWORK).networks, networkIndex);
         long packRecv = network.getPacketsRecv();
         return new DecimalType(packRecv);
     }
 
     @Override
     public DecimalType getNetworkPacketsSent(int networkIndex) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the network data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        networks = hal.getNetworkIFs();
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateNetworkStats();
+        NetworkIF network = (NetworkIF) getDevice(getSnapshot(Source.NETWORK).networks, networkIndex);
         long packSent = network.getPacketsSent();
         return new DecimalType(packSent);
     }
 
     @Override
     public DecimalType getNetworkDataSent(int networkIndex) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the network data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        networks = hal.getNetworkIFs();
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateNetworkStats();
+        NetworkIF network = (NetworkIF) getDevice(getSnapshot(Source.NETWORK).networks, networkIndex);
         long bytesSent = network.getBytesSent();
         return new DecimalType(getSizeInMB(bytesSent));
     }
 
     @Override
     public DecimalType getNetworkDataReceived(int networkIndex) throws DeviceNotFoundException {
-        // In the current OSHI version a new query is required for the network data values to be updated
-        // In OSHI 4.0.0. it is planned to change this mechanism - see https://github.com/oshi/oshi/issues/310
-        networks = hal.getNetworkIFs();
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateNetworkStats();
+        NetworkIF network = (NetworkIF) getDevice(getSnapshot(Source.NETWORK).networks, networkIndex);
         long bytesRecv = network.getBytesRecv();
         return new DecimalType(getSizeInMB(bytesRecv));
     }
@@ -8,6 +8,8 @@
  */
 package org.openhab.binding.systeminfo.internal.model;
 
+import java.util.Set;
+
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.StringType;
 
@@ -23,6 +25,15 @@ public interface SysteminfoInterface {
      */
     public void initializeSysteminfo();
 
+    /**
+     * Samples the data of the given channels and processes at once. The getters of these channels and processes
+     * return the sampled data until the next snapshot is taken, instead of querying the system on each call.
+     *
+     * @param channelIDs IDs of the channels without device index, e.g. "storage#available"
+     * @param pids process identifiers of the tracked processes
+     */
+    public void takeSnapshot(Set<String> channelIDs, Set<Integer> pids);
+
     // Operating system info
     /**
      * Get the Family of the operating system /e.g. Windows,Unix,.../
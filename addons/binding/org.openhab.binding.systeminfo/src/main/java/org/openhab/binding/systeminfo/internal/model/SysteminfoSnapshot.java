@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.systeminfo.internal.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import oshi.hardware.NetworkIF;
+import oshi.hardware.PowerSource;
+import oshi.software.os.OSFileStore;
+import oshi.software.os.OSProcess;
+
+/**
+ * The {@link SysteminfoSnapshot} holds the data of the system, which was sampled at once by
+ * {@link OshiSysteminfo#takeSnapshot(Set, Set)}. A snapshot is not modified after it has been published. Each sample
+ * creates a new snapshot, which takes over the data of the sources that were not sampled from the previous one.
+ *
+ * @author agent - Initial contribution
+ */
+class SysteminfoSnapshot {
+    static final SysteminfoSnapshot EMPTY = new SysteminfoSnapshot();
+
+    /**
+     * The data sources of the system, each is sampled with as few queries as possible.
+     */
+    enum Source {
+        MEMORY,
+        SWAP,
+        CPU_LOAD,
+        CPU_LOAD_AVERAGE,
+        CPU_UPTIME,
+        CPU_THREADS,
+        SENSORS,
+        STORAGE,
+        NETWORK,
+        BATTERY
+    }
+
+    private final Set<Source> sources;
+    private final Map<Integer, OSProcess> processes;
+
+    // memory
+    long memoryTotal;
+    long memoryAvailable;
+
+    // swap
+    long swapTotal;
+    long swapUsed;
+
+    // cpu
+    double cpuLoad;
+    double[] cpuLoadAverage;
+    long cpuUptime;
+    int cpuThreads;
+
+    // sensors
+    double cpuTemperature;
+    double cpuVoltage;
+    int[] fanSpeeds;
+
+    // storage
+    OSFileStore[] fileStores;
+
+    // network, with updated statistics
+    NetworkIF[] networks;
+
+    // battery
+    PowerSource[] powerSources;
+
+    private SysteminfoSnapshot() {
+        sources = Collections.emptySet();
+        processes = Collections.emptyMap();
+    }
+
+    /**
+     * Creates a snapshot with the data of the previous one. The data of the sampled sources and processes
+     * has to be set before the snapshot is published.
+     */
+    SysteminfoSnapshot(SysteminfoSnapshot previous, Set<Source> sampledSources,
+            Map<Integer, OSProcess> sampledProcesses) {
+        Set<Source> allSources = EnumSet.noneOf(Source.class);
+        allSources.addAll(previous.sources);
+        allSources.addAll(sampledSources);
+        sources = Collections.unmodifiableSet(allSources);
+        Map<Integer, OSProcess> allProcesses = new HashMap<>(previous.processes);
+        allProcesses.putAll(sampledProcesses);
+        processes = Collections.unmodifiableMap(allProcesses);
+
+        memoryTotal = previous.memoryTotal;
+        memoryAvailable = previous.memoryAvailable;
+        swapTotal = previous.swapTotal;
+        swapUsed = previous.swapUsed;
+        cpuLoad = previous.cpuLoad;
+        cpuLoadAverage = previous.cpuLoadAverage;
+        cpuUptime = previous.cpuUptime;
+        cpuThreads = previous.cpuThreads;
+        cpuTemperature = previous.cpuTemperature;
+        cpuVoltage = previous.cpuVoltage;
+        fanSpeeds = previous.fanSpeeds;
+        fileStores = previous.fileStores;
+        networks = previous.networks;
+        powerSources = previous.powerSources;
+    }
+
+    /**
+     * @return true if the data source has been sampled
+     */
+    boolean contains(Source source) {
+        return sources.contains(source);
+    }
+
+    /**
+     * @return true if the process has been sampled, even if it was not found
+     */
+    boolean containsProcess(int pid) {
+        return processes.containsKey(pid);
+    }
+
+    /**
+     * @return the sampled process or null if there is no process with this PID
+     */
+    OSProcess getProcess(int pid) {
+        return processes.get(pid);
+    }
+}
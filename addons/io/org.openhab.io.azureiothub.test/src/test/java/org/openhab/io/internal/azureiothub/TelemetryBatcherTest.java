@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.internal.azureiothub;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+/**
+ * Tests the {@link TelemetryBatcher} against a local stand-in for the Azure IoT Hub.
+ *
+ * @author agent - Initial contribution
+ */
+public class TelemetryBatcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final StandInSender sender = new StandInSender();
+    private TelemetrySpool spool;
+    private TelemetryBatcher batcher;
+
+    @Before
+    public void setup() {
+        spool = new TelemetrySpool(new File(folder.getRoot(), "spool.json"));
+        // the batches are flushed by the tests
+        batcher = new TelemetryBatcher(sender, spool, 3600000);
+    }
+
+    @After
+    public void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    public void onlyLatestStateOfDeviceIsSent() {
+        batcher.add("lamp", "ON");
+        batcher.add("lamp", "OFF");
+        batcher.add("heater", "21.5");
+        batcher.flush();
+
+        assertThat(sender.deviceIds, is(Arrays.asList("lamp", "heater")));
+        assertThat(sender.values(0), is(Arrays.asList("OFF")));
+        assertThat(sender.values(1), is(Arrays.asList("21.5")));
+        assertThat(batcher.getCoalescedCount(), is(1L));
+        assertThat(batcher.getSentMessageCount(), is(2L));
+    }
+
+    @Test
+    public void largeBatchIsSplitIntoMessages() {
+        char[] chars = new char[1000];
+        Arrays.fill(chars, 'x');
+        String value = new String(chars);
+        List<Datapoint> datapoints = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            datapoints.add(new Datapoint("lamp", value + i, i));
+        }
+        spool.append(datapoints);
+        batcher.flush();
+
+        assertThat(sender.payloads.size() > 1, is(true));
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < sender.payloads.size(); i++) {
+            assertThat(sender.payloads.get(i).length() <= TelemetryBatcher.MAX_MESSAGE_SIZE, is(true));
+            values.addAll(sender.values(i));
+        }
+        assertThat(values.size(), is(300));
+        for (int i = 0; i < 300; i++) {
+            assertThat(values.get(i), is(value + i));
+        }
+        assertThat(spool.isEmpty(), is(true));
+    }
+
+    @Test
+    public void rejectedDatapointsAreDropped() {
+        sender.result = TelemetrySender.Result.REJECTED;
+        batcher.add("unknown", "ON");
+        batcher.flush();
+
+        assertThat(spool.isEmpty(), is(true));
+        assertThat(batcher.getDroppedCount(), is(1L));
+        assertThat(batcher.getSentMessageCount(), is(0L));
+    }
+
+    @Test
+    public void unreachableDatapointsAreSpooled() {
+        sender.result = TelemetrySender.Result.UNREACHABLE;
+        batcher.add("lamp", "ON");
+        batcher.add("heater", "21.5");
+        batcher.flush();
+
+        // once the IoT Hub is unreachable, the other devices are not tried
+        assertThat(sender.deviceIds, is(Arrays.asList("lamp")));
+        assertThat(spool.size(), is(2));
+        assertThat(batcher.getDroppedCount(), is(0L));
+    }
+
+    @Test
+    public void spooledDatapointsAreSentBeforeNewerOnes() {
+        sender.result = TelemetrySender.Result.UNREACHABLE;
+        batcher.add("lamp", "ON");
+        batcher.flush();
+        assertThat(spool.size(), is(1));
+
+        sender.reset(TelemetrySender.Result.SENT);
+        batcher.add("lamp", "OFF");
+        batcher.flush();
+
+        assertThat(sender.deviceIds, is(Arrays.asList("lamp")));
+        assertThat(sender.values(0), is(Arrays.asList("ON", "OFF")));
+        assertThat(spool.isEmpty(), is(true));
+    }
+
+    /**
+     * Records the messages instead of sending them to the IoT Hub.
+     */
+    private static class StandInSender implements TelemetrySender {
+        private final List<String> deviceIds = new ArrayList<>();
+        private final List<String> payloads = new ArrayList<>();
+        private Result result = Result.SENT;
+
+        @Override
+        public synchronized Result send(String deviceId, String payload) {
+            deviceIds.add(deviceId);
+            payloads.add(payload);
+            return result;
+        }
+
+        synchronized void reset(Result result) {
+            deviceIds.clear();
+            payloads.clear();
+            this.result = result;
+        }
+
+        /**
+         * Returns the values of the datapoints in a message, which is either a single datapoint or an array.
+         */
+        synchronized List<String> values(int index) {
+            Gson gson = new Gson();
+            JsonElement json = new JsonParser().parse(payloads.get(index));
+            List<String> values = new ArrayList<>();
+            if (json.isJsonArray()) {
+                for (JsonElement element : json.getAsJsonArray()) {
+                    values.add(gson.fromJson(element, Datapoint.class).getValue());
+                }
+            } else {
+                values.add(gson.fromJson(json, Datapoint.class).getValue());
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.internal.azureiothub;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the {@link TelemetrySpool}.
+ *
+ * @author agent - Initial contribution
+ */
+public class TelemetrySpoolTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void datapointsSurviveRestart() {
+        File file = new File(folder.getRoot(), "spool.json");
+        TelemetrySpool spool = new TelemetrySpool(file);
+        spool.append(Arrays.asList(new Datapoint("lamp", "ON", 1), new Datapoint("heater", "21.5", 2)));
+        spool.append(Arrays.asList(new Datapoint("lamp", "OFF", 3)));
+
+        TelemetrySpool restarted = new TelemetrySpool(file);
+        assertThat(restarted.size(), is(3));
+        List<Datapoint> datapoints = restarted.takeAll();
+        assertThat(datapoints.size(), is(3));
+        assertThat(datapoints.get(0).getDeviceId(), is("lamp"));
+        assertThat(datapoints.get(0).getValue(), is("ON"));
+        assertThat(datapoints.get(0).getTimestamp(), is(1L));
+        assertThat(datapoints.get(1).getValue(), is("21.5"));
+        assertThat(datapoints.get(2).getValue(), is("OFF"));
+
+        assertThat(restarted.isEmpty(), is(true));
+        assertThat(file.exists(), is(false));
+        assertThat(new TelemetrySpool(file).isEmpty(), is(true));
+    }
+
+    @Test
+    public void oldestDatapointsAreDroppedWhenFull() {
+        TelemetrySpool spool = new TelemetrySpool(new File(folder.getRoot(), "spool.json"));
+        List<Datapoint> datapoints = new ArrayList<>();
+        for (int i = 0; i < TelemetrySpool.MAX_ENTRIES; i++) {
+            datapoints.add(new Datapoint("lamp", Integer.toString(i), i));
+        }
+        spool.append(datapoints);
+        spool.append(Arrays.asList(new Datapoint("lamp", "new", TelemetrySpool.MAX_ENTRIES)));
+
+        assertThat(spool.size(), is(TelemetrySpool.MAX_ENTRIES));
+        List<Datapoint> spooled = spool.takeAll();
+        assertThat(spooled.size(), is(TelemetrySpool.MAX_ENTRIES));
+        assertThat(spooled.get(0).getValue(), is("1"));
+        assertThat(spooled.get(spooled.size() - 1).getValue(), is("new"));
+    }
+}
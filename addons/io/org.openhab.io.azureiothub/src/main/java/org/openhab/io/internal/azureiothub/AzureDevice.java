@@ -56,7 +56,7 @@ public class AzureDevice {
         return device;
     }
 
-    public void sendMessage(Message msg, AzureEventCallback callback, Object lockobj) {
+    public void sendMessage(Message msg, AzureEventCallback callback, Object context) {
         try {
             // keep connection open,
             // according to inline comments, calling open on an already open connection does nothing.
@@ -64,7 +64,7 @@ public class AzureDevice {
         } catch (IOException e) {
             logger.warn("Failed to connect to Azure IoT Hub device", e);
         }
-        client.sendEventAsync(msg, callback, lockobj);
+        client.sendEventAsync(msg, callback, context);
     }
 
     public void close() {
@@ -8,6 +8,8 @@
  */
 package org.openhab.io.internal.azureiothub;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,14 +26,13 @@ import com.microsoft.azure.sdk.iot.device.IotHubStatusCode;
 public class AzureEventCallback implements IotHubEventCallback {
     private final Logger logger = LoggerFactory.getLogger(AzureEventCallback.class);
 
+    @SuppressWarnings("unchecked")
     @Override
     public void execute(IotHubStatusCode status, Object context) {
         logger.debug("IoT Hub responded to message with status {}", status.name());
 
-        if (context != null) {
-            synchronized (context) {
-                context.notify();
-            }
+        if (context instanceof CompletableFuture) {
+            ((CompletableFuture<IotHubStatusCode>) context).complete(status);
         }
     }
 }
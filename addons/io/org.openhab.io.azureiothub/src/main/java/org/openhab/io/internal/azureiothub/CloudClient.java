@@ -8,22 +8,27 @@
  */
 package org.openhab.io.internal.azureiothub;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
+import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.core.events.EventPublisher;
 import org.eclipse.smarthome.core.items.events.ItemEventFactory;
 import org.eclipse.smarthome.core.library.types.StringType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
 import com.microsoft.azure.eventhubs.EventData;
 import com.microsoft.azure.eventhubs.EventHubClient;
 import com.microsoft.azure.eventhubs.PartitionReceiver;
+import com.microsoft.azure.sdk.iot.device.IotHubStatusCode;
 import com.microsoft.azure.sdk.iot.device.Message;
 import com.microsoft.azure.sdk.iot.service.Device;
 import com.microsoft.azure.servicebus.ServiceBusException;
@@ -40,8 +45,9 @@ import com.microsoft.azure.servicebus.ServiceBusException;
 
 public class CloudClient {
 
-    private static final String DATAPOINT_VALUE = "value";
-    private static final String DATAPOINT_DEVICE_ID = "deviceId";
+    private static final String SPOOL_FILE_NAME = "azureiothub" + File.separator + "spool.json";
+    private static final long SEND_TIMEOUT = 10; // ..seconds
+    private static final long DEFAULT_BATCH_WINDOW = 1000; // ..milliseconds
 
     private final Logger logger = LoggerFactory.getLogger(CloudClient.class);
 
@@ -51,8 +57,7 @@ public class CloudClient {
 
     private AzureDevices azureDeviceStore;
     private EventHubClient azureClient;
-    private Object lockobj = new Object();
-    private Gson gson = new Gson();
+    private final TelemetryBatcher batcher;
 
     /**
      * Constructor of CloudClient
@@ -70,51 +75,81 @@ public class CloudClient {
         this.eventPublisher = eventPublisher;
 
         azureDeviceStore = new AzureDevices(this.connectionstring);
+        batcher = new TelemetryBatcher(this::sendMessage,
+                new TelemetrySpool(new File(ConfigConstants.getUserDataFolder(), SPOOL_FILE_NAME)),
+                DEFAULT_BATCH_WINDOW);
 
         if (this.commandEnabled) {
             azureClient = receiveMessages("0");
         }
     }
 
+    /**
+     * Sets the time in milliseconds within which item updates are collected before they are sent
+     *
+     * @param batchWindow the batch window in milliseconds
+     */
+    public void setBatchWindow(long batchWindow) {
+        batcher.setBatchWindow(batchWindow);
+    }
+
+    /**
+     * Queues an item update, it is sent with the next batch
+     *
+     * @param deviceId the id of the device, which is the item name
+     * @param state the new state of the item
+     */
     public void sendItemUpdate(String deviceId, String state) {
-        AzureDevice device;
+        batcher.add(deviceId, state);
+    }
+
+    private TelemetrySender.Result sendMessage(String deviceId, String payload) {
+        AzureDevice azureDevice;
         try {
-            device = azureDeviceStore.getDevice(deviceId);
+            azureDevice = azureDeviceStore.getDevice(deviceId);
         } catch (Exception e) {
-            logger.error("Failed to obtain azure device", e);
-            return;
+            logger.error("Failed to obtain azure device {}, dropping its item state update", deviceId, e);
+            return TelemetrySender.Result.REJECTED;
         }
 
-        setItemState(device, state);
-    }
-
-    private void setItemState(AzureDevice azureDevice, String state) {
-        AzureEventCallback callback = new AzureEventCallback();
-
         Device device = azureDevice.getDevice();
         if (device == null) {
-            logger.error("Invalid device connection for device, can not send item state update");
-            return;
+            logger.error("Invalid device connection for device {}, dropping its item state update", deviceId);
+            return TelemetrySender.Result.REJECTED;
         }
 
-        JsonObject datapoint = new JsonObject();
-        datapoint.addProperty(DATAPOINT_DEVICE_ID, device.getDeviceId());
-        datapoint.addProperty(DATAPOINT_VALUE, state);
+        CompletableFuture<IotHubStatusCode> result = new CompletableFuture<>();
+        azureDevice.sendMessage(new Message(payload), new AzureEventCallback(), result);
 
-        Message msg = new Message(gson.toJson(datapoint));
-
-        azureDevice.sendMessage(msg, callback, lockobj);
-
-        synchronized (lockobj) {
-            try {
-                lockobj.wait();
-            } catch (InterruptedException e) {
-                // done
+        try {
+            IotHubStatusCode status = result.get(SEND_TIMEOUT, TimeUnit.SECONDS);
+            switch (status) {
+                case OK:
+                case OK_EMPTY:
+                    return TelemetrySender.Result.SENT;
+                case BAD_FORMAT:
+                case UNAUTHORIZED:
+                case TOO_MANY_DEVICES:
+                case HUB_OR_DEVICE_ID_NOT_FOUND:
+                case PRECONDITION_FAILED:
+                case REQUEST_ENTITY_TOO_LARGE:
+                    logger.error("IoT Hub rejected message for device {} with status {}, dropping it", deviceId,
+                            status);
+                    return TelemetrySender.Result.REJECTED;
+                default:
+                    logger.debug("IoT Hub did not accept message for device {}, status {}", deviceId, status);
+                    return TelemetrySender.Result.UNREACHABLE;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.debug("IoT Hub did not confirm message for device {}", deviceId);
         }
+        return TelemetrySender.Result.UNREACHABLE;
     }
 
     public void shutdown() {
+        batcher.shutdown();
         if (azureClient != null) {
             try {
                 azureClient.closeSync();
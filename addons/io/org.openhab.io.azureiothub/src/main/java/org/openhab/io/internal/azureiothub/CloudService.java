@@ -39,6 +39,7 @@ public class CloudService implements EventSubscriber {
 
     private static final String CFG_MODE = "mode";
     private static final String CFG_CONNECTIONSTRING = "connectionstring";
+    private static final String CFG_BATCH_WINDOW = "batchWindow";
 
     private Logger logger = LoggerFactory.getLogger(CloudService.class);
 
@@ -100,9 +101,21 @@ public class CloudService implements EventSubscriber {
             logger.debug("remoteAccessEnabled is not set, keeping value '{}'", commandEnabled);
         }
 
+        Long batchWindow = null;
+        if (config.get(CFG_BATCH_WINDOW) != null) {
+            try {
+                batchWindow = Math.max(0, Long.parseLong(config.get(CFG_BATCH_WINDOW).toString()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid batch window '{}', using the default", config.get(CFG_BATCH_WINDOW));
+            }
+        }
+
         if (connectionstring != null && !connectionstring.isEmpty()) {
             try {
                 cloudClient = new CloudClient(connectionstring, commandEnabled, eventPublisher);
+                if (batchWindow != null) {
+                    cloudClient.setBatchWindow(batchWindow);
+                }
                 logger.debug("Azure IoT Hub connector activated");
             } catch (Exception e) {
                 logger.error("Failed to setup Azure IoT Hub client");
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.internal.azureiothub;
+
+/**
+ * A single item state sent to the Azure IoT Hub
+ *
+ * @author agent - Initial contribution
+ */
+public class Datapoint {
+
+    private final String deviceId;
+    private final String value;
+    private final long timestamp;
+
+    public Datapoint(String deviceId, String value, long timestamp) {
+        this.deviceId = deviceId;
+        this.value = value;
+        this.timestamp = timestamp;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.internal.azureiothub;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+
+/**
+ * Collects item states and sends them to the Azure IoT Hub in batches.
+ *
+ * Within the batch window only the latest state of every item is kept. Datapoints which could not be sent because
+ * the IoT Hub is unreachable are written to the {@link TelemetrySpool}. The spool is retried periodically and before
+ * newer datapoints are sent, so the IoT Hub receives the states of a device in order. Datapoints the IoT Hub rejects
+ * for their device are dropped. Several datapoints of the same device are combined into one message as JSON array, up
+ * to a maximum message size.
+ *
+ * @author agent - Initial contribution
+ */
+public class TelemetryBatcher {
+
+    private static final String THREADPOOL_AZUREIOTHUB = "azureiothub";
+    static final int MAX_MESSAGE_SIZE = 64 * 1024;
+    private static final long DRAIN_INTERVAL = 60; // ..seconds
+
+    private final Logger logger = LoggerFactory.getLogger(TelemetryBatcher.class);
+
+    private final TelemetrySender sender;
+    private final TelemetrySpool spool;
+    private final Gson gson = new Gson();
+    private final Object sendLock = new Object();
+
+    // device id -> latest datapoint which has not been sent yet
+    private final Map<String, Datapoint> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> flushJob;
+    private final ScheduledFuture<?> drainJob;
+    private long batchWindow;
+
+    private long sentMessageCount;
+    private long coalescedCount;
+    private long droppedCount;
+
+    /**
+     * @param sender the sender of the messages
+     * @param spool the spool for datapoints which could not be sent
+     * @param batchWindow the time in milliseconds within which datapoints are collected
+     */
+    public TelemetryBatcher(TelemetrySender sender, TelemetrySpool spool, long batchWindow) {
+        this.sender = sender;
+        this.spool = spool;
+        this.batchWindow = batchWindow;
+        this.drainJob = ThreadPoolManager.getScheduledPool(THREADPOOL_AZUREIOTHUB).scheduleWithFixedDelay(
+                this::drainSpool, DRAIN_INTERVAL, DRAIN_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    public synchronized void setBatchWindow(long batchWindow) {
+        this.batchWindow = batchWindow;
+    }
+
+    /**
+     * Queues a state of a device, a queued state of the same device which has not been sent yet is replaced
+     *
+     * @param deviceId the id of the device
+     * @param value the state of the device
+     */
+    public synchronized void add(String deviceId, String value) {
+        if (pending.remove(deviceId) != null) {
+            coalescedCount++;
+        }
+        pending.put(deviceId, new Datapoint(deviceId, value, System.currentTimeMillis()));
+        if (flushJob == null) {
+            flushJob = ThreadPoolManager.getScheduledPool(THREADPOOL_AZUREIOTHUB).schedule(this::flush, batchWindow,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends the spooled and then all queued datapoints, the ones which could not be sent are spooled
+     */
+    public void flush() {
+        List<Datapoint> datapoints;
+        synchronized (this) {
+            datapoints = new ArrayList<>(pending.values());
+            pending.clear();
+            flushJob = null;
+        }
+        synchronized (sendLock) {
+            if (!spool.isEmpty()) {
+                // the spooled datapoints are older and must reach the IoT Hub before the new ones
+                List<Datapoint> spooled = new ArrayList<>(spool.takeAll());
+                logger.debug("Sending {} spooled datapoints to Azure IoT Hub", spooled.size());
+                spooled.addAll(datapoints);
+                datapoints = spooled;
+            }
+            List<Datapoint> unsent = send(datapoints);
+            if (!unsent.isEmpty()) {
+                spool.append(unsent);
+                logger.debug("Spooled {} datapoints, {} datapoints waiting to be sent", unsent.size(), spool.size());
+            }
+        }
+    }
+
+    /**
+     * Stops sending, datapoints which have not been sent yet are spooled
+     */
+    public void shutdown() {
+        List<Datapoint> datapoints;
+        drainJob.cancel(false);
+        synchronized (this) {
+            if (flushJob != null) {
+                flushJob.cancel(false);
+                flushJob = null;
+            }
+            datapoints = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        synchronized (sendLock) {
+            spool.append(datapoints);
+        }
+        logger.debug("Sent {} messages to Azure IoT Hub, {} item updates were coalesced, {} were dropped",
+                getSentMessageCount(), getCoalescedCount(), getDroppedCount());
+    }
+
+    public synchronized long getSentMessageCount() {
+        return sentMessageCount;
+    }
+
+    public synchronized long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Retries to send the spooled datapoints, the ones which still could not be sent are spooled again
+     */
+    private void drainSpool() {
+        synchronized (sendLock) {
+            if (spool.isEmpty()) {
+                return;
+            }
+            List<Datapoint> spooled = spool.takeAll();
+            logger.debug("Sending {} spooled datapoints to Azure IoT Hub", spooled.size());
+            List<Datapoint> unsent = send(spooled);
+            spool.append(unsent);
+            if (!unsent.isEmpty()) {
+                logger.debug("Azure IoT Hub is still unreachable, {} datapoints waiting to be sent", spool.size());
+            }
+        }
+    }
+
+    /**
+     * Sends datapoints grouped by device. Datapoints which are rejected for their device are dropped. Once the IoT
+     * Hub is unreachable, the remaining datapoints are not tried.
+     *
+     * @return the datapoints which could not be sent because the IoT Hub is unreachable
+     */
+    private List<Datapoint> send(Collection<Datapoint> datapoints) {
+        Map<String, List<Datapoint>> byDevice = new LinkedHashMap<>();
+        for (Datapoint datapoint : datapoints) {
+            byDevice.computeIfAbsent(datapoint.getDeviceId(), deviceId -> new ArrayList<>()).add(datapoint);
+        }
+
+        List<Datapoint> unsent = new ArrayList<>();
+        for (Map.Entry<String, List<Datapoint>> entry : byDevice.entrySet()) {
+            List<Datapoint> deviceDatapoints = entry.getValue();
+            int start = 0;
+            while (start < deviceDatapoints.size()) {
+                if (!unsent.isEmpty()) {
+                    unsent.addAll(deviceDatapoints.subList(start, deviceDatapoints.size()));
+                    break;
+                }
+                StringBuilder payload = new StringBuilder();
+                int end = start;
+                while (end < deviceDatapoints.size()) {
+                    String json = gson.toJson(deviceDatapoints.get(end));
+                    if (end > start && payload.length() + json.length() + 2 > MAX_MESSAGE_SIZE) {
+                        break;
+                    }
+                    payload.append(end > start ? "," : "").append(json);
+                    end++;
+                }
+                String message = end - start == 1 ? payload.toString() : "[" + payload + "]";
+                switch (sender.send(entry.getKey(), message)) {
+                    case SENT:
+                        synchronized (this) {
+                            sentMessageCount++;
+                        }
+                        break;
+                    case REJECTED:
+                        logger.warn("Dropped {} datapoints of device {}, which were rejected by Azure IoT Hub",
+                                end - start, entry.getKey());
+                        synchronized (this) {
+                            droppedCount += end - start;
+                        }
+                        break;
+                    default:
+                        unsent.addAll(deviceDatapoints.subList(start, end));
+                        break;
+                }
+                start = end;
+            }
+        }
+        return unsent;
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.internal.azureiothub;
+
+/**
+ * Sends telemetry messages to the Azure IoT Hub on behalf of a device
+ *
+ * @author agent - Initial contribution
+ */
+public interface TelemetrySender {
+
+    /**
+     * The outcome of sending a message
+     */
+    enum Result {
+        /** The IoT Hub has accepted the message */
+        SENT,
+        /** The message can never be sent for this device, e.g. because the device is unknown to the IoT Hub */
+        REJECTED,
+        /** The IoT Hub could not be reached or is temporarily unavailable, the message may be sent later */
+        UNREACHABLE
+    }
+
+    /**
+     * Sends a message and waits until the IoT Hub has accepted it
+     *
+     * @param deviceId the id of the device the message is sent for
+     * @param payload the JSON payload of the message
+     * @return the outcome of sending the message
+     */
+    Result send(String deviceId, String payload);
+}
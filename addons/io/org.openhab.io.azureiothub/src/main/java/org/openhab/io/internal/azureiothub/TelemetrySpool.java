@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.internal.azureiothub;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * Keeps datapoints which could not be sent to the Azure IoT Hub on disk, one JSON datapoint per line, until the
+ * connection is back. If the spool is full, the oldest datapoints are dropped.
+ *
+ * @author agent - Initial contribution
+ */
+public class TelemetrySpool {
+
+    static final int MAX_ENTRIES = 10000;
+
+    private final Logger logger = LoggerFactory.getLogger(TelemetrySpool.class);
+
+    private final File file;
+    private final Gson gson = new Gson();
+    private int size;
+
+    public TelemetrySpool(File file) {
+        this.file = file;
+        this.size = read().size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Appends datapoints to the spool
+     *
+     * @param datapoints the datapoints to keep
+     */
+    public synchronized void append(Collection<Datapoint> datapoints) {
+        if (datapoints.isEmpty()) {
+            return;
+        }
+        if (size + datapoints.size() > MAX_ENTRIES) {
+            List<Datapoint> all = read();
+            all.addAll(datapoints);
+            int dropped = all.size() - MAX_ENTRIES;
+            logger.warn("Azure IoT Hub spool is full, dropping {} oldest datapoints", dropped);
+            write(all.subList(dropped, all.size()), false);
+        } else {
+            write(datapoints, true);
+        }
+    }
+
+    /**
+     * Removes and returns all datapoints of the spool, oldest first
+     */
+    public synchronized List<Datapoint> takeAll() {
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        List<Datapoint> datapoints = read();
+        if (!file.delete()) {
+            logger.warn("Failed to delete Azure IoT Hub spool file {}", file);
+        }
+        size = 0;
+        return datapoints;
+    }
+
+    private List<Datapoint> read() {
+        List<Datapoint> datapoints = new ArrayList<>();
+        if (!file.exists()) {
+            return datapoints;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    datapoints.add(gson.fromJson(line, Datapoint.class));
+                } catch (JsonSyntaxException e) {
+                    logger.debug("Skipping invalid spooled datapoint '{}'", line);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read Azure IoT Hub spool file {}", file, e);
+        }
+        return datapoints;
+    }
+
+    private void write(Collection<Datapoint> datapoints, boolean append) {
+        file.getParentFile().mkdirs();
+        StandardOpenOption mode = append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+            for (Datapoint datapoint : datapoints) {
+                writer.write(gson.toJson(datapoint));
+                writer.newLine();
+            }
+            size = append ? size + datapoints.size() : datapoints.size();
+        } catch (IOException e) {
+            logger.warn("Failed to write {} datapoints to Azure IoT Hub spool file {}", datapoints.size(), file, e);
+        }
+    }
+}
@@ -39,7 +39,7 @@ class HomekitAccessoryRegistry {
 
     private final Logger logger = LoggerFactory.getLogger(HomekitAccessoryRegistry.class);
 
-    public void remove(HomekitTaggedItem taggedItem) {
+    public synchronized void remove(HomekitTaggedItem taggedItem) {
         Iterator<HomekitAccessory> i = createdAccessories.iterator();
         while (i.hasNext()) {
             HomekitAccessory accessory = i.next();
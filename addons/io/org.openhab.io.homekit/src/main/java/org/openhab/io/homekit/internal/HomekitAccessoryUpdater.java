@@ -8,9 +8,14 @@
  */
 package org.openhab.io.homekit.internal;
 
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.items.GenericItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.StateChangeListener;
@@ -26,12 +31,21 @@ import com.beowulfe.hap.HomekitCharacteristicChangeCallback;
  * Homekit library takes care of insuring only a single subscription exists for
  * each accessory.
  *
+ * Subscriptions are indexed by item name, so a single listener is registered per item
+ * no matter how many characteristics depend on it. Changed characteristics are collected
+ * and delivered to the Homekit clients in batches on a separate thread, a characteristic
+ * which changes several times before it is delivered is only notified once.
+ *
  * @author Andy Lintner
  */
 public class HomekitAccessoryUpdater {
 
+    private static final String THREADPOOL_HOMEKIT = "homekit";
+
     private Logger logger = LoggerFactory.getLogger(HomekitAccessoryUpdater.class);
-    private final ConcurrentMap<ItemKey, Subscription> subscriptionsByName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ItemSubscriptions> subscriptionsByName = new ConcurrentHashMap<>();
+    private final Set<HomekitCharacteristicChangeCallback> pendingCallbacks = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
 
     public void subscribe(GenericItem item, HomekitCharacteristicChangeCallback callback) {
         subscribe(item, null, callback);
@@ -41,18 +55,16 @@ public class HomekitAccessoryUpdater {
         if (item == null) {
             return;
         }
-        ItemKey itemKey = new ItemKey(item, key);
-        if (subscriptionsByName.containsKey(itemKey)) {
-            logger.error("Received duplicate subscription on {}", item.getName());
-        }
-        subscriptionsByName.compute(itemKey, (k, v) -> {
-            if (v != null) {
-                logger.error("Received duplicate subscription on {}", item.getName());
-                unsubscribe(item, key);
+        subscriptionsByName.compute(item.getName(), (name, subscriptions) -> {
+            if (subscriptions == null) {
+                subscriptions = new ItemSubscriptions(item);
+            } else {
+                subscriptions.bind(item);
+            }
+            if (subscriptions.callbacks.put(toKey(key), callback) != null) {
+                logger.error("Received duplicate subscription on {}", name);
             }
-            Subscription subscription = (changedItem, oldState, newState) -> callback.changed();
-            item.addStateChangeListener(subscription);
-            return subscription;
+            return subscriptions;
         });
     }
 
@@ -64,69 +76,96 @@ public class HomekitAccessoryUpdater {
         if (item == null) {
             return;
         }
-        subscriptionsByName.computeIfPresent(new ItemKey(item, key), (k, v) -> {
-            item.removeStateChangeListener(v);
-            return null;
+        subscriptionsByName.computeIfPresent(item.getName(), (name, subscriptions) -> {
+            HomekitCharacteristicChangeCallback callback = subscriptions.callbacks.remove(toKey(key));
+            if (callback != null) {
+                pendingCallbacks.remove(callback);
+            }
+            if (subscriptions.callbacks.isEmpty()) {
+                subscriptions.item.removeStateChangeListener(subscriptions);
+                return null;
+            }
+            return subscriptions;
         });
     }
 
-    @FunctionalInterface
-    private static interface Subscription extends StateChangeListener {
+    /**
+     * Moves the subscriptions of an item to a new instance of it, e.g. after the item has
+     * been updated in the item registry.
+     *
+     * @param item the new instance of the item
+     */
+    public void rebind(Item item) {
+        if (!(item instanceof GenericItem)) {
+            return;
+        }
+        subscriptionsByName.computeIfPresent(item.getName(), (name, subscriptions) -> {
+            subscriptions.bind((GenericItem) item);
+            return subscriptions;
+        });
+    }
 
-        @Override
-        void stateChanged(Item item, State oldState, State newState);
+    private static String toKey(String key) {
+        return key == null ? "" : key;
+    }
 
-        @Override
-        default void stateUpdated(Item item, State state) {
-            // Do nothing on non-change update
+    private void schedule(Iterable<HomekitCharacteristicChangeCallback> callbacks) {
+        for (HomekitCharacteristicChangeCallback callback : callbacks) {
+            pendingCallbacks.add(callback);
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            ThreadPoolManager.getPool(THREADPOOL_HOMEKIT).execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        try {
+            Iterator<HomekitCharacteristicChangeCallback> i = pendingCallbacks.iterator();
+            while (i.hasNext()) {
+                HomekitCharacteristicChangeCallback callback = i.next();
+                i.remove();
+                try {
+                    callback.changed();
+                } catch (RuntimeException e) {
+                    logger.warn("Could not notify Homekit clients of a characteristic change: {}", e.getMessage(), e);
+                }
+            }
+        } finally {
+            flushScheduled.set(false);
+            if (!pendingCallbacks.isEmpty() && flushScheduled.compareAndSet(false, true)) {
+                ThreadPoolManager.getPool(THREADPOOL_HOMEKIT).execute(this::flush);
+            }
         }
     }
 
-    private static class ItemKey {
-        public GenericItem item;
-        public String key;
+    /**
+     * All subscriptions on a single item, registered as one listener on the item.
+     */
+    private class ItemSubscriptions implements StateChangeListener {
+        private final Map<String, HomekitCharacteristicChangeCallback> callbacks = new ConcurrentHashMap<>();
+        private GenericItem item;
 
-        public ItemKey(GenericItem item, String key) {
+        public ItemSubscriptions(GenericItem item) {
             this.item = item;
-            this.key = key;
+            item.addStateChangeListener(this);
+        }
+
+        private void bind(GenericItem newItem) {
+            if (newItem != item) {
+                item.removeStateChangeListener(this);
+                item = newItem;
+                item.addStateChangeListener(this);
+            }
         }
 
         @Override
-        public int hashCode() {
-            final int prime = 31;
-            int result = 1;
-            result = prime * result + ((item == null) ? 0 : item.hashCode());
-            result = prime * result + ((key == null) ? 0 : key.hashCode());
-            return result;
+        public void stateChanged(Item item, State oldState, State newState) {
+            schedule(callbacks.values());
         }
 
         @Override
-        public boolean equals(Object obj) {
-            if (this == obj) {
-                return true;
-            }
-            if (obj == null) {
-                return false;
-            }
-            if (getClass() != obj.getClass()) {
-                return false;
-            }
-            ItemKey other = (ItemKey) obj;
-            if (item == null) {
-                if (other.item != null) {
-                    return false;
-                }
-            } else if (!item.equals(other.item)) {
-                return false;
-            }
-            if (key == null) {
-                if (other.key != null) {
-                    return false;
-                }
-            } else if (!key.equals(other.key)) {
-                return false;
-            }
-            return true;
+        public void stateUpdated(Item item, State state) {
+            // Do nothing on non-change update
         }
     }
 
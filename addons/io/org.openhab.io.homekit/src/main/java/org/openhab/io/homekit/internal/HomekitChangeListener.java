@@ -9,7 +9,14 @@
 package org.openhab.io.homekit.internal;
 
 import java.util.Collection;
-
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.smarthome.core.items.GroupItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.items.ItemRegistryChangeListener;
@@ -23,6 +30,10 @@ import com.beowulfe.hap.HomekitRoot;
  * Listens for changes to the item registry. When changes are detected, check
  * for Homekit tags and, if present, add the items to the HomekitAccessoryRegistry.
  *
+ * Changes are applied incrementally: only the accessories of the affected items are
+ * removed and re-created, and an update which does not touch anything Homekit relies on
+ * (tags, label, groups, type) only moves the state subscriptions to the new item.
+ *
  * @author Andy Lintner
  */
 public class HomekitChangeListener implements ItemRegistryChangeListener {
@@ -33,10 +44,14 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
     private final HomekitAccessoryRegistry accessoryRegistry = new HomekitAccessoryRegistry();
     private HomekitSettings settings;
 
+    // item name -> tagged items which have been added to the accessory registry
+    private final Map<String, HomekitTaggedItem> taggedItems = new HashMap<>();
+
     @Override
     public synchronized void added(Item item) {
         HomekitTaggedItem taggedItem = new HomekitTaggedItem(item, itemRegistry);
         if (taggedItem.isTagged()) {
+            taggedItems.put(item.getName(), taggedItem);
             if (taggedItem.isRootDevice()) {
                 createRootDevice(taggedItem);
             }
@@ -47,25 +62,31 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
     }
 
     @Override
-    public void allItemsChanged(Collection<String> oldItemNames) {
-        clearAccessories();
+    public synchronized void allItemsChanged(Collection<String> oldItemNames) {
+        sync();
     }
 
     @Override
     public synchronized void removed(Item item) {
         HomekitTaggedItem taggedItem = new HomekitTaggedItem(item, itemRegistry);
         if (taggedItem.isTagged()) {
+            taggedItems.remove(item.getName());
             accessoryRegistry.remove(taggedItem);
         }
     }
 
     @Override
-    public void updated(Item oldElement, Item element) {
-        removed(oldElement);
-        added(element);
+    public synchronized void updated(Item oldElement, Item element) {
+        if (isUnchanged(element)) {
+            rebind(element);
+        } else {
+            removed(oldElement);
+            added(element);
+        }
     }
 
     public synchronized void clearAccessories() {
+        taggedItems.clear();
         accessoryRegistry.clear();
     }
 
@@ -76,7 +97,7 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
     public synchronized void setItemRegistry(ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
         itemRegistry.addRegistryChangeListener(this);
-        itemRegistry.getAll().forEach(item -> added(item));
+        sync();
     }
 
     public void setUpdater(HomekitAccessoryUpdater updater) {
@@ -93,6 +114,58 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
         }
     }
 
+    /**
+     * Brings the accessories in line with the item registry, only the accessories of
+     * items which have been added, changed or removed are touched.
+     */
+    private void sync() {
+        Set<String> itemNames = new HashSet<>();
+        for (Item item : itemRegistry.getAll()) {
+            itemNames.add(item.getName());
+            if (isUnchanged(item)) {
+                rebind(item);
+            } else {
+                HomekitTaggedItem oldTaggedItem = taggedItems.remove(item.getName());
+                if (oldTaggedItem != null) {
+                    accessoryRegistry.remove(oldTaggedItem);
+                }
+                added(item);
+            }
+        }
+        Iterator<Map.Entry<String, HomekitTaggedItem>> i = taggedItems.entrySet().iterator();
+        while (i.hasNext()) {
+            Map.Entry<String, HomekitTaggedItem> entry = i.next();
+            if (!itemNames.contains(entry.getKey())) {
+                i.remove();
+                accessoryRegistry.remove(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return true if the item has already been added and nothing has changed which its accessory depends on
+     */
+    private boolean isUnchanged(Item item) {
+        HomekitTaggedItem taggedItem = taggedItems.get(item.getName());
+        return taggedItem != null && signature(taggedItem.getItem()).equals(signature(item));
+    }
+
+    private void rebind(Item item) {
+        taggedItems.put(item.getName(), new HomekitTaggedItem(item, itemRegistry));
+        updater.rebind(item);
+    }
+
+    private static String signature(Item item) {
+        StringBuilder signature = new StringBuilder(item.getClass().getName());
+        if (item instanceof GroupItem && ((GroupItem) item).getBaseItem() != null) {
+            signature.append(':').append(((GroupItem) item).getBaseItem().getClass().getName());
+        }
+        signature.append('|').append(item.getLabel());
+        signature.append('|').append(new TreeSet<>(item.getTags()));
+        signature.append('|').append(new TreeSet<>(item.getGroupNames()));
+        return signature.toString();
+    }
+
     private void createRootDevice(HomekitTaggedItem taggedItem) {
         try {
             logger.debug("Adding homekit device {}", taggedItem.getItem().getName());
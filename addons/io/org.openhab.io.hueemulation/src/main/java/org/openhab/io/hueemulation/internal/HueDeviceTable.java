@@ -0,0 +1,334 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.hueemulation.internal;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.items.ItemRegistryChangeListener;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.io.hueemulation.internal.api.HueDevice;
+import org.openhab.io.hueemulation.internal.api.HueState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Keeps the Hue devices of all tagged items up to date from item registry changes and item state changes.
+ *
+ * Requests are served from an immutable {@link Snapshot}, which is only rebuilt on the first request after a change.
+ * Changes of the id map are written to disk in the background.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class HueDeviceTable implements ItemRegistryChangeListener {
+    private static final String THREADPOOL_HUEEMULATION = "hueemulation";
+    private static final long PERSIST_DELAY = 1000;
+    private static final String[] SUPPORTED_TAGS = new String[] { "Switchable", "Lighting" };
+
+    private final Logger logger = LoggerFactory.getLogger(HueDeviceTable.class);
+    private final Gson gson = new Gson();
+    private final File itemFile;
+    private final AtomicBoolean persistScheduled = new AtomicBoolean();
+
+    // deviceMap maps a Hue numeric id to a Item Name, ordered by that id
+    private final TreeMap<Integer, String> deviceMap = new TreeMap<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final Map<Integer, HueDevice> devices = new HashMap<>();
+    private ItemRegistry itemRegistry;
+    private boolean loaded;
+    private volatile Snapshot snapshot;
+
+    public HueDeviceTable(File itemFile) {
+        this.itemFile = itemFile;
+    }
+
+    /**
+     * Immutable view of all Hue devices with their pre-serialized JSON representation.
+     */
+    public static class Snapshot {
+        private final SortedMap<Integer, HueDevice> devices;
+        private final Map<Integer, String> deviceJson;
+        private final String json;
+        private final String etag;
+
+        private Snapshot(SortedMap<Integer, HueDevice> devices, Map<Integer, String> deviceJson, String json) {
+            this.devices = Collections.unmodifiableSortedMap(devices);
+            this.deviceJson = Collections.unmodifiableMap(deviceJson);
+            this.json = json;
+            this.etag = "\"" + Integer.toHexString(json.hashCode()) + Integer.toHexString(json.length()) + "\"";
+        }
+
+        public SortedMap<Integer, HueDevice> getDevices() {
+            return devices;
+        }
+
+        /**
+         * Returns the JSON representation of a single device or null if there is no device with that id.
+         */
+        public String getDeviceJson(Integer id) {
+            return deviceJson.get(id);
+        }
+
+        /**
+         * Returns the JSON representation of all devices.
+         */
+        public String getJson() {
+            return json;
+        }
+
+        public String getETag() {
+            return etag;
+        }
+    }
+
+    /**
+     * Loads the id map from disk and adds all tagged items of the registry.
+     */
+    public synchronized void setItemRegistry(ItemRegistry itemRegistry) {
+        this.itemRegistry = itemRegistry;
+        if (!loaded) {
+            load();
+            loaded = true;
+        }
+        itemRegistry.addRegistryChangeListener(this);
+        sync();
+    }
+
+    public synchronized void unsetItemRegistry(ItemRegistry itemRegistry) {
+        itemRegistry.removeRegistryChangeListener(this);
+        if (this.itemRegistry == itemRegistry) {
+            this.itemRegistry = null;
+        }
+    }
+
+    /**
+     * Writes pending changes of the id map to disk.
+     */
+    public void dispose() {
+        if (persistScheduled.get()) {
+            persist();
+        }
+    }
+
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                TreeMap<Integer, HueDevice> copy = new TreeMap<>(devices);
+                Map<Integer, String> deviceJson = new HashMap<>();
+                for (Map.Entry<Integer, HueDevice> entry : copy.entrySet()) {
+                    deviceJson.put(entry.getKey(), gson.toJson(entry.getValue()));
+                }
+                snapshot = new Snapshot(copy, deviceJson, gson.toJson(copy));
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Returns the name of the item for a Hue id or null if there is none.
+     */
+    public synchronized String getItemName(Integer id) {
+        return deviceMap.get(id);
+    }
+
+    /**
+     * Updates the device of an item with its new state.
+     */
+    public synchronized void stateChanged(String itemName, State state) {
+        Integer id = ids.get(itemName);
+        if (id != null) {
+            HueDevice device = devices.get(id);
+            devices.put(id, toDevice(device != null ? device.name : itemName, state, id));
+            snapshot = null;
+        }
+    }
+
+    @Override
+    public synchronized void added(Item item) {
+        if (isTagged(item)) {
+            Integer id = ids.get(item.getName());
+            if (id == null) {
+                // hue devices are assigned a numeric number starting with 1, if a device is
+                // removed that number is not used again. Not sure how high this id can get
+                // not worrying about it here
+                id = deviceMap.isEmpty() ? 1 : deviceMap.lastKey().intValue() + 1;
+                deviceMap.put(id, item.getName());
+                ids.put(item.getName(), id);
+                schedulePersist();
+            }
+            devices.put(id, toDevice(item.getLabel(), item.getState(), id));
+            snapshot = null;
+        }
+    }
+
+    @Override
+    public synchronized void removed(Item item) {
+        Integer id = ids.remove(item.getName());
+        if (id != null) {
+            deviceMap.remove(id);
+            devices.remove(id);
+            snapshot = null;
+            schedulePersist();
+        }
+    }
+
+    @Override
+    public synchronized void updated(Item oldItem, Item item) {
+        if (isTagged(item)) {
+            added(item);
+        } else {
+            removed(oldItem);
+        }
+    }
+
+    @Override
+    public synchronized void allItemsChanged(Collection<String> oldItemNames) {
+        sync();
+    }
+
+    /**
+     * Adds all tagged items of the registry and drops the devices of items which are gone or not tagged anymore.
+     */
+    private void sync() {
+        if (itemRegistry == null) {
+            return;
+        }
+        Set<String> taggedItems = new HashSet<>();
+        for (Item item : itemRegistry.getItems()) {
+            if (isTagged(item)) {
+                taggedItems.add(item.getName());
+                added(item);
+            }
+        }
+        boolean modified = false;
+        for (Iterator<Map.Entry<Integer, String>> it = deviceMap.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Integer, String> entry = it.next();
+            if (!taggedItems.contains(entry.getValue())) {
+                it.remove();
+                ids.remove(entry.getValue());
+                devices.remove(entry.getKey());
+                modified = true;
+            }
+        }
+        if (modified) {
+            snapshot = null;
+            schedulePersist();
+        }
+    }
+
+    private boolean isTagged(Item item) {
+        for (String tag : SUPPORTED_TAGS) {
+            if (item.getTags().contains(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts an item state to a HueDevice
+     */
+    private HueDevice toDevice(String label, State itemState, Integer key) {
+        HueState hueState;
+        if (itemState instanceof HSBType) {
+            HSBType color = (HSBType) itemState;
+            hueState = new HueState(color);
+        } else if (itemState instanceof DecimalType) {
+            short bri = (short) ((((DecimalType) itemState).intValue() * 255) / 100);
+            hueState = new HueState(bri);
+        } else if (itemState instanceof OnOffType) {
+            short bri = (short) (((OnOffType) itemState) == OnOffType.ON ? 255 : 0);
+            hueState = new HueState(bri);
+        } else {
+            hueState = new HueState((short) 0);
+        }
+
+        return new HueDevice(hueState, label, key);
+    }
+
+    private void load() {
+        if (!itemFile.exists()) {
+            return;
+        }
+        JsonReader reader = null;
+        try {
+            reader = new JsonReader(new FileReader(itemFile));
+            Map<Integer, String> tmpMap = gson.fromJson(reader, new TypeToken<Map<Integer, String>>() {
+            }.getType());
+            if (tmpMap != null) {
+                for (Map.Entry<Integer, String> entry : tmpMap.entrySet()) {
+                    deviceMap.put(entry.getKey(), entry.getValue());
+                    ids.put(entry.getValue(), entry.getKey());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not read item cache", e);
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+    }
+
+    private void schedulePersist() {
+        if (persistScheduled.compareAndSet(false, true)) {
+            ThreadPoolManager.getScheduledPool(THREADPOOL_HUEEMULATION).schedule(this::persist, PERSIST_DELAY,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void persist() {
+        persistScheduled.set(false);
+        Map<Integer, String> copy;
+        synchronized (this) {
+            copy = new TreeMap<>(deviceMap);
+        }
+        synchronized (itemFile) {
+            itemFile.getParentFile().mkdirs();
+            JsonWriter writer = null;
+            try {
+                writer = new JsonWriter(new FileWriter(itemFile));
+                gson.toJson(copy, new TypeToken<Map<Integer, String>>() {
+                }.getType(), writer);
+            } catch (IOException e) {
+                logger.error("Could not persist item cache", e);
+            } finally {
+                IOUtils.closeQuietly(writer);
+            }
+        }
+    }
+}
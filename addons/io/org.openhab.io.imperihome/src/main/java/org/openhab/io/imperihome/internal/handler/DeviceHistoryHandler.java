@@ -8,32 +8,34 @@
  */
 package org.openhab.io.imperihome.internal.handler;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.URLDecoder;
 import java.util.Date;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.regex.Matcher;
 
 import javax.servlet.http.HttpServletRequest;
 
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
 import org.eclipse.smarthome.core.persistence.HistoricItem;
 import org.eclipse.smarthome.core.persistence.PersistenceService;
 import org.eclipse.smarthome.core.persistence.PersistenceServiceRegistry;
 import org.eclipse.smarthome.core.persistence.QueryablePersistenceService;
 import org.eclipse.smarthome.core.types.State;
 import org.openhab.io.imperihome.internal.model.HistoryItem;
-import org.openhab.io.imperihome.internal.model.HistoryList;
 import org.openhab.io.imperihome.internal.model.device.AbstractDevice;
 import org.openhab.io.imperihome.internal.processor.DeviceRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.stream.JsonWriter;
+
 /**
- * Device history request handler.
+ * Device history request handler. The history is streamed to the client and aggregated on the server, so long ranges
+ * of frequently changing items don't result in huge responses.
  *
  * @author Pepijn de Geus - Initial contribution
  */
@@ -41,6 +43,9 @@ public class DeviceHistoryHandler {
 
     private static final String CHARSET = "UTF-8";
 
+    /** Maximum number of values in a history response */
+    private static final int MAX_POINTS = 500;
+
     private final Logger logger = LoggerFactory.getLogger(DeviceHistoryHandler.class);
 
     private final DeviceRegistry deviceRegistry;
@@ -51,7 +56,10 @@ public class DeviceHistoryHandler {
         this.persistenceServiceRegistry = persistenceServiceRegistry;
     }
 
-    public HistoryList handle(HttpServletRequest req, Matcher urlMatcher) {
+    /**
+     * Serves a history request by streaming the JSON response to the given writer.
+     */
+    public void handle(HttpServletRequest req, Matcher urlMatcher, Writer writer) throws IOException {
         String deviceId, field;
         long start, end;
         try {
@@ -65,55 +73,115 @@ public class DeviceHistoryHandler {
 
         logger.debug("History request for device {}, field {}: {}-{}", deviceId, field, start, end);
 
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.setSerializeNulls(true);
+
         AbstractDevice device = deviceRegistry.getDevice(deviceId);
         if (device == null) {
             logger.warn("Received history request for unknown device: {}", urlMatcher.group(0));
-            return null;
+            jsonWriter.nullValue().flush();
+            return;
         }
 
         PersistenceService persistence = persistenceServiceRegistry.getDefault();
         if (persistence == null) {
             logger.warn("Could not retrieve default persistence service; can't serve history request");
-            return null;
+            jsonWriter.nullValue().flush();
+            return;
         }
         if (!(persistence instanceof QueryablePersistenceService)) {
             logger.warn("Default persistence service is not queryable; can't serve history request");
-            return null;
+            jsonWriter.nullValue().flush();
+            return;
         }
 
-        return serveHistory(device, (QueryablePersistenceService) persistence, start, end);
+        serveHistory(device, (QueryablePersistenceService) persistence, start, end, jsonWriter);
     }
 
-    private HistoryList serveHistory(AbstractDevice device, QueryablePersistenceService persistence, long start,
-            long end) {
+    /**
+     * Writes the history of the device, aggregated to at most {@link #MAX_POINTS} values. Values are averaged per time
+     * bucket, a bucket containing a single value is written as is.
+     */
+    private void serveHistory(AbstractDevice device, QueryablePersistenceService persistence, long start, long end,
+            JsonWriter jsonWriter) throws IOException {
         logger.info("Querying persistence for history of Item {}, from {} to {}", device.getItemName(), start, end);
 
         FilterCriteria criteria = new FilterCriteria().setItemName(device.getItemName()).setBeginDate(new Date(start))
-                .setEndDate(new Date(end));
+                .setEndDate(new Date(end)).setOrdering(Ordering.ASCENDING);
+
+        long bucketSize = Math.max(1, (end - start) / MAX_POINTS);
+        Bucket bucket = new Bucket();
+        int resultCount = 0;
+        int valueCount = 0;
+
+        jsonWriter.beginObject().name("values").beginArray();
+
+        for (HistoricItem historicItem : persistence.query(criteria)) {
+            resultCount++;
+            State state = historicItem.getState();
+            if (state instanceof DecimalType) {
+                valueCount++;
+                long timestamp = historicItem.getTimestamp().getTime();
+                long index = (timestamp - start) / bucketSize;
+                if (bucket.count > 0 && bucket.index != index) {
+                    writeItem(jsonWriter, bucket.toHistoryItem());
+                    bucket.reset();
+                }
+                bucket.add(index, timestamp, ((DecimalType) state).toBigDecimal());
+            }
+        }
+        if (bucket.count > 0) {
+            writeItem(jsonWriter, bucket.toHistoryItem());
+        }
 
-        List<HistoryItem> resultItems = new LinkedList<>();
-        Iterable<HistoricItem> historicItems = persistence.query(criteria);
+        jsonWriter.endArray().endObject().flush();
 
-        Iterator<HistoricItem> iterator = historicItems.iterator();
-        if (!iterator.hasNext()) {
+        if (resultCount == 0) {
             logger.info("Persistence returned no results for history query");
+        } else if (valueCount == 0) {
+            logger.warn("Persistence returned results for history query, but could not be interpreted as DecimalTypes");
         } else {
-            while (iterator.hasNext()) {
-                HistoricItem historicItem = iterator.next();
-                State state = historicItem.getState();
-                if (state instanceof DecimalType) {
-                    Number value = ((DecimalType) state).toBigDecimal();
-                    resultItems.add(new HistoryItem(historicItem.getTimestamp(), value));
-                }
+            logger.debug("Served {} history values of Item {}", valueCount, device.getItemName());
+        }
+    }
+
+    private void writeItem(JsonWriter jsonWriter, HistoryItem item) throws IOException {
+        jsonWriter.beginObject().name("date").value(item.getDate()).name("value").value(item.getValue()).endObject();
+    }
+
+    /**
+     * Aggregates the values within a time bucket.
+     */
+    private static class Bucket {
+        private long index;
+        private int count;
+        private long timestampSum;
+        private double valueSum;
+        private Number firstValue;
+
+        void add(long index, long timestamp, Number value) {
+            if (count == 0) {
+                this.index = index;
+                firstValue = value;
             }
+            count++;
+            timestampSum += timestamp;
+            valueSum += value.doubleValue();
+        }
 
-            if (resultItems.isEmpty()) {
-                logger.warn(
-                        "Persistence returned results for history query, but could not be interpreted as DecimalTypes");
+        HistoryItem toHistoryItem() {
+            if (count == 1) {
+                return new HistoryItem(timestampSum, firstValue);
             }
+            return new HistoryItem(timestampSum / count, valueSum / count);
         }
 
-        return new HistoryList(resultItems);
+        void reset() {
+            count = 0;
+            timestampSum = 0;
+            valueSum = 0;
+            firstValue = null;
+        }
     }
 
 }
@@ -18,8 +18,10 @@ import org.openhab.io.imperihome.internal.processor.DeviceRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.Gson;
+
 /**
- * Device list request handler.
+ * Device list request handler. The serialized device list is cached until the version of the device registry changes.
  *
  * @author Pepijn de Geus - Initial contribution
  */
@@ -28,23 +30,57 @@ public class DevicesListHandler {
     private final Logger logger = LoggerFactory.getLogger(DevicesListHandler.class);
 
     private final DeviceRegistry deviceRegistry;
+    private final Gson gson;
+
+    private volatile CachedResponse cachedResponse;
 
-    public DevicesListHandler(DeviceRegistry deviceRegistry) {
+    public DevicesListHandler(DeviceRegistry deviceRegistry, Gson gson) {
         this.deviceRegistry = deviceRegistry;
+        this.gson = gson;
     }
 
-    public DeviceList handle(HttpServletRequest req) {
-        DeviceList response = new DeviceList();
+    /**
+     * @return JSON serialized device list.
+     */
+    public String handle(HttpServletRequest req) {
+        CachedResponse cached = cachedResponse;
+        if (cached != null && cached.version == deviceRegistry.getVersion()) {
+            logger.trace("Serving cached device list, version {}", cached.version);
+            return cached.json;
+        }
+
+        synchronized (this) {
+            // Read the version before building, so changes during the build invalidate the new response
+            long version = deviceRegistry.getVersion();
+            cached = cachedResponse;
+            if (cached != null && cached.version == version) {
+                return cached.json;
+            }
+
+            DeviceList response = new DeviceList();
 
-        Collection<AbstractDevice> devices = deviceRegistry.getDevices().values();
-        for (AbstractDevice device : devices) {
-            device.updateParams();
+            Collection<AbstractDevice> devices = deviceRegistry.getDevices().values();
+            for (AbstractDevice device : devices) {
+                device.updateParams();
+            }
+
+            response.setDevices(devices);
+
+            logger.debug("Device list response: {}", response);
+            cached = new CachedResponse(version, gson.toJson(response));
+            cachedResponse = cached;
+            return cached.json;
         }
+    }
 
-        response.setDevices(devices);
+    private static class CachedResponse {
+        private final long version;
+        private final String json;
 
-        logger.debug("Device list response: {}", response);
-        return response;
+        CachedResponse(long version, String json) {
+            this.version = version;
+            this.json = json;
+        }
     }
 
 }
@@ -175,6 +175,22 @@ public abstract class AbstractDevice implements StateChangeListener {
         return item;
     }
 
+    /**
+     * Moves this device to a new instance of its Item, e.g. after the Item has been updated in the item registry
+     * without changes relevant to this device.
+     *
+     * @param item New instance of the Item.
+     */
+    public void setItem(Item item) {
+        if (this.item instanceof GenericItem) {
+            ((GenericItem) this.item).removeStateChangeListener(this);
+        }
+        this.item = item;
+        if (item instanceof GenericItem) {
+            ((GenericItem) item).addStateChangeListener(this);
+        }
+    }
+
     public String getItemName() {
         return item.getName();
     }
@@ -219,6 +235,10 @@ public abstract class AbstractDevice implements StateChangeListener {
 
     @Override
     public void stateChanged(Item item, State oldState, State newState) {
+        // Called after stateUpdated(), so the params of this device are up to date already
+        if (deviceRegistry != null) {
+            deviceRegistry.deviceChanged(this);
+        }
     }
 
     @Override
@@ -15,6 +15,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.openhab.io.imperihome.internal.model.Room;
 import org.openhab.io.imperihome.internal.model.device.AbstractDevice;
@@ -22,7 +23,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * The device registry stores created devices by ID.
+ * The device registry stores created devices by ID. Its version changes whenever a device is added, removed or
+ * changed, so responses built from the devices can be cached until then.
  *
  * @author Pepijn de Geus - Initial contribution
  */
@@ -32,6 +34,7 @@ public class DeviceRegistry implements Iterable<AbstractDevice> {
 
     private final Map<String, AbstractDevice> devices;
     private Set<Room> rooms;
+    private final AtomicLong version = new AtomicLong();
 
     public DeviceRegistry() {
         devices = new ConcurrentHashMap<>();
@@ -67,6 +70,7 @@ public class DeviceRegistry implements Iterable<AbstractDevice> {
 
         devices.put(device.getId(), device);
         updateRooms();
+        version.incrementAndGet();
 
         logger.debug("Device {} added, registry now contains {} total", device.getName(), devices.size());
     }
@@ -75,11 +79,29 @@ public class DeviceRegistry implements Iterable<AbstractDevice> {
         AbstractDevice removed = devices.remove(deviceId);
         if (removed != null) {
             updateRooms();
+            version.incrementAndGet();
             logger.debug("Device {} removed, registry now contains {} total", removed.getName(), devices.size());
         }
         return removed;
     }
 
+    /**
+     * Marks the given device as changed, e.g. after its state has changed.
+     *
+     * @param device Changed device.
+     */
+    public void deviceChanged(AbstractDevice device) {
+        version.incrementAndGet();
+        logger.trace("Device {} changed", device.getName());
+    }
+
+    /**
+     * @return Version of the registry, changes whenever a device is added, removed or changed.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
     @Override
     public Iterator<AbstractDevice> iterator() {
         return devices.values().iterator();
@@ -94,6 +116,7 @@ public class DeviceRegistry implements Iterable<AbstractDevice> {
         if (rooms != null) {
             rooms.clear();
         }
+        version.incrementAndGet();
 
         logger.debug("Device registry cleared");
     }
@@ -8,12 +8,16 @@
  */
 package org.openhab.io.imperihome.internal.processor;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import org.apache.commons.lang.BooleanUtils;
 import org.apache.commons.lang.StringUtils;
@@ -60,6 +64,8 @@ import org.slf4j.LoggerFactory;
 /**
  * Processor of openHAB Items. Parses ISS tags and creates and registers {@link AbstractDevice} implementations where
  * applicable.
+ * Registry changes are applied incrementally: Items whose tags, label and type didn't change keep their device, which
+ * is only moved to the new Item instance.
  *
  * @author Pepijn de Geus - Initial contribution
  */
@@ -74,6 +80,9 @@ public class ItemProcessor implements ItemRegistryChangeListener {
     private final ActionRegistry actionRegistry;
     private final ImperiHomeConfig config;
 
+    // Item name -> tags the device of the Item has been created from, guarded by deviceRegistry
+    private final Map<String, ItemTags> itemTags = new HashMap<>();
+
     public ItemProcessor(ItemRegistry itemRegistry, DeviceRegistry deviceRegistry, ActionRegistry actionRegistry,
             ImperiHomeConfig config) {
         this.itemRegistry = itemRegistry;
@@ -94,6 +103,7 @@ public class ItemProcessor implements ItemRegistryChangeListener {
                 device.destroy();
             }
             deviceRegistry.clear();
+            itemTags.clear();
         }
     }
 
@@ -112,6 +122,9 @@ public class ItemProcessor implements ItemRegistryChangeListener {
                 device.setInverted(isInverted(issTags));
                 device.setActionRegistry(actionRegistry);
 
+                // Pass device registry to device for linked device lookup and change tracking
+                device.setDeviceRegistry(deviceRegistry);
+
                 setIcon(device, issTags);
                 setDeviceRoom(device, issTags);
                 setDeviceLinks(device, item, issTags);
@@ -127,6 +140,7 @@ public class ItemProcessor implements ItemRegistryChangeListener {
                 logger.debug("Item parsed to device: {}", device);
                 synchronized (deviceRegistry) {
                     deviceRegistry.add(device);
+                    itemTags.put(item.getName(), new ItemTags(item));
                 }
             }
         }
@@ -236,9 +250,6 @@ public class ItemProcessor implements ItemRegistryChangeListener {
 
     private void setDeviceLinks(AbstractDevice device, Item item, Map<TagType, List<String>> issTags) {
         if (issTags.containsKey(TagType.LINK)) {
-            // Pass device registry to device for linked device lookup
-            device.setDeviceRegistry(deviceRegistry);
-
             // Parse link tags
             for (String link : issTags.get(TagType.LINK)) {
                 String[] parts = link.split(":");
@@ -339,18 +350,17 @@ public class ItemProcessor implements ItemRegistryChangeListener {
         for (String tag : item.getTags()) {
             if (tag.startsWith(PREFIX_ISS)) {
                 String issTag = tag.substring(PREFIX_ISS.length());
-                for (TagType tagType : TagType.values()) {
-                    if (issTag.startsWith(tagType.getPrefix() + ':')) {
-                        String tagValue = issTag.substring(tagType.getPrefix().length() + 1);
-                        if (!tags.containsKey(tagType)) {
-                            tags.put(tagType, new LinkedList<String>());
-                        } else if (!tagType.isMultiValue()) {
-                            logger.error("Found multiple values for tag {} - only first value is used",
-                                    tagType.getPrefix());
-                        }
-                        tags.get(tagType).add(tagValue);
-                        break;
+                int separator = issTag.indexOf(':');
+                TagType tagType = separator > 0 ? TagType.forPrefix(issTag.substring(0, separator)) : null;
+                if (tagType != null) {
+                    String tagValue = issTag.substring(separator + 1);
+                    if (!tags.containsKey(tagType)) {
+                        tags.put(tagType, new LinkedList<String>());
+                    } else if (!tagType.isMultiValue()) {
+                        logger.error("Found multiple values for tag {} - only first value is used",
+                                tagType.getPrefix());
                     }
+                    tags.get(tagType).add(tagValue);
                 }
             }
         }
@@ -378,6 +388,7 @@ public class ItemProcessor implements ItemRegistryChangeListener {
         AbstractDevice device;
         synchronized (deviceRegistry) {
             device = deviceRegistry.remove(deviceId);
+            itemTags.remove(itemName);
         }
 
         if (device != null) {
@@ -386,6 +397,31 @@ public class ItemProcessor implements ItemRegistryChangeListener {
         }
     }
 
+    /**
+     * Moves the existing device of the given item to the new item instance, if nothing the device has been created
+     * from has changed. Must be called while holding the deviceRegistry lock.
+     *
+     * @param item New instance of the Item.
+     * @return True if the device has been kept, false if it has to be re-created.
+     */
+    private boolean rebindItem(Item item) {
+        ItemTags tags = itemTags.get(item.getName());
+        if (tags == null || !tags.matches(item)) {
+            return false;
+        }
+
+        AbstractDevice device = deviceRegistry.getDevice(getDeviceId(item));
+        if (device == null) {
+            return false;
+        }
+
+        logger.debug("Keeping device of unchanged Item {}", item.getName());
+        device.setItem(item);
+        device.stateUpdated(item, item.getState());
+        deviceRegistry.deviceChanged(device);
+        return true;
+    }
+
     /**
      * Generates an unique device ID for the given item.
      * @param item Item to get device ID for.
@@ -419,8 +455,12 @@ public class ItemProcessor implements ItemRegistryChangeListener {
     @Override
     public void updated(Item oldItem, Item newItem) {
         logger.debug("Processing item updated event");
-        removeItem(oldItem);
-        parseItem(newItem);
+        synchronized (deviceRegistry) {
+            if (!rebindItem(newItem)) {
+                removeItem(oldItem);
+                parseItem(newItem);
+            }
+        }
     }
 
     @Override
@@ -428,21 +468,42 @@ public class ItemProcessor implements ItemRegistryChangeListener {
         synchronized (deviceRegistry) {
             logger.debug("Processing allItemsChanged event");
 
-            if (oldItems != null) {
-                for (String oldItem : oldItems) {
-                    removeItem(oldItem);
+            Set<String> itemNames = new HashSet<>();
+            for (Item item : itemRegistry.getItems()) {
+                itemNames.add(item.getName());
+                if (!rebindItem(item)) {
+                    if (itemTags.containsKey(item.getName())) {
+                        removeItem(item);
+                    }
+                    parseItem(item);
                 }
             }
 
-            if (deviceRegistry.hasDevices()) {
-                logger.warn("There are still Devices left after processing all Items from allItemsChanged(): {}",
-                        deviceRegistry.getDevices());
-                deviceRegistry.clear();
+            for (String itemName : new ArrayList<>(itemTags.keySet())) {
+                if (!itemNames.contains(itemName)) {
+                    removeItem(itemName);
+                }
             }
+        }
+    }
 
-            for (Item item : itemRegistry.getItems()) {
-                parseItem(item);
-            }
+    /**
+     * The properties of an Item a device is created from.
+     */
+    private static class ItemTags {
+        private final Class<?> itemClass;
+        private final String label;
+        private final Set<String> tags;
+
+        ItemTags(Item item) {
+            itemClass = item.getClass();
+            label = item.getLabel();
+            tags = new HashSet<>(item.getTags());
+        }
+
+        boolean matches(Item item) {
+            return itemClass == item.getClass() && Objects.equals(label, item.getLabel())
+                    && tags.equals(item.getTags());
         }
     }
 
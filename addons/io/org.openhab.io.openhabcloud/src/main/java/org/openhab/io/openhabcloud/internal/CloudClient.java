@@ -18,16 +18,21 @@ import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.api.Request;
 import org.eclipse.jetty.client.api.Request.FailureListener;
 import org.eclipse.jetty.client.api.Response;
-import org.eclipse.jetty.client.api.Response.ContentListener;
+import org.eclipse.jetty.client.api.Response.AsyncContentListener;
 import org.eclipse.jetty.client.api.Response.HeadersListener;
 import org.eclipse.jetty.client.api.Result;
 import org.eclipse.jetty.client.util.BytesContentProvider;
@@ -35,7 +40,7 @@ import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
-import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.URIUtil;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.json.JSONException;
@@ -79,6 +84,19 @@ public class CloudClient {
      */
     private static final int HTTP_CLIENT_TIMEOUT = 30000;
 
+    private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
+
+    /*
+     * This constant defines the maximum size of a response content chunk sent to the openHAB Cloud
+     */
+    private static final int MAX_CONTENT_CHUNK_SIZE = 32 * 1024;
+
+    /*
+     * This constant defines how many bytes of response content may be handed to Socket.IO before reading from
+     * the local openHAB is paused until the transport has written them
+     */
+    private static final int MAX_PENDING_CONTENT_BYTES = 256 * 1024;
+
     /*
      * This variable holds base URL for the openHAB Cloud connections
      */
@@ -138,6 +156,30 @@ public class CloudClient {
     private boolean remoteAccessEnabled;
     private Set<String> exposedItems;
 
+    /*
+     * Item updates are collected for this number of milliseconds and only the latest state of every item is sent,
+     * 0 sends every update right away
+     */
+    private long updateWindow;
+
+    /*
+     * This map holds the latest state of the items which have been updated within the current update window
+     */
+    private final Map<String, String> pendingItemUpdates = new LinkedHashMap<>();
+    private ScheduledFuture<?> itemUpdateJob;
+    private final AtomicLong coalescedItemUpdates = new AtomicLong();
+    private final AtomicLong sentItemUpdates = new AtomicLong();
+
+    /*
+     * Number of response content bytes emitted since the Socket.IO transport has been drained the last time
+     */
+    private final AtomicLong pendingContentBytes = new AtomicLong();
+
+    /*
+     * Callbacks of response content which wait for the Socket.IO transport to be drained
+     */
+    private final Queue<Callback> waitingForDrain = new ConcurrentLinkedQueue<>();
+
     /**
      * Constructor of CloudClient
      *
@@ -193,6 +235,13 @@ public class CloudClient {
                         headers.put("remoteaccess", Arrays.asList(((Boolean) remoteAccessEnabled).toString()));
                     }
                 });
+                transport.on(Transport.EVENT_DRAIN, new Emitter.Listener() {
+                    @Override
+                    public void call(Object... args) {
+                        logger.trace("Transport.EVENT_DRAIN");
+                        onDrain();
+                    }
+                });
             }
         });
         socket.on(Socket.EVENT_CONNECT, new Emitter.Listener() {
@@ -271,6 +320,32 @@ public class CloudClient {
         if (runningRequests != null) {
             runningRequests.clear();
         }
+        pendingContentBytes.set(0);
+        Callback callback;
+        while ((callback = waitingForDrain.poll()) != null) {
+            callback.failed(new IOException("Disconnected from the openHAB Cloud service"));
+        }
+    }
+
+    /**
+     * Callback method for socket.io client which is called when the transport has written all buffered packets
+     */
+
+    private void onDrain() {
+        pendingContentBytes.set(0);
+        if (!waitingForDrain.isEmpty()) {
+            ThreadPoolManager.getScheduledPool(THREADPOOL_OPENHABCLOUD).execute(this::resumeContent);
+        }
+    }
+
+    /**
+     * Lets Jetty continue to deliver response content as long as the pending content is below the limit
+     */
+    private void resumeContent() {
+        Callback callback;
+        while (pendingContentBytes.get() <= MAX_PENDING_CONTENT_BYTES && (callback = waitingForDrain.poll()) != null) {
+            callback.succeeded();
+        }
     }
 
     /**
@@ -361,7 +436,8 @@ public class CloudClient {
                 return;
             }
             ResponseListener listener = new ResponseListener(requestId);
-            request.onResponseHeaders(listener).onResponseContent(listener).onRequestFailure(listener).send(listener);
+            request.onResponseHeaders(listener).onResponseContentAsync(listener).onRequestFailure(listener)
+                    .send(listener);
             // If successfully submitted request to http client, add it to the list of currently
             // running requests to be able to cancel it if needed
             runningRequests.put(requestId, request);
@@ -506,21 +582,74 @@ public class CloudClient {
      *
      */
     public void sendItemUpdate(String itemName, String itemState) {
+        if (updateWindow <= 0) {
+            if (isConnected()) {
+                emitItemUpdate(itemName, itemState);
+            } else {
+                logger.debug("No connection, Item update is not sent");
+            }
+            return;
+        }
+        synchronized (pendingItemUpdates) {
+            if (pendingItemUpdates.put(itemName, itemState) != null) {
+                coalescedItemUpdates.incrementAndGet();
+            }
+            if (itemUpdateJob == null) {
+                itemUpdateJob = ThreadPoolManager.getScheduledPool(THREADPOOL_OPENHABCLOUD)
+                        .schedule(this::sendPendingItemUpdates, updateWindow, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Sends the latest state of all items which have been updated within the update window
+     */
+    private void sendPendingItemUpdates() {
+        Map<String, String> updates;
+        synchronized (pendingItemUpdates) {
+            updates = new LinkedHashMap<>(pendingItemUpdates);
+            pendingItemUpdates.clear();
+            itemUpdateJob = null;
+        }
         if (isConnected()) {
-            logger.debug("Sending update '{}' for item '{}'", itemState, itemName);
-            JSONObject itemUpdateMessage = new JSONObject();
-            try {
-                itemUpdateMessage.put("itemName", itemName);
-                itemUpdateMessage.put("itemStatus", itemState);
-                socket.emit("itemupdate", itemUpdateMessage);
-            } catch (JSONException e) {
-                logger.error("{}", e.getMessage());
+            for (Map.Entry<String, String> update : updates.entrySet()) {
+                emitItemUpdate(update.getKey(), update.getValue());
             }
+            logger.debug("Sent {} item updates ({} sent, {} coalesced in total)", updates.size(),
+                    sentItemUpdates.get(), coalescedItemUpdates.get());
         } else {
-            logger.debug("No connection, Item update is not sent");
+            logger.debug("No connection, {} Item updates are not sent", updates.size());
         }
     }
 
+    private void emitItemUpdate(String itemName, String itemState) {
+        logger.debug("Sending update '{}' for item '{}'", itemState, itemName);
+        JSONObject itemUpdateMessage = new JSONObject();
+        try {
+            itemUpdateMessage.put("itemName", itemName);
+            itemUpdateMessage.put("itemStatus", itemState);
+            socket.emit("itemupdate", itemUpdateMessage);
+            sentItemUpdates.incrementAndGet();
+        } catch (JSONException e) {
+            logger.error("{}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of item updates which have been sent to the openHAB Cloud
+     */
+    public long getSentItemUpdateCount() {
+        return sentItemUpdates.get();
+    }
+
+    /**
+     * Returns the number of item updates which have not been sent because a later update of the same item superseded
+     * them within the update window
+     */
+    public long getCoalescedItemUpdateCount() {
+        return coalescedItemUpdates.get();
+    }
+
     /**
      * Returns true if openHAB Cloud connection is active
      */
@@ -533,6 +662,14 @@ public class CloudClient {
      */
     public void shutdown() {
         logger.info("Shutting down openHAB Cloud service connection");
+        synchronized (pendingItemUpdates) {
+            if (itemUpdateJob != null) {
+                itemUpdateJob.cancel(false);
+                itemUpdateJob = null;
+            }
+            pendingItemUpdates.clear();
+        }
+        logger.debug("Sent {} item updates, {} were coalesced", sentItemUpdates.get(), coalescedItemUpdates.get());
         try {
             jettyClient.stop();
         } catch (Exception e) {
@@ -553,15 +690,26 @@ public class CloudClient {
         this.listener = listener;
     }
 
+    /**
+     * Sets the window in milliseconds within which item updates are coalesced, 0 sends every update right away
+     */
+    public void setUpdateWindow(long updateWindow) {
+        this.updateWindow = updateWindow;
+    }
+
     /*
      * An internal class which forwards response headers and data back to the openHAB Cloud
      */
     private class ResponseListener
-            implements Response.CompleteListener, HeadersListener, ContentListener, FailureListener {
+            implements Response.CompleteListener, HeadersListener, AsyncContentListener, FailureListener {
 
-        private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
         private int mRequestId;
         private boolean mHeadersSent = false;
+        private final long mStartTime = System.nanoTime();
+        private long mFirstContentTime;
+        private long mBytes;
+        private int mChunks;
+        private int mPauses;
 
         public ResponseListener(int requestId) {
             mRequestId = requestId;
@@ -583,6 +731,15 @@ public class CloudClient {
         public void onComplete(Result result) {
             // Remove this request from list of running requests
             runningRequests.remove(mRequestId);
+            if (logger.isDebugEnabled()) {
+                long now = System.nanoTime();
+                logger.debug(
+                        "Request {} forwarded {} bytes in {} chunks within {} ms, first content after {} ms, "
+                                + "paused {} times",
+                        mRequestId, mBytes, mChunks, TimeUnit.NANOSECONDS.toMillis(now - mStartTime),
+                        mFirstContentTime == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(mFirstContentTime - mStartTime),
+                        mPauses);
+            }
             if (result.isFailed() && result.getResponse().getStatus() != HttpStatus.OK_200) {
                 logger.warn("Jetty request {} failed: {}", mRequestId, result.getFailure().getMessage());
                 logger.warn("{}", result.getRequestFailure().getMessage());
@@ -620,17 +777,40 @@ public class CloudClient {
         }
 
         @Override
-        public void onContent(Response response, ByteBuffer content) {
-            logger.debug("Jetty received response content of size {}", String.valueOf(content.remaining()));
-            JSONObject responseJson = new JSONObject();
+        public void onContent(Response response, ByteBuffer content, Callback callback) {
+            int size = content.remaining();
+            logger.debug("Jetty received response content of size {}", size);
+            if (mFirstContentTime == 0) {
+                mFirstContentTime = System.nanoTime();
+            }
             try {
-                responseJson.put("id", mRequestId);
-                responseJson.put("body", BufferUtil.toArray(content));
-                socket.emit("responseContentBinary", responseJson);
+                while (content.hasRemaining()) {
+                    byte[] chunk = new byte[Math.min(content.remaining(), MAX_CONTENT_CHUNK_SIZE)];
+                    content.get(chunk);
+                    JSONObject responseJson = new JSONObject();
+                    responseJson.put("id", mRequestId);
+                    responseJson.put("body", chunk);
+                    socket.emit("responseContentBinary", responseJson);
+                    mChunks++;
+                }
+                mBytes += size;
                 logger.debug("Sent content to request {}", mRequestId);
             } catch (JSONException e) {
                 logger.error("{}", e.getMessage());
             }
+
+            if (pendingContentBytes.addAndGet(size) <= MAX_PENDING_CONTENT_BYTES) {
+                callback.succeeded();
+            } else {
+                // wait until Socket.IO has written the content before reading more from openHAB
+                logger.trace("Pausing request {} until the content has been sent", mRequestId);
+                mPauses++;
+                waitingForDrain.add(callback);
+                // the transport might have been drained in the meantime
+                if (pendingContentBytes.get() <= MAX_PENDING_CONTENT_BYTES) {
+                    resumeContent();
+                }
+            }
         }
 
         @Override
@@ -60,6 +60,7 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
     private static final String CFG_EXPOSE = "expose";
     private static final String CFG_BASE_URL = "baseURL";
     private static final String CFG_MODE = "mode";
+    private static final String CFG_UPDATE_WINDOW = "updateWindow";
     private static final String SECRET_FILE_NAME = "openhabcloud" + File.separator + "secret";
     private static final String DEFAULT_URL = "https://myopenhab.org/";
 
@@ -74,6 +75,7 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
     private boolean remoteAccessEnabled = true;
     private Set<String> exposedItems = null;
     private int localPort;
+    private long updateWindow = 0;
 
     public CloudService() {
     }
@@ -165,6 +167,18 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
             cloudBaseUrl = DEFAULT_URL;
         }
 
+        Object windowCfg = config.get(CFG_UPDATE_WINDOW);
+        if (windowCfg != null) {
+            try {
+                updateWindow = Math.max(0, Long.parseLong(windowCfg.toString()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid update window '{}', sending item updates right away", windowCfg);
+                updateWindow = 0;
+            }
+        } else {
+            updateWindow = 0;
+        }
+
         exposedItems = new HashSet<>();
         Object expCfg = config.get(CFG_EXPOSE);
         if (expCfg instanceof String) {
@@ -194,6 +208,7 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
         cloudClient = new CloudClient(InstanceUUID.get(), getSecret(), cloudBaseUrl, localBaseUrl, remoteAccessEnabled,
                 exposedItems);
         cloudClient.setOpenHABVersion(OpenHAB.getVersion());
+        cloudClient.setUpdateWindow(updateWindow);
         cloudClient.connect();
         cloudClient.setListener(this);
         NotificationAction.cloudService = this;
@@ -69,14 +69,12 @@ public class StateBeanMessageBodyWriter implements MessageBodyWriter<Object> {
     public String serialize(Object bean) {
         String msg = "{\"d\":{";
         if (bean instanceof StateBean) {
-            StateBean stateBean = (StateBean) bean;
-            msg += "\"" + stateBean.name + "\":\"" + stateBean.state + "\"";
+            msg += serializeState((StateBean) bean);
         } else if (bean instanceof List<?>) {
             List<String> states = new ArrayList<String>();
             for (Object bo : (List<?>) bean) {
                 if (bo instanceof StateBean) {
-                    StateBean stateBean = (StateBean) bo;
-                    states.add("\"" + stateBean.name + "\":\"" + stateBean.state + "\"");
+                    states.add(serializeState((StateBean) bo));
                 }
             }
             if (states.size() > 0) {
@@ -86,4 +84,15 @@ public class StateBeanMessageBodyWriter implements MessageBodyWriter<Object> {
         msg += "}}";
         return msg;
     }
+
+    /**
+     *
+     * @param stateBean
+     *            - StateBean
+     * @return String
+     *         - a single item state in CV-Protocol format "item":"state"
+     */
+    public String serializeState(StateBean stateBean) {
+        return "\"" + stateBean.name + "\":\"" + stateBean.state + "\"";
+    }
 }
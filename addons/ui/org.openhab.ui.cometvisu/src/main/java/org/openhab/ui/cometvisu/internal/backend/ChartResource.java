@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -21,6 +22,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
 
 import javax.ws.rs.GET;
@@ -33,10 +35,14 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventFilter;
+import org.eclipse.smarthome.core.events.EventSubscriber;
 import org.eclipse.smarthome.core.items.GroupItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemNotFoundException;
 import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.items.events.ItemStateEvent;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.persistence.FilterCriteria;
 import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
@@ -57,14 +63,25 @@ import org.slf4j.LoggerFactory;
  * handles requests for chart series data from the CometVisu client
  * used by the diagram plugin
  *
+ * Series of generic persistence services are reduced to one value per
+ * requested resolution. Recently requested series are cached until one of
+ * their items receives a new state.
+ *
  * @author Tobias Bräutigam
  * @since 2.0.0
  *
  */
 @Path(Config.COMETVISU_BACKEND_ALIAS + "/" + Config.COMETVISU_BACKEND_CHART_ALIAS)
-public class ChartResource implements RESTResource {
+public class ChartResource implements RESTResource, EventSubscriber {
     private final Logger logger = LoggerFactory.getLogger(ChartResource.class);
 
+    // maximum number of values returned for a series of a generic persistence service
+    private static final int MAX_POINTS = 2000;
+
+    private static final int CACHE_SIZE = 50;
+
+    private static final long CACHE_MAX_AGE = 5 * 60 * 1000;
+
     // pattern RRDTool uses to format doubles in XML files
     static final String PATTERN = "0.0000000000E00";
 
@@ -83,6 +100,8 @@ public class ChartResource implements RESTResource {
 
     private ItemRegistry itemRegistry;
 
+    private final ChartSeriesCache cache = new ChartSeriesCache(CACHE_SIZE, CACHE_MAX_AGE);
+
     @Context
     private UriInfo uriInfo;
 
@@ -94,6 +113,7 @@ public class ChartResource implements RESTResource {
 
     public void removePersistenceService(PersistenceService service) {
         persistenceServices.remove(service.getId());
+        cache.clear();
     }
 
     public static Map<String, QueryablePersistenceService> getPersistenceServices() {
@@ -108,6 +128,21 @@ public class ChartResource implements RESTResource {
         this.itemRegistry = null;
     }
 
+    @Override
+    public Set<String> getSubscribedEventTypes() {
+        return Collections.singleton(ItemStateEvent.TYPE);
+    }
+
+    @Override
+    public EventFilter getEventFilter() {
+        return null;
+    }
+
+    @Override
+    public void receive(Event event) {
+        cache.stateUpdated(((ItemStateEvent) event).getItemName());
+    }
+
     @GET
     @Produces({ MediaType.APPLICATION_JSON })
     public Response getChartSeries(@Context HttpHeaders headers, @QueryParam("rrd") String itemName,
@@ -161,12 +196,36 @@ public class ChartResource implements RESTResource {
             } else {
                 logger.debug("using {} persistence for item {}", persistenceService.getId(), itemName);
             }
-            Object data = null;
             if (persistenceService.getId().equals("rrd4j")) {
-                data = getRrdSeries(persistenceService, item, consilidationFunction, startTime, endTime, resolution);
-            } else {
-                data = getPersistenceSeries(persistenceService, item, startTime, endTime, resolution);
+                // rrd4j series are read from the rrd files directly and are not cached
+                Object data = getRrdSeries(persistenceService, item, consilidationFunction, startTime, endTime,
+                        resolution);
+                return Response.ok(data, responseType).build();
             }
+
+            // align the range to the resolution steps, so that requests for the same steps share a cached series
+            long bucketSize = getBucketSize(endTime.getTime() - startTime.getTime(), resolution);
+            startTime.setTime(startTime.getTime() / bucketSize * bucketSize);
+            endTime.setTime((endTime.getTime() + bucketSize - 1) / bucketSize * bucketSize);
+            String cacheKey = persistenceService.getId() + "|" + item.getName() + "|" + consilidationFunction + "|"
+                    + startTime.getTime() + "|" + endTime.getTime() + "|" + resolution;
+            Object data = cache.get(cacheKey);
+            if (data != null) {
+                logger.debug("using cached series for item {}", itemName);
+                return Response.ok(data, responseType).build();
+            }
+            // state updates during the query invalidate the series
+            long created = System.currentTimeMillis();
+            data = getBucketedSeries(persistenceService, item, consilidationFunction, startTime, endTime,
+                    bucketSize);
+            List<String> itemNames = new ArrayList<String>();
+            itemNames.add(item.getName());
+            if (item instanceof GroupItem) {
+                for (Item member : ((GroupItem) item).getMembers()) {
+                    itemNames.add(member.getName());
+                }
+            }
+            cache.put(cacheKey, itemNames, data, created);
             return Response.ok(data, responseType).build();
         } catch (ItemNotFoundException e1) {
             logger.error("Item '{}' not found error while requesting series data.", itemName);
@@ -177,7 +236,39 @@ public class ChartResource implements RESTResource {
 
     public Object getPersistenceSeries(QueryablePersistenceService persistenceService, Item item, Date timeBegin,
             Date timeEnd, long resolution) {
-        Map<Long, ArrayList<String>> data = new HashMap<Long, ArrayList<String>>();
+        return getPersistenceSeries(persistenceService, item, ConsolFun.AVERAGE, timeBegin, timeEnd, resolution);
+    }
+
+    /**
+     * returns a series of a generic persistence service with at most one value
+     * per resolution, the values within a resolution step are consolidated by
+     * the given function
+     *
+     * @param persistenceService
+     * @param item
+     * @param consilidationFunction
+     * @param timeBegin
+     * @param timeEnd
+     * @param resolution
+     *            - in seconds
+     * @return
+     */
+    public Object getPersistenceSeries(QueryablePersistenceService persistenceService, Item item,
+            ConsolFun consilidationFunction, Date timeBegin, Date timeEnd, long resolution) {
+        return getBucketedSeries(persistenceService, item, consilidationFunction, timeBegin, timeEnd,
+                getBucketSize(timeEnd.getTime() - timeBegin.getTime(), resolution));
+    }
+
+    /**
+     * returns a series of a generic persistence service with one value per
+     * step of the given length
+     *
+     * @param bucketSize
+     *            - the step length in milliseconds
+     */
+    private Object getBucketedSeries(QueryablePersistenceService persistenceService, Item item,
+            ConsolFun consilidationFunction, Date timeBegin, Date timeEnd, long bucketSize) {
+        Map<Long, Bucket> buckets = new TreeMap<Long, Bucket>();
 
         // Define the data filter
         FilterCriteria filter = new FilterCriteria();
@@ -197,14 +288,44 @@ public class ChartResource implements RESTResource {
             HistoricItem historicItem = it.next();
             org.eclipse.smarthome.core.types.State state = historicItem.getState();
             if (state instanceof DecimalType) {
-                ArrayList<String> vals = new ArrayList<String>();
-                vals.add(formatDouble(((DecimalType) state).doubleValue(), "null", true));
-                data.put(historicItem.getTimestamp().getTime(), vals);
+                long time = historicItem.getTimestamp().getTime();
+                long bucketStart = time - (time % bucketSize);
+                Bucket bucket = buckets.get(bucketStart);
+                if (bucket == null) {
+                    bucket = new Bucket();
+                    buckets.put(bucketStart, bucket);
+                }
+                bucket.add(((DecimalType) state).doubleValue());
             }
         }
-        logger.debug("'{}' querying item '{}' from '{}' to '{}' => '{}' results", persistenceService.getId(),
-                filter.getItemName(), filter.getBeginDate(), filter.getEndDate(), dataCounter);
-        return convertToRrd(data);
+        logger.debug("'{}' querying item '{}' from '{}' to '{}' => '{}' results in '{}' steps",
+                persistenceService.getId(), filter.getItemName(), filter.getBeginDate(), filter.getEndDate(),
+                dataCounter, buckets.size());
+
+        ArrayList<Object> rrd = new ArrayList<Object>(buckets.size());
+        for (Entry<Long, Bucket> bucket : buckets.entrySet()) {
+            ArrayList<String> vals = new ArrayList<String>(1);
+            vals.add(formatDouble(bucket.getValue().getValue(consilidationFunction), "null", true));
+            Object[] entry = new Object[2];
+            entry[0] = bucket.getKey();
+            entry[1] = vals;
+            rrd.add(entry);
+        }
+        return rrd;
+    }
+
+    /**
+     * returns the length of a step of a series, which is at least the
+     * resolution and limits the series to {@link #MAX_POINTS} values
+     *
+     * @param range
+     *            - in milliseconds
+     * @param resolution
+     *            - in seconds
+     * @return the step length in milliseconds
+     */
+    private static long getBucketSize(long range, long resolution) {
+        return Math.max(Math.max(resolution * 1000, (range + MAX_POINTS - 1) / MAX_POINTS), 1);
     }
 
     /**
@@ -291,6 +412,46 @@ public class ChartResource implements RESTResource {
         return data;
     }
 
+    /**
+     * values of a series within one resolution step
+     */
+    private static class Bucket {
+        private int count;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double first;
+        private double last;
+
+        void add(double value) {
+            if (count == 0) {
+                first = value;
+            }
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            last = value;
+        }
+
+        double getValue(ConsolFun consilidationFunction) {
+            switch (consilidationFunction) {
+                case MIN:
+                    return min;
+                case MAX:
+                    return max;
+                case FIRST:
+                    return first;
+                case LAST:
+                    return last;
+                case TOTAL:
+                    return sum;
+                default:
+                    return sum / count;
+            }
+        }
+    }
+
     static String formatDouble(double x, String nanString, boolean forceExponents) {
         if (Double.isNaN(x)) {
             return nanString;
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.backend;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * least recently used cache of chart series
+ *
+ * An entry is valid until one of the items it has been built from receives a
+ * new state or it is older than the maximum age.
+ *
+ * @author agent
+ * @since 2.3.0
+ */
+public class ChartSeriesCache {
+
+    private final int maxEntries;
+
+    private final long maxAge;
+
+    private final Map<String, Entry> entries;
+
+    // item name -> time of its last state update, also of items whose series
+    // are being queried and not cached yet
+    private final Map<String, Long> lastUpdates = new ConcurrentHashMap<String, Long>();
+
+    /**
+     * @param maxEntries
+     *            - maximum number of cached series
+     * @param maxAge
+     *            - maximum age of a cached series in milliseconds
+     */
+    public ChartSeriesCache(int maxEntries, long maxAge) {
+        this.maxEntries = maxEntries;
+        this.maxAge = maxAge;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ChartSeriesCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return the cached series or null if there is no valid one
+     */
+    public synchronized Object get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && isValid(entry)) {
+            return entry.series;
+        }
+        if (entry != null) {
+            entries.remove(key);
+        }
+        return null;
+    }
+
+    /**
+     * caches a series
+     *
+     * @param key
+     *            - the key of the series
+     * @param itemNames
+     *            - names of the items the series contains data of
+     * @param series
+     *            - the series data
+     * @param created
+     *            - the time the series has been queried at, state updates
+     *            since then invalidate it
+     */
+    public synchronized void put(String key, Collection<String> itemNames, Object series, long created) {
+        entries.put(key, new Entry(created, itemNames, series));
+    }
+
+    /**
+     * invalidates the cached series containing data of the given item
+     */
+    public void stateUpdated(String itemName) {
+        lastUpdates.put(itemName, System.currentTimeMillis());
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        lastUpdates.clear();
+    }
+
+    private boolean isValid(Entry entry) {
+        if (System.currentTimeMillis() - entry.created > maxAge) {
+            return false;
+        }
+        for (String itemName : entry.itemNames) {
+            Long lastUpdate = lastUpdates.get(itemName);
+            if (lastUpdate != null && lastUpdate >= entry.created) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Entry {
+        private final long created;
+        private final Collection<String> itemNames;
+        private final Object series;
+
+        Entry(long created, Collection<String> itemNames, Object series) {
+            this.created = created;
+            this.itemNames = itemNames;
+            this.series = series;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.backend;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.smarthome.core.types.State;
+import org.glassfish.jersey.media.sse.EventOutput;
+import org.openhab.ui.cometvisu.internal.util.SseUtil;
+
+/**
+ * the items a single connected CometVisu client has subscribed to and the
+ * state updates which have not been sent to it yet
+ *
+ * @author agent
+ * @since 2.3.0
+ */
+public class ClientSubscription {
+
+    private final EventOutput eventOutput;
+
+    // openHAB item name -> CometVisu item names with the requested state type
+    private final Map<String, Map<String, Class<? extends State>>> items = new HashMap<>();
+
+    // CometVisu item name -> serialized state, only the latest state of an item is kept
+    private final Map<String, String> pendingStates = new LinkedHashMap<>();
+
+    private boolean flushScheduled;
+
+    private long lastFlush;
+
+    public ClientSubscription(EventOutput eventOutput) {
+        this.eventOutput = eventOutput;
+    }
+
+    public void addItem(String ohItemName, String cvItemName, Class<? extends State> stateClass) {
+        Map<String, Class<? extends State>> cvItems = items.get(ohItemName);
+        if (cvItems == null) {
+            cvItems = new HashMap<>();
+            items.put(ohItemName, cvItems);
+        }
+        cvItems.put(cvItemName, stateClass);
+    }
+
+    /**
+     * @return the CometVisu item names and their state types subscribed for the given openHAB item
+     */
+    public Map<String, Class<? extends State>> getClientItems(String ohItemName) {
+        Map<String, Class<? extends State>> cvItems = items.get(ohItemName);
+        return cvItems != null ? cvItems : Collections.emptyMap();
+    }
+
+    public Set<String> getItemNames() {
+        return items.keySet();
+    }
+
+    public boolean isClosed() {
+        return eventOutput.isClosed();
+    }
+
+    /**
+     * queues a serialized state, a queued state of the same item which has not
+     * been sent yet is replaced
+     *
+     * @param cvItemName
+     *            - the CometVisu item name
+     * @param serializedState
+     *            - the state in CV-Protocol format ("item":"state")
+     * @return true if the caller has to schedule a flush
+     */
+    public synchronized boolean queue(String cvItemName, String serializedState) {
+        pendingStates.remove(cvItemName);
+        pendingStates.put(cvItemName, serializedState);
+        if (flushScheduled) {
+            return false;
+        }
+        flushScheduled = true;
+        return true;
+    }
+
+    /**
+     * @return the time of the last flush in milliseconds
+     */
+    public synchronized long getLastFlush() {
+        return lastFlush;
+    }
+
+    /**
+     * sends all queued states in one event
+     *
+     * @return false if the client is not connected anymore
+     */
+    public boolean flush() {
+        StringBuilder msg = new StringBuilder("{\"d\":{");
+        synchronized (this) {
+            flushScheduled = false;
+            lastFlush = System.currentTimeMillis();
+            if (pendingStates.isEmpty()) {
+                return !isClosed();
+            }
+            boolean first = true;
+            for (String state : pendingStates.values()) {
+                if (!first) {
+                    msg.append(',');
+                }
+                msg.append(state);
+                first = false;
+            }
+            pendingStates.clear();
+        }
+        msg.append("}}");
+        return send(msg.toString());
+    }
+
+    /**
+     * sends an already serialized message to the client
+     *
+     * @return false if the client is not connected anymore
+     */
+    public boolean send(String msg) {
+        if (isClosed()) {
+            return false;
+        }
+        try {
+            eventOutput.write(SseUtil.buildSerializedEvent(msg));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -14,9 +14,13 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -35,9 +39,9 @@ import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.io.rest.RESTResource;
 import org.glassfish.jersey.media.sse.EventOutput;
-import org.glassfish.jersey.media.sse.SseBroadcaster;
 import org.glassfish.jersey.media.sse.SseFeature;
 import org.openhab.ui.cometvisu.internal.Config;
+import org.openhab.ui.cometvisu.internal.StateBeanMessageBodyWriter;
 import org.openhab.ui.cometvisu.internal.backend.beans.StateBean;
 import org.openhab.ui.cometvisu.internal.listeners.StateEventListener;
 import org.openhab.ui.cometvisu.internal.util.SseUtil;
@@ -48,6 +52,10 @@ import org.slf4j.LoggerFactory;
  * handles read request from the CometVisu client every request initializes a
  * SSE communication
  *
+ * Every client only receives the state changes of the items it has requested.
+ * State changes which follow each other within a short time are collected and
+ * sent to the client in one event.
+ *
  * @author Tobias Bräutigam
  * @since 2.0.0
  */
@@ -55,16 +63,27 @@ import org.slf4j.LoggerFactory;
 public class ReadResource implements EventBroadcaster, RESTResource {
     private final Logger logger = LoggerFactory.getLogger(ReadResource.class);
 
-    private SseBroadcaster broadcaster = new SseBroadcaster();
+    /**
+     * minimum time in milliseconds between two events sent to the same client
+     */
+    private static final long COALESCE_WINDOW = 100;
 
-    private final ExecutorService executorService;
+    private final ScheduledExecutorService executorService;
 
     private ItemRegistry itemRegistry;
 
     private StateEventListener stateEventListener;
 
-    private List<String> itemNames = new ArrayList<String>();
-    private Map<Item, Map<String, Class<? extends State>>> items = new HashMap<Item, Map<String, Class<? extends State>>>();
+    private final StateBeanMessageBodyWriter writer = new StateBeanMessageBodyWriter();
+
+    // all connected clients
+    private final Set<ClientSubscription> clients = new CopyOnWriteArraySet<ClientSubscription>();
+
+    // CometVisu item name -> clients which have subscribed to it
+    private final Map<String, Set<ClientSubscription>> subscribers = new ConcurrentHashMap<>();
+
+    // openHAB item name -> CometVisu item names and state types requested by any client
+    private final Map<String, Map<String, Class<? extends State>>> clientItems = new ConcurrentHashMap<>();
 
     @Context
     private UriInfo uriInfo;
@@ -78,7 +97,7 @@ public class ReadResource implements EventBroadcaster, RESTResource {
     private Collection<ItemFactory> itemFactories = new CopyOnWriteArrayList<ItemFactory>();
 
     public ReadResource() {
-        this.executorService = Executors.newSingleThreadExecutor();
+        this.executorService = Executors.newSingleThreadScheduledExecutor();
         this.stateEventListener = new StateEventListener();
         this.stateEventListener.setEventBroadcaster(this);
     }
@@ -114,14 +133,9 @@ public class ReadResource implements EventBroadcaster, RESTResource {
     public Object getStates(@QueryParam("a") List<String> itemNames, @QueryParam("i") long index,
             @QueryParam("t") long time) throws IOException, InterruptedException {
         final EventOutput eventOutput = new EventOutput();
-
-        this.itemNames = itemNames;
-
-        broadcaster.add(eventOutput);
+        final ClientSubscription client = new ClientSubscription(eventOutput);
 
         // get all requested items and send their states to the client
-        items = new HashMap<Item, Map<String, Class<? extends State>>>();
-        // send the current states of all items to the client
         if (this.itemRegistry != null) {
             List<StateBean> states = new ArrayList<StateBean>();
             for (String cvItemName : itemNames) {
@@ -141,10 +155,7 @@ public class ReadResource implements EventBroadcaster, RESTResource {
                         ohItemName = parts[1];
                     }
                     Item item = this.itemRegistry.getItem(ohItemName);
-                    if (!items.containsKey(item)) {
-                        items.put(item, new HashMap<String, Class<? extends State>>());
-                    }
-                    items.get(item).put(cvItemName, stateClass);
+                    client.addItem(item.getName(), cvItemName, stateClass);
                     StateBean itemState = new StateBean();
                     itemState.name = cvItemName;
 
@@ -159,23 +170,96 @@ public class ReadResource implements EventBroadcaster, RESTResource {
                     logger.error("{}", e.getLocalizedMessage());
                 }
             }
-            logger.debug("initially broadcasting {}/{} item states", states.size(), itemNames.size());
-            broadcaster.broadcast(SseUtil.buildEvent(states));
+            logger.debug("initially sending {}/{} item states", states.size(), itemNames.size());
+            client.send(writer.serialize(states));
         }
-        // listen to state changes of the requested items
-        registerItems();
+        addClient(client);
 
         return eventOutput;
     }
 
+    private synchronized void addClient(ClientSubscription client) {
+        removeClosedClients();
+        clients.add(client);
+        for (String ohItemName : client.getItemNames()) {
+            Map<String, Class<? extends State>> cvItems = client.getClientItems(ohItemName);
+            for (Map.Entry<String, Class<? extends State>> cvItem : cvItems.entrySet()) {
+                subscribers.computeIfAbsent(cvItem.getKey(), k -> new CopyOnWriteArraySet<ClientSubscription>())
+                        .add(client);
+            }
+            clientItems.computeIfAbsent(ohItemName, k -> new ConcurrentHashMap<String, Class<? extends State>>())
+                    .putAll(cvItems);
+            // listen to state changes of the requested items
+            registerItemListener(ohItemName);
+        }
+        logger.debug("client subscribed to {} items, {} clients connected", client.getItemNames().size(),
+                clients.size());
+    }
+
+    private void removeClosedClients() {
+        for (ClientSubscription client : clients) {
+            if (client.isClosed()) {
+                removeClient(client);
+            }
+        }
+    }
+
+    private synchronized void removeClient(ClientSubscription client) {
+        if (!clients.remove(client)) {
+            return;
+        }
+        for (String ohItemName : client.getItemNames()) {
+            for (String cvItemName : client.getClientItems(ohItemName).keySet()) {
+                Set<ClientSubscription> cvSubscribers = subscribers.get(cvItemName);
+                if (cvSubscribers != null) {
+                    cvSubscribers.remove(client);
+                    if (cvSubscribers.isEmpty()) {
+                        subscribers.remove(cvItemName);
+                        Map<String, Class<? extends State>> cvItems = clientItems.get(ohItemName);
+                        if (cvItems != null) {
+                            cvItems.remove(cvItemName);
+                        }
+                    }
+                }
+            }
+            Map<String, Class<? extends State>> cvItems = clientItems.get(ohItemName);
+            if (cvItems != null && cvItems.isEmpty()) {
+                clientItems.remove(ohItemName);
+                unregisterItemListener(ohItemName);
+            }
+        }
+        logger.debug("client disconnected, {} clients connected", clients.size());
+    }
+
     /**
      * listen for state changes from the requested items
      */
     @Override
     public void registerItems() {
-        for (Item item : items.keySet()) {
-            if (item instanceof GenericItem) {
-                ((GenericItem) item).addStateChangeListener(stateEventListener);
+        for (String ohItemName : clientItems.keySet()) {
+            registerItemListener(ohItemName);
+        }
+    }
+
+    private void registerItemListener(String ohItemName) {
+        if (this.itemRegistry != null) {
+            try {
+                registerItem(this.itemRegistry.getItem(ohItemName));
+            } catch (ItemNotFoundException e) {
+                logger.debug("{}", e.getLocalizedMessage());
+            }
+        }
+    }
+
+    private void unregisterItemListener(String ohItemName) {
+        if (this.itemRegistry != null) {
+            try {
+                Item item = this.itemRegistry.getItem(ohItemName);
+                if (item instanceof GenericItem) {
+                    ((GenericItem) item).removeStateChangeListener(stateEventListener);
+                }
+            } catch (ItemNotFoundException e) {
+                logger.debug("{}", e.getLocalizedMessage());
             }
         }
     }
@@ -189,7 +273,7 @@ public class ReadResource implements EventBroadcaster, RESTResource {
      */
     @Override
     public void registerItem(Item item) {
-        if (item == null || items.containsKey(item) || !itemNames.contains(item.getName())) {
+        if (item == null || !clientItems.containsKey(item.getName())) {
             return;
         }
         if (item instanceof GenericItem) {
@@ -206,18 +290,17 @@ public class ReadResource implements EventBroadcaster, RESTResource {
      */
     @Override
     public void unregisterItem(Item item) {
-        if (item == null || items.containsKey(item) || !itemNames.contains(item.getName())) {
+        if (item == null) {
             return;
         }
         if (item instanceof GenericItem) {
             ((GenericItem) item).removeStateChangeListener(stateEventListener);
-            items.remove(item);
         }
     }
 
     /**
-     * Broadcasts an event described by the given parameters to all currently
-     * listening clients.
+     * Sends an event described by the given parameters to all clients which
+     * have subscribed to the item. The event is serialized only once.
      *
      * @param item
      *            - the item which has changed
@@ -226,13 +309,39 @@ public class ReadResource implements EventBroadcaster, RESTResource {
      */
     @Override
     public void broadcastEvent(final Object eventObject) {
-        executorService.execute(() -> {
-            broadcaster.broadcast(SseUtil.buildEvent(eventObject));
-        });
+        if (eventObject instanceof StateBean) {
+            StateBean stateBean = (StateBean) eventObject;
+            Set<ClientSubscription> cvSubscribers = subscribers.get(stateBean.name);
+            if (cvSubscribers == null || cvSubscribers.isEmpty()) {
+                return;
+            }
+            String serializedState = writer.serializeState(stateBean);
+            for (ClientSubscription client : cvSubscribers) {
+                if (client.queue(stateBean.name, serializedState)) {
+                    long delay = client.getLastFlush() + COALESCE_WINDOW - System.currentTimeMillis();
+                    executorService.schedule(() -> flush(client), Math.max(0, delay), TimeUnit.MILLISECONDS);
+                }
+            }
+        } else {
+            String msg = writer.serialize(eventObject);
+            executorService.execute(() -> {
+                for (ClientSubscription client : clients) {
+                    if (!client.send(msg)) {
+                        removeClient(client);
+                    }
+                }
+            });
+        }
+    }
+
+    private void flush(ClientSubscription client) {
+        if (!client.flush()) {
+            removeClient(client);
+        }
     }
 
     @Override
     public Map<String, Class<? extends State>> getClientItems(Item item) {
-        return items.get(item);
+        return clientItems.get(item.getName());
     }
 }
@@ -32,6 +32,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPOutputStream;
@@ -72,6 +73,7 @@ import org.openhab.ui.cometvisu.internal.config.VisuConfig;
 import org.openhab.ui.cometvisu.internal.editor.dataprovider.beans.DataBean;
 import org.openhab.ui.cometvisu.internal.editor.dataprovider.beans.ItemBean;
 import org.openhab.ui.cometvisu.internal.rss.beans.Feed;
+import org.openhab.ui.cometvisu.internal.servlet.StaticAssetCache.StaticAsset;
 import org.openhab.ui.cometvisu.internal.util.ClientInstaller;
 import org.openhab.ui.cometvisu.php.PHProvider;
 import org.slf4j.Logger;
@@ -117,6 +119,11 @@ public class CometVisuServlet extends HttpServlet {
 
     private CometVisuApp cometVisuApp;
 
+    private final StaticAssetCache assetCache = new StaticAssetCache();
+
+    // directory -> index file found in it
+    private final Map<File, File> indexFiles = new ConcurrentHashMap<File, File>();
+
     public CometVisuServlet(String filesystemDir, CometVisuApp cometVisuApp) {
         root = filesystemDir;
         rootFolder = new File(root);
@@ -288,6 +295,11 @@ public class CometVisuServlet extends HttpServlet {
             file = requestedFile != null ? new File(rootFolder, URLDecoder.decode(requestedFile, "UTF-8")) : rootFolder;
         }
         if (file.isDirectory()) {
+            File indexFile = indexFiles.get(file);
+            if (indexFile != null && indexFile.exists()) {
+                return indexFile;
+            }
+            File dir = file;
             // search for an index file
             FilenameFilter filter = new FilenameFilter() {
                 @Override
@@ -298,6 +310,7 @@ public class CometVisuServlet extends HttpServlet {
             for (String dirFile : file.list(filter)) {
                 // take the first one found
                 file = new File(file, dirFile);
+                indexFiles.put(dir, file);
                 break;
             }
         }
@@ -570,22 +583,47 @@ public class CometVisuServlet extends HttpServlet {
             return;
         }
 
+        // Serve complete files from the in-memory cache
+        if (content && request.getHeader("Range") == null && request.getHeader("If-Match") == null
+                && request.getHeader("If-Unmodified-Since") == null) {
+            String contentType = getServletContext().getMimeType(file.getName());
+            if (contentType != null) {
+                StaticAsset asset = assetCache.get(file, contentType);
+                if (asset != null) {
+                    processCachedRequest(file.getName(), contentType, asset, request, response);
+                    return;
+                }
+            }
+        }
+
         // Prepare some variables. The ETag is an unique identifier of the file.
         String fileName = file.getName();
         long length = file.length();
         long lastModified = file.lastModified();
-        String eTag = fileName + "_" + length + "_" + lastModified;
+        String eTag = getETag(fileName, length, lastModified, false);
         long expires = System.currentTimeMillis() + DEFAULT_EXPIRE_TIME;
 
+        // Complete text files are sent gzipped if the browser accepts it,
+        // which is another representation with its own ETag.
+        String mimeType = getServletContext().getMimeType(fileName);
+        boolean compressible = mimeType != null && mimeType.startsWith("text");
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        boolean gzipped = compressible && content && request.getHeader("Range") == null && acceptEncoding != null
+                && accepts(acceptEncoding, "gzip");
+        String responseETag = getETag(fileName, length, lastModified, gzipped);
+
         // Validate request headers for caching
         // ---------------------------------------------------
 
         // If-None-Match header should contain "*" or ETag. If so, then return
         // 304.
         String ifNoneMatch = request.getHeader("If-None-Match");
-        if (ifNoneMatch != null && matches(ifNoneMatch, eTag)) {
+        if (ifNoneMatch != null && matches(ifNoneMatch, responseETag)) {
             response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
-            response.setHeader("ETag", eTag); // Required in 304.
+            response.setHeader("ETag", responseETag); // Required in 304.
+            if (compressible) {
+                response.setHeader("Vary", "Accept-Encoding");
+            }
             response.setDateHeader("Expires", expires); // Postpone cache with 1
                                                         // week.
             return;
@@ -597,7 +635,10 @@ public class CometVisuServlet extends HttpServlet {
         long ifModifiedSince = request.getDateHeader("If-Modified-Since");
         if (ifNoneMatch == null && ifModifiedSince != -1 && ifModifiedSince + 1000 > lastModified) {
             response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
-            response.setHeader("ETag", eTag); // Required in 304.
+            response.setHeader("ETag", responseETag); // Required in 304.
+            if (compressible) {
+                response.setHeader("Vary", "Accept-Encoding");
+            }
             response.setDateHeader("Expires", expires); // Postpone cache with 1
                                                         // week.
             return;
@@ -716,9 +757,9 @@ public class CometVisuServlet extends HttpServlet {
         // the browser and expand content type with the one and right character
         // encoding.
         if (contentType.startsWith("text")) {
-            String acceptEncoding = request.getHeader("Accept-Encoding");
             acceptsGzip = acceptEncoding != null && accepts(acceptEncoding, "gzip");
             contentType += ";charset=UTF-8";
+            response.setHeader("Vary", "Accept-Encoding");
         }
 
         // Else, expect for images, determine content disposition. If content
@@ -760,6 +801,7 @@ public class CometVisuServlet extends HttpServlet {
                     if (acceptsGzip) {
                         // The browser accepts GZIP, so GZIP the content.
                         response.setHeader("Content-Encoding", "gzip");
+                        response.setHeader("ETag", getETag(fileName, length, lastModified, true));
                         output = new GZIPOutputStream(output, DEFAULT_BUFFER_SIZE);
                     } else {
                         // Content length is not directly predictable in case of
@@ -823,6 +865,80 @@ public class CometVisuServlet extends HttpServlet {
         }
     }
 
+    /**
+     * serves a complete file from the in-memory cache, the content is sent
+     * gzipped if the client accepts it and a compressed variant exists
+     *
+     * @param fileName
+     * @param contentType
+     * @param asset
+     * @param request
+     * @param response
+     * @throws IOException
+     */
+    private void processCachedRequest(String fileName, String contentType, StaticAsset asset,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long expires = System.currentTimeMillis() + DEFAULT_EXPIRE_TIME;
+
+        boolean gzipped = false;
+        if (asset.getGzipped() != null) {
+            response.setHeader("Vary", "Accept-Encoding");
+            String acceptEncoding = request.getHeader("Accept-Encoding");
+            gzipped = acceptEncoding != null && accepts(acceptEncoding, "gzip");
+        }
+        String eTag = getETag(fileName, asset.getLength(), asset.getLastModified(), gzipped);
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+        if ((ifNoneMatch != null && matches(ifNoneMatch, eTag))
+                || (ifNoneMatch == null && ifModifiedSince != -1 && ifModifiedSince + 1000 > asset.getLastModified())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader("ETag", eTag);
+            response.setDateHeader("Expires", expires);
+            return;
+        }
+
+        String disposition = "inline";
+        if (contentType.startsWith("text")) {
+            contentType += ";charset=UTF-8";
+        } else if (!contentType.startsWith("image")) {
+            String accept = request.getHeader("Accept");
+            disposition = accept != null && accepts(accept, contentType) ? "inline" : "attachment";
+        }
+
+        byte[] body = asset.getContent();
+        if (gzipped) {
+            response.setHeader("Content-Encoding", "gzip");
+            body = asset.getGzipped();
+        }
+
+        response.setContentType(contentType);
+        response.setHeader("Content-Disposition", disposition + ";filename=\"" + fileName + "\"");
+        response.setHeader("Accept-Ranges", "bytes");
+        response.setHeader("ETag", eTag);
+        response.setDateHeader("Last-Modified", asset.getLastModified());
+        response.setDateHeader("Expires", expires);
+        response.setContentLength(body.length);
+        try (OutputStream output = response.getOutputStream()) {
+            output.write(body);
+        }
+    }
+
+    /**
+     * Returns the ETag of a file, which is the same for cached and streamed
+     * files. The gzipped content is another representation and gets a suffix.
+     *
+     * @param fileName
+     * @param length
+     * @param lastModified
+     * @param gzipped
+     *            True if the content is sent gzipped.
+     * @return The ETag.
+     */
+    private static String getETag(String fileName, long length, long lastModified, boolean gzipped) {
+        return fileName + "_" + length + "_" + lastModified + (gzipped ? "-gzip" : "");
+    }
+
     /**
      * Show hints for solving installation problems
      *
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.servlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory cache of the static files of the CometVisu client. Compressible
+ * files are kept in a gzipped variant too. A cached file is reloaded when its
+ * size or modification time on disk changes.
+ *
+ * @author agent
+ */
+public class StaticAssetCache {
+    private final Logger logger = LoggerFactory.getLogger(StaticAssetCache.class);
+
+    private static final long MAX_FILE_SIZE = 1024 * 1024; // ..bytes = 1MB.
+    private static final long MAX_CACHE_SIZE = 32 * 1024 * 1024; // ..bytes = 32MB.
+
+    private final Map<File, StaticAsset> assets = new ConcurrentHashMap<File, StaticAsset>();
+    private final AtomicLong cacheSize = new AtomicLong();
+
+    /**
+     * Returns the cached file, loads it if it is not cached yet or has been
+     * changed on disk.
+     *
+     * @param file
+     *            The file to get.
+     * @param contentType
+     *            The content type of the file.
+     * @return The cached file or null if the file can not be cached.
+     */
+    public StaticAsset get(File file, String contentType) {
+        long length = file.length();
+        long lastModified = file.lastModified();
+        StaticAsset asset = assets.get(file);
+        if (asset != null && asset.length == length && asset.lastModified == lastModified) {
+            return asset;
+        }
+        if (asset != null) {
+            remove(file);
+        }
+        if (length > MAX_FILE_SIZE || !file.isFile()) {
+            return null;
+        }
+        if (cacheSize.get() + length > MAX_CACHE_SIZE) {
+            logger.debug("asset cache is full, serving '{}' from disk", file);
+            return null;
+        }
+        try {
+            asset = load(file, contentType, lastModified);
+        } catch (IOException e) {
+            logger.debug("could not cache '{}': {}", file, e.getMessage());
+            return null;
+        }
+        if (assets.put(file, asset) == null) {
+            cacheSize.addAndGet(asset.getSize());
+        }
+        return asset;
+    }
+
+    /**
+     * Removes all files from the cache.
+     */
+    public void clear() {
+        assets.clear();
+        cacheSize.set(0);
+    }
+
+    private void remove(File file) {
+        StaticAsset removed = assets.remove(file);
+        if (removed != null) {
+            cacheSize.addAndGet(-removed.getSize());
+        }
+    }
+
+    private StaticAsset load(File file, String contentType, long lastModified) throws IOException {
+        byte[] content = Files.readAllBytes(file.toPath());
+        byte[] gzipped = null;
+        if (isCompressible(contentType) && content.length > 0) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 2);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+                gzip.write(content);
+            }
+            if (bytes.size() < content.length) {
+                gzipped = bytes.toByteArray();
+            }
+        }
+        return new StaticAsset(content, gzipped, content.length, lastModified);
+    }
+
+    private static boolean isCompressible(String contentType) {
+        return contentType.startsWith("text") || contentType.contains("javascript") || contentType.contains("json")
+                || contentType.contains("xml");
+    }
+
+    /**
+     * A cached file.
+     */
+    public static class StaticAsset {
+        private final byte[] content;
+        private final byte[] gzipped;
+        private final long length;
+        private final long lastModified;
+
+        StaticAsset(byte[] content, byte[] gzipped, long length, long lastModified) {
+            this.content = content;
+            this.gzipped = gzipped;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        /**
+         * @return The gzipped content or null if the content is not worth compressing.
+         */
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        long getSize() {
+            return content.length + (gzipped != null ? gzipped.length : 0);
+        }
+    }
+}
@@ -47,6 +47,20 @@ public class SseUtil {
         return event;
     }
 
+    /**
+     * Creates a new {@link OutboundEvent} object containing an already
+     * serialized message.
+     *
+     * @param data
+     *            - the message in CV-Protocol format
+     * @return a new OutboundEvent.
+     */
+    public static OutboundEvent buildSerializedEvent(String data) {
+        OutboundEvent.Builder eventBuilder = new OutboundEvent.Builder();
+        return eventBuilder.mediaType(MediaType.APPLICATION_JSON_TYPE).data(data)
+                .id(String.valueOf(System.currentTimeMillis())).build();
+    }
+
     /**
      * Used to mark our current thread(request processing) that SSE blocking
      * should be enabled.